@@ -2,13 +2,20 @@ package com.alchemist.binding;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 
+import com.alchemist.stream.CustomerStreamWriter;
 import com.fasterxml.jackson.core.exc.StreamWriteException;
 import com.fasterxml.jackson.databind.DatabindException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class JavaToJsonConveter {
 	public static void main(String[] args) throws StreamWriteException, DatabindException, IOException {
+		//streaming mode for large exports: <file> <count> [ndjson]
+		if (args.length > 1) {
+			writeCustomers(Path.of(args[0]), Long.parseLong(args[1]), args.length > 2 && "ndjson".equals(args[2]));
+			return;
+		}
 		Address addr = new Address();
 		addr.setCity("Ichalkaranji");
 		addr.setState("Maharashtra");
@@ -26,4 +33,25 @@ public class JavaToJsonConveter {
 		System.out.println("Json file is created");
 	}
 
+	//writes count generated customers, one at a time
+	private static void writeCustomers(Path file, long count, boolean ndjson) throws IOException {
+		Address addr = new Address();
+		addr.setCity("Ichalkaranji");
+		addr.setState("Maharashtra");
+		addr.setCountry("India");
+
+		Customer c = new Customer();
+		c.setAddr(addr);
+		try (CustomerStreamWriter writer = ndjson ? CustomerStreamWriter.ndjson(file) : CustomerStreamWriter.jsonArray(file)) {
+			for (long i = 0; i < count; i++) {
+				c.setId((int) i);
+				c.setName("Rohit " + i);
+				c.setEmail("customer" + i + "@gmail.com");
+				c.setPhno(8087217900L + i);
+				writer.write(c);
+			}
+		}
+		System.out.println(count + " customers written to " + file);
+	}
+
 }
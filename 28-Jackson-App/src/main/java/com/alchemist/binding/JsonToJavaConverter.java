@@ -1,11 +1,20 @@
 package com.alchemist.binding;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alchemist.stream.CustomerStreamReader;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class JsonToJavaConverter {
     public static void main(String[] args) {
         try {
+            // Streaming mode for large exports: <file> [parallel threads, NDJSON only]
+            if (args.length > 0) {
+                streamCustomers(Path.of(args[0]), args.length > 1 ? Integer.parseInt(args[1]) : 1);
+                return;
+            }
             File f = new File("Customer.json");
             ObjectMapper mapper = new ObjectMapper();
             Customer c = mapper.readValue(f, Customer.class);
@@ -18,4 +27,16 @@ public class JsonToJavaConverter {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    // Reads a JSON array or NDJSON file one customer at a time and prints a summary
+    private static void streamCustomers(Path file, int threads) throws Exception {
+        CustomerStreamReader reader = new CustomerStreamReader();
+        AtomicLong phoneSum = new AtomicLong();
+        long start = System.nanoTime();
+        long count = threads > 1
+                ? reader.forEachParallel(file, threads, c -> phoneSum.addAndGet(c.getPhno()))
+                : reader.forEach(file, c -> phoneSum.addAndGet(c.getPhno()));
+        System.out.printf("Read %,d customers in %.2f s (phno checksum %d)%n", count,
+                (System.nanoTime() - start) / 1e9, phoneSum.get());
+    }
+}
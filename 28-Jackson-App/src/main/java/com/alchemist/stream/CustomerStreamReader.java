@@ -0,0 +1,192 @@
+package com.alchemist.stream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.alchemist.binding.Customer;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+/*
+ * Reads customers one at a time from a JSON array or an NDJSON file, so memory use does not grow
+ * with the file. Serial reads go through a buffered FileChannel; the parallel NDJSON mode memory maps
+ * one line-aligned range of the file per thread and decodes it straight from the mapping.
+ */
+public class CustomerStreamReader {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final long MAP_WINDOW = 1L << 28;     //256 MB of address space per mapping, not heap
+
+	private final ObjectReader reader;
+
+	public CustomerStreamReader() {
+		this(new ObjectMapper());
+	}
+
+	public CustomerStreamReader(ObjectMapper mapper) {
+		this.reader = mapper.readerFor(Customer.class);
+	}
+
+	//JSON array or NDJSON; close the stream to close the file
+	public Stream<Customer> stream(Path file) throws IOException {
+		InputStream in = open(file);
+		MappingIterator<Customer> customers;
+		try {
+			customers = reader.readValues(in);     //unwraps a root level array, or reads a sequence of root values
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(customers, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> {
+					try {
+						customers.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+	}
+
+	//returns the number of customers read
+	public long forEach(Path file, Consumer<Customer> action) throws IOException {
+		long count = 0;
+		try (InputStream in = open(file); MappingIterator<Customer> customers = reader.readValues(in)) {
+			while (customers.hasNextValue()) {
+				action.accept(customers.nextValue());
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * NDJSON only. The file is split into one range per thread at line boundaries and the ranges are
+	 * decoded concurrently, so action must be thread safe and sees customers in no particular order.
+	 */
+	public long forEachParallel(Path ndjson, int threads, Consumer<Customer> action) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try (FileChannel channel = FileChannel.open(ndjson, StandardOpenOption.READ)) {
+			long size = channel.size();
+			List<Future<Long>> parts = new ArrayList<>(threads);
+			long start = 0;
+			for (int i = 1; i <= threads; i++) {
+				long end = i == threads ? size : lineStart(channel, size * i / threads);
+				if (end > start) {
+					parts.add(pool.submit(new RangeDecoder(channel, start, end, action)));
+				}
+				start = Math.max(start, end);
+			}
+			long count = 0;
+			for (Future<Long> part : parts) {
+				count += part.get();
+			}
+			return count;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while decoding " + ndjson, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException io) {
+				throw io;
+			}
+			throw new IOException("Failed to decode " + ndjson, e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	//decodes [start, end) one mapped window at a time, each window cut after its last complete line
+	private final class RangeDecoder implements Callable<Long> {
+
+		private final FileChannel channel;
+		private final long start;
+		private final long end;
+		private final Consumer<Customer> action;
+
+		RangeDecoder(FileChannel channel, long start, long end, Consumer<Customer> action) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.action = action;
+		}
+
+		@Override
+		public Long call() throws IOException {
+			long count = 0;
+			long pos = start;
+			while (pos < end) {
+				long windowEnd = Math.min(end, pos + MAP_WINDOW);
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, windowEnd - pos);
+				int limit = windowEnd == end ? window.limit() : lastLineEnd(window);
+				if (limit == 0) {
+					throw new IOException("NDJSON line at offset " + pos + " is longer than " + MAP_WINDOW + " bytes");
+				}
+				try (MappingIterator<Customer> customers = reader.readValues(new ByteBufferBackedInputStream(window.slice(0, limit)))) {
+					while (customers.hasNextValue()) {
+						action.accept(customers.nextValue());
+						count++;
+					}
+				}
+				pos += limit;
+			}
+			return count;
+		}
+
+		private int lastLineEnd(ByteBuffer window) {
+			for (int i = window.limit() - 1; i >= 0; i--) {
+				if (window.get(i) == '\n') {
+					return i + 1;
+				}
+			}
+			return 0;
+		}
+	}
+
+	//first offset at or after pos that starts a line
+	private static long lineStart(FileChannel channel, long pos) throws IOException {
+		if (pos == 0) {
+			return 0;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		long offset = pos - 1;
+		while (true) {
+			buffer.clear();
+			int read = channel.read(buffer, offset);
+			if (read <= 0) {
+				return channel.size();
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return offset + i + 1;
+				}
+			}
+			offset += read;
+		}
+	}
+
+	private static InputStream open(Path file) throws IOException {
+		return new BufferedInputStream(Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ)), BUFFER_SIZE);
+	}
+
+}
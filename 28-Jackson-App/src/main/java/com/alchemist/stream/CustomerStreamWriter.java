@@ -0,0 +1,68 @@
+package com.alchemist.stream;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.alchemist.binding.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * Writes customers one at a time as a JSON array or as NDJSON (one customer per line) through a
+ * buffered FileChannel. Nothing but the current customer is kept in memory; close() finishes the
+ * array and flushes the file.
+ */
+public class CustomerStreamWriter implements AutoCloseable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final SequenceWriter sequence;
+
+	private CustomerStreamWriter(SequenceWriter sequence) {
+		this.sequence = sequence;
+	}
+
+	public static CustomerStreamWriter jsonArray(Path file) throws IOException {
+		return jsonArray(file, new ObjectMapper());
+	}
+
+	public static CustomerStreamWriter jsonArray(Path file, ObjectMapper mapper) throws IOException {
+		return new CustomerStreamWriter(writer(mapper).writeValuesAsArray(open(file)));
+	}
+
+	public static CustomerStreamWriter ndjson(Path file) throws IOException {
+		return ndjson(file, new ObjectMapper());
+	}
+
+	public static CustomerStreamWriter ndjson(Path file, ObjectMapper mapper) throws IOException {
+		return new CustomerStreamWriter(writer(mapper).withRootValueSeparator("\n").writeValues(open(file)));
+	}
+
+	public void write(Customer customer) throws IOException {
+		sequence.write(customer);
+	}
+
+	@Override
+	public void close() throws IOException {
+		sequence.close();
+	}
+
+	//no flush per customer, the buffer is flushed when full and on close
+	private static ObjectWriter writer(ObjectMapper mapper) {
+		return mapper.writerFor(Customer.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	private static OutputStream open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		return new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+	}
+
+}
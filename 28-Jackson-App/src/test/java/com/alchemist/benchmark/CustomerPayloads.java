@@ -0,0 +1,40 @@
+package com.alchemist.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alchemist.binding.Address;
+import com.alchemist.binding.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//test data shared by the codec benchmarks: n customers and the same customers as a JSON array
+final class CustomerPayloads {
+
+	private CustomerPayloads() {
+	}
+
+	static List<Customer> customers(int count) {
+		List<Customer> customers = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Address addr = new Address();
+			addr.setCity("Ichalkaranji");
+			addr.setState("Maharashtra");
+			addr.setCountry("India");
+
+			Customer c = new Customer();
+			c.setId(i);
+			c.setName("Rohit " + i);
+			c.setEmail("customer" + i + "@gmail.com");
+			c.setPhno(8087217900L + i);
+			c.setAddr(addr);
+			customers.add(c);
+		}
+		return customers;
+	}
+
+	static byte[] jsonArray(List<Customer> customers) throws IOException {
+		return new ObjectMapper().writeValueAsBytes(customers);
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.alchemist.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alchemist.binding.Customer;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+/*
+ * Gson databind over the same JSON array as JacksonCodecBenchmark: one shared Gson against a new Gson
+ * per call, as 29-GsonApi-App's App does. Reads go through a Reader, like gson.fromJson(FileReader, ...).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GsonCodecBenchmark {
+
+	private static final Type CUSTOMER_LIST = TypeToken.getParameterized(List.class, Customer.class).getType();
+
+	@Param({ "1", "1000", "1000000" })
+	public int records;
+
+	private Gson sharedGson;
+	private List<Customer> customers;
+	private byte[] json;
+
+	@Setup
+	public void setUp() throws IOException {
+		sharedGson = new Gson();
+		customers = CustomerPayloads.customers(records);
+		json = CustomerPayloads.jsonArray(customers);
+	}
+
+	@Benchmark
+	public void writeSharedGson() {
+		sharedGson.toJson(customers, CUSTOMER_LIST, Writer.nullWriter());
+	}
+
+	@Benchmark
+	public List<Customer> readSharedGson() {
+		return sharedGson.fromJson(reader(json), CUSTOMER_LIST);
+	}
+
+	@Benchmark
+	public void writeGsonPerCall() {
+		new Gson().toJson(customers, CUSTOMER_LIST, Writer.nullWriter());
+	}
+
+	@Benchmark
+	public List<Customer> readGsonPerCall() {
+		return new Gson().fromJson(reader(json), CUSTOMER_LIST);
+	}
+
+	static Reader reader(byte[] json) {
+		return new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8);
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(GsonCodecBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
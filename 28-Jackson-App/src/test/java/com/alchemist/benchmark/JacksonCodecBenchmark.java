@@ -0,0 +1,96 @@
+package com.alchemist.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alchemist.binding.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/*
+ * Jackson databind over a JSON array of customers: one shared ObjectMapper (plain, Afterburner or
+ * Blackbird) against a new ObjectMapper per call, as JavaToJsonConveter and JsonToJavaConverter do.
+ * main() adds the GC profiler, so gc.alloc.rate.norm gives the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JacksonCodecBenchmark {
+
+	@Param({ "1", "1000", "1000000" })
+	public int records;
+
+	@Param({ "plain", "afterburner", "blackbird" })
+	public String mapper;
+
+	private ObjectMapper sharedMapper;
+	private ObjectReader sharedReader;
+	private List<Customer> customers;
+	private byte[] json;
+
+	@Setup
+	public void setUp() throws IOException {
+		sharedMapper = newMapper(mapper);
+		sharedReader = sharedMapper.readerForListOf(Customer.class);
+		customers = CustomerPayloads.customers(records);
+		json = CustomerPayloads.jsonArray(customers);
+	}
+
+	@Benchmark
+	public void writeSharedMapper() throws IOException {
+		sharedMapper.writeValue(OutputStream.nullOutputStream(), customers);
+	}
+
+	@Benchmark
+	public List<Customer> readSharedMapper() throws IOException {
+		return sharedReader.readValue(json);
+	}
+
+	@Benchmark
+	public void writeMapperPerCall() throws IOException {
+		newMapper(mapper).writeValue(OutputStream.nullOutputStream(), customers);
+	}
+
+	@Benchmark
+	public List<Customer> readMapperPerCall() throws IOException {
+		return newMapper(mapper).readerForListOf(Customer.class).readValue(json);
+	}
+
+	static ObjectMapper newMapper(String module) {
+		ObjectMapper mapper = new ObjectMapper();
+		if ("afterburner".equals(module)) {
+			mapper.registerModule(new AfterburnerModule());
+		} else if ("blackbird".equals(module)) {
+			mapper.registerModule(new BlackbirdModule());
+		}
+		return mapper;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(JacksonCodecBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
@@ -0,0 +1,186 @@
+package com.alchemist.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alchemist.binding.Address;
+import com.alchemist.binding.Customer;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/*
+ * The same JSON array read and written with hand written streaming code: Jackson's
+ * JsonParser/JsonGenerator against Gson's JsonReader/JsonWriter. Compare with the databind
+ * numbers of JacksonCodecBenchmark and GsonCodecBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StreamingCodecBenchmark {
+
+	@Param({ "1", "1000", "1000000" })
+	public int records;
+
+	private final JsonFactory factory = new JsonFactory();
+	private List<Customer> customers;
+	private byte[] json;
+
+	@Setup
+	public void setUp() throws IOException {
+		customers = CustomerPayloads.customers(records);
+		json = CustomerPayloads.jsonArray(customers);
+	}
+
+	@Benchmark
+	public void writeJacksonStreaming() throws IOException {
+		try (JsonGenerator gen = factory.createGenerator(OutputStream.nullOutputStream())) {
+			gen.writeStartArray();
+			for (Customer c : customers) {
+				gen.writeStartObject();
+				gen.writeNumberField("id", c.getId());
+				gen.writeStringField("name", c.getName());
+				gen.writeStringField("email", c.getEmail());
+				gen.writeNumberField("phno", c.getPhno());
+				Address addr = c.getAddr();
+				gen.writeObjectFieldStart("addr");
+				gen.writeStringField("city", addr.getCity());
+				gen.writeStringField("state", addr.getState());
+				gen.writeStringField("country", addr.getCountry());
+				gen.writeEndObject();
+				gen.writeEndObject();
+			}
+			gen.writeEndArray();
+		}
+	}
+
+	@Benchmark
+	public List<Customer> readJacksonStreaming() throws IOException {
+		List<Customer> result = new ArrayList<>(records);
+		try (JsonParser p = factory.createParser(json)) {
+			p.nextToken();     //START_ARRAY
+			while (p.nextToken() == JsonToken.START_OBJECT) {
+				Customer c = new Customer();
+				while (p.nextToken() == JsonToken.FIELD_NAME) {
+					String field = p.currentName();
+					p.nextToken();
+					switch (field) {
+					case "id" -> c.setId(p.getIntValue());
+					case "name" -> c.setName(p.getText());
+					case "email" -> c.setEmail(p.getText());
+					case "phno" -> c.setPhno(p.getLongValue());
+					case "addr" -> {
+						Address addr = new Address();
+						while (p.nextToken() == JsonToken.FIELD_NAME) {
+							String addrField = p.currentName();
+							p.nextToken();
+							switch (addrField) {
+							case "city" -> addr.setCity(p.getText());
+							case "state" -> addr.setState(p.getText());
+							case "country" -> addr.setCountry(p.getText());
+							default -> p.skipChildren();
+							}
+						}
+						c.setAddr(addr);
+					}
+					default -> p.skipChildren();
+					}
+				}
+				result.add(c);
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	public void writeGsonStreaming() throws IOException {
+		try (JsonWriter w = new JsonWriter(Writer.nullWriter())) {
+			w.beginArray();
+			for (Customer c : customers) {
+				w.beginObject();
+				w.name("id").value(c.getId());
+				w.name("name").value(c.getName());
+				w.name("email").value(c.getEmail());
+				w.name("phno").value(c.getPhno());
+				Address addr = c.getAddr();
+				w.name("addr").beginObject();
+				w.name("city").value(addr.getCity());
+				w.name("state").value(addr.getState());
+				w.name("country").value(addr.getCountry());
+				w.endObject();
+				w.endObject();
+			}
+			w.endArray();
+		}
+	}
+
+	@Benchmark
+	public List<Customer> readGsonStreaming() throws IOException {
+		List<Customer> result = new ArrayList<>(records);
+		try (JsonReader r = new JsonReader(GsonCodecBenchmark.reader(json))) {
+			r.beginArray();
+			while (r.hasNext()) {
+				Customer c = new Customer();
+				r.beginObject();
+				while (r.hasNext()) {
+					switch (r.nextName()) {
+					case "id" -> c.setId(r.nextInt());
+					case "name" -> c.setName(r.nextString());
+					case "email" -> c.setEmail(r.nextString());
+					case "phno" -> c.setPhno(r.nextLong());
+					case "addr" -> {
+						Address addr = new Address();
+						r.beginObject();
+						while (r.hasNext()) {
+							switch (r.nextName()) {
+							case "city" -> addr.setCity(r.nextString());
+							case "state" -> addr.setState(r.nextString());
+							case "country" -> addr.setCountry(r.nextString());
+							default -> r.skipValue();
+							}
+						}
+						r.endObject();
+						c.setAddr(addr);
+					}
+					default -> r.skipValue();
+					}
+				}
+				r.endObject();
+				result.add(c);
+			}
+			r.endArray();
+		}
+		return result;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(StreamingCodecBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
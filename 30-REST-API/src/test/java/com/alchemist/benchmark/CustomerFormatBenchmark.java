@@ -0,0 +1,111 @@
+package com.alchemist.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alchemist.binding.Address;
+import com.alchemist.binding.Customer;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/*
+ * Encode and decode time of JSON, CBOR and Smile for one customer and for a list of 10k customers.
+ * main() prints the payload size of each format before running.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerFormatBenchmark {
+
+	@Param({ "json", "cbor", "smile" })
+	public String format;
+
+	@Param({ "1", "10000" })
+	public int customers;
+
+	private ObjectMapper mapper;
+	private JavaType type;
+	private Object payload;
+	private byte[] encoded;
+
+	@Setup
+	public void setUp() throws IOException {
+		mapper = mapper(format);
+		type = customers == 1 ? mapper.constructType(Customer.class)
+				: mapper.getTypeFactory().constructCollectionType(List.class, Customer.class);
+		payload = payload(customers);
+		encoded = mapper.writeValueAsBytes(payload);
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return mapper.writeValueAsBytes(payload);
+	}
+
+	@Benchmark
+	public Object decode() throws IOException {
+		return mapper.readValue(encoded, type);
+	}
+
+	static ObjectMapper mapper(String format) {
+		switch (format) {
+		case "cbor":
+			return new CBORMapper();
+		case "smile":
+			return new SmileMapper();
+		default:
+			return new ObjectMapper();
+		}
+	}
+
+	static Object payload(int count) {
+		List<Customer> list = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Address addr = new Address();
+			addr.setCity("Terwad");
+			addr.setState("Maharashtra");
+			addr.setCountry("India");
+
+			Customer customer = new Customer();
+			customer.setId(i);
+			customer.setName("Prime " + i);
+			customer.setEmail("prime" + i + "@gmail.com");
+			customer.setPhno(996050L + i);
+			customer.setAddr(addr);
+			list.add(customer);
+		}
+		return count == 1 ? list.get(0) : list;
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (int count : new int[] { 1, 10000 }) {
+			for (String format : new String[] { "json", "cbor", "smile" }) {
+				System.out.printf("%-6s %6d customer(s): %,10d bytes%n", format, count,
+						mapper(format).writeValueAsBytes(payload(count)).length);
+			}
+		}
+		new Runner(new OptionsBuilder().include(CustomerFormatBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
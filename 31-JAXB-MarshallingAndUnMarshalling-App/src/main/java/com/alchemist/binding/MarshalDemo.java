@@ -1,12 +1,17 @@
 package com.alchemist.binding;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.alchemist.xml.XmlBindingService;
 
 public class MarshalDemo {
 
+	//one JAXBContext per type for the whole application
+	private static final XmlBindingService XML = new XmlBindingService();
+
 	public static void main(String[] args) {
 		// TODO Auto-generated method stub
 		Customer customer = new Customer();
@@ -15,12 +20,10 @@ public class MarshalDemo {
 		customer.setEmail("prime@co.in");
 		customer.setPhno((long)9899);
 		
-		try {
-			JAXBContext context = JAXBContext.newInstance(Customer.class);
-			Marshaller marshaller = context.createMarshaller();
-			marshaller.marshal(customer,new File("Customer.xml"));
+		try (OutputStream out = new FileOutputStream("Customer.xml")) {
+			XML.marshal(customer, out);
 			System.out.println("XML file is created");
-		} catch (JAXBException e) {
+		} catch (JAXBException | IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
@@ -1,21 +1,34 @@
 package com.alchemist.binding;
 
-import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
+
+import com.alchemist.xml.XmlBindingService;
 
 public class UnMarshalDemo {
+
+	//one JAXBContext per type for the whole application
+	private static final XmlBindingService XML = new XmlBindingService();
+
 	public static void main(String[] args) {
-		File f = new File("Customer.xml");
-		try {
-			JAXBContext context = JAXBContext.newInstance(Customer.class);
-			Unmarshaller unmarshaller = context.createUnmarshaller();
-			Object unmarshal = unmarshaller.unmarshal(f);
-			Customer c = (Customer)unmarshal;
+		//with a file argument: stream every <customer> in it, e.g. <customers><customer>..</customer>...</customers>
+		if (args.length > 0) {
+			try (InputStream in = new FileInputStream(args[0])) {
+				long count = XML.unmarshalEach(in, Customer.class, System.out::println);
+				System.out.println(count + " customers read");
+			} catch (JAXBException | XMLStreamException | IOException e) {
+				e.printStackTrace();
+			}
+			return;
+		}
+		try (InputStream in = new FileInputStream("Customer.xml")) {
+			Customer c = XML.unmarshal(in, Customer.class);
 			System.out.println(c);
-		} catch (JAXBException e) {
+		} catch (JAXBException | IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
@@ -0,0 +1,166 @@
+package com.alchemist.xml;
+
+import java.beans.Introspector;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/*
+ * Thread safe XML binding. JAXBContext.newInstance is expensive, so one context is built per type and
+ * kept. Marshallers and Unmarshallers are cheap to reuse but not thread safe, so each type has a pool
+ * of them: a caller borrows one, uses it on its own thread and gives it back.
+ */
+public class XmlBindingService {
+
+	private static final int MAX_IDLE_PER_TYPE = 64;
+
+	private final Map<Class<?>, Binding> bindings = new ConcurrentHashMap<>();
+	private final XMLInputFactory inputFactory;
+
+	public XmlBindingService() {
+		inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);     //no DTDs or external entities
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+	}
+
+	public JAXBContext context(Class<?> type) {
+		return binding(type).context;
+	}
+
+	public void marshal(Object value, OutputStream out) throws JAXBException {
+		Binding binding = binding(value.getClass());
+		Marshaller marshaller = binding.borrowMarshaller();
+		try {
+			marshaller.marshal(value, out);
+		} finally {
+			binding.release(marshaller);
+		}
+	}
+
+	public <T> T unmarshal(InputStream in, Class<T> type) throws JAXBException {
+		Binding binding = binding(type);
+		Unmarshaller unmarshaller = binding.borrowUnmarshaller();
+		try {
+			return type.cast(unmarshaller.unmarshal(in));
+		} finally {
+			binding.release(unmarshaller);
+		}
+	}
+
+	/*
+	 * Unmarshals every element named after type's @XmlRootElement (e.g. every <customer>) found anywhere in
+	 * the document, one at a time with StAX, so only the current element is held in memory.
+	 * Returns the number of elements read.
+	 */
+	public <T> long unmarshalEach(InputStream in, Class<T> type, Consumer<? super T> action)
+			throws JAXBException, XMLStreamException {
+		return unmarshalEach(in, type, elementName(type), action);
+	}
+
+	public <T> long unmarshalEach(InputStream in, Class<T> type, String elementName, Consumer<? super T> action)
+			throws JAXBException, XMLStreamException {
+		Binding binding = binding(type);
+		Unmarshaller unmarshaller = binding.borrowUnmarshaller();
+		XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+		long count = 0;
+		try {
+			while (reader.hasNext()) {
+				if (reader.isStartElement() && elementName.equals(reader.getLocalName())) {
+					//leaves the reader just after the element's end tag
+					action.accept(unmarshaller.unmarshal(reader, type).getValue());
+					count++;
+				} else {
+					reader.next();
+				}
+			}
+		} finally {
+			reader.close();
+			binding.release(unmarshaller);
+		}
+		return count;
+	}
+
+	private Binding binding(Class<?> type) {
+		Binding binding = bindings.get(type);
+		if (binding == null) {
+			binding = bindings.computeIfAbsent(type, Binding::new);
+		}
+		return binding;
+	}
+
+	private static String elementName(Class<?> type) {
+		XmlRootElement root = type.getAnnotation(XmlRootElement.class);
+		if (root != null && !"##default".equals(root.name())) {
+			return root.name();
+		}
+		return Introspector.decapitalize(type.getSimpleName());
+	}
+
+	private static final class Binding {
+
+		final JAXBContext context;
+		final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+		final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+		//ConcurrentLinkedQueue.size() walks the queue, so idle counts are kept separately
+		final AtomicInteger idleMarshallers = new AtomicInteger();
+		final AtomicInteger idleUnmarshallers = new AtomicInteger();
+
+		Binding(Class<?> type) {
+			try {
+				context = JAXBContext.newInstance(type);
+			} catch (JAXBException e) {
+				throw new IllegalArgumentException("Cannot bind " + type.getName(), e);
+			}
+		}
+
+		Marshaller borrowMarshaller() throws JAXBException {
+			Marshaller marshaller = marshallers.poll();
+			if (marshaller == null) {
+				return context.createMarshaller();
+			}
+			idleMarshallers.decrementAndGet();
+			return marshaller;
+		}
+
+		Unmarshaller borrowUnmarshaller() throws JAXBException {
+			Unmarshaller unmarshaller = unmarshallers.poll();
+			if (unmarshaller == null) {
+				return context.createUnmarshaller();
+			}
+			idleUnmarshallers.decrementAndGet();
+			return unmarshaller;
+		}
+
+		void release(Marshaller marshaller) {
+			if (idleMarshallers.incrementAndGet() <= MAX_IDLE_PER_TYPE) {
+				marshallers.offer(marshaller);
+			} else {
+				idleMarshallers.decrementAndGet();
+			}
+		}
+
+		void release(Unmarshaller unmarshaller) {
+			if (idleUnmarshallers.incrementAndGet() <= MAX_IDLE_PER_TYPE) {
+				unmarshallers.offer(unmarshaller);
+			} else {
+				idleUnmarshallers.decrementAndGet();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.alchemist.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alchemist.binding.Customer;
+import com.alchemist.xml.XmlBindingService;
+
+/*
+ * Latency of one customer document: a new JAXBContext per document, as MarshalDemo and UnMarshalDemo
+ * did, against the cached context and pooled (un)marshallers of XmlBindingService, from 4 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class XmlBindingBenchmark {
+
+	private final XmlBindingService service = new XmlBindingService();
+	private Customer customer;
+	private byte[] xml;
+
+	@Setup
+	public void setUp() throws JAXBException {
+		customer = new Customer();
+		customer.setId(1);
+		customer.setName("Prime");
+		customer.setEmail("prime@co.in");
+		customer.setPhno((long) 9899);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.marshal(customer, out);
+		xml = out.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] marshalNewContext() throws JAXBException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		JAXBContext.newInstance(Customer.class).createMarshaller().marshal(customer, out);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] marshalCached() throws JAXBException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		service.marshal(customer, out);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public Object unmarshalNewContext() throws JAXBException {
+		return JAXBContext.newInstance(Customer.class).createUnmarshaller().unmarshal(new ByteArrayInputStream(xml));
+	}
+
+	@Benchmark
+	public Customer unmarshalCached() throws JAXBException {
+		return service.unmarshal(new ByteArrayInputStream(xml), Customer.class);
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(XmlBindingBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
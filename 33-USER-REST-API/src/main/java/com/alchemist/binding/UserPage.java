@@ -0,0 +1,18 @@
+package com.alchemist.binding;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+	private List<User> users;
+
+	//pass as ?after= to get the next page, null on the last page
+	private Integer nextCursor;
+
+}
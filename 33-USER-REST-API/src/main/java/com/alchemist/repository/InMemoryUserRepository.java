@@ -0,0 +1,301 @@
+package com.alchemist.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.alchemist.binding.User;
+
+/*
+ * Thread safe, size bounded user store.
+ * Users are spread over user.store.segments segments by id, each with its own lock and an equal
+ * share of user.store.max-size, so concurrent requests rarely wait on each other. A full segment
+ * evicts its least recently used (lru) or least frequently used (lfu) user, per user.store.eviction.
+ * With user.store.email-index=true a concurrent email -> id index is kept alongside, without it
+ * a lookup by email scans every user.
+ * A sorted set of ids gives the listing endpoints a stable cursor while users are added and evicted.
+ * With lru, users read by a listing count as recently used.
+ */
+@Repository
+public class InMemoryUserRepository implements UserRepository {
+
+	private final Segment[] segments;
+	private final Map<String, Integer> emailIndex;
+	private final ConcurrentSkipListSet<Integer> ids = new ConcurrentSkipListSet<>();
+	private final AtomicLong size = new AtomicLong();
+
+	public InMemoryUserRepository(@Value("${user.store.max-size:3000000}") int maxSize,
+			@Value("${user.store.eviction:lru}") String eviction,
+			@Value("${user.store.email-index:false}") boolean emailIndex,
+			@Value("${user.store.segments:16}") int segmentCount) {
+		int perSegment = Math.max(1, maxSize / segmentCount);
+		this.segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = "lfu".equalsIgnoreCase(eviction) ? new LfuSegment(perSegment) : new LruSegment(perSegment);
+		}
+		this.emailIndex = emailIndex ? new ConcurrentHashMap<>() : null;
+	}
+
+	@Override
+	public void save(User user) {
+		if (user.getId() == null) {
+			throw new IllegalArgumentException("User id is required");
+		}
+		Segment segment = segment(user.getId());
+		segment.lock.lock();
+		try {
+			User previous = segment.put(user);
+			User evicted = segment.takeEvicted();
+			if (evicted != null) {
+				size.decrementAndGet();
+				ids.remove(evicted.getId());
+				unindex(evicted);
+			}
+			if (previous == null) {
+				size.incrementAndGet();
+				ids.add(user.getId());
+			} else {
+				unindex(previous);
+			}
+			if (emailIndex != null && user.getEmail() != null) {
+				emailIndex.put(user.getEmail(), user.getId());
+			}
+		} finally {
+			segment.lock.unlock();
+		}
+	}
+
+	@Override
+	public User findById(Integer id) {
+		if (id == null) {
+			return null;
+		}
+		Segment segment = segment(id);
+		segment.lock.lock();      //a read also updates recency/frequency
+		try {
+			return segment.get(id);
+		} finally {
+			segment.lock.unlock();
+		}
+	}
+
+	@Override
+	public User findByEmail(String email) {
+		if (email == null) {
+			return null;
+		}
+		if (emailIndex == null) {
+			for (Integer id : ids) {
+				User user = peek(id);
+				if (user != null && email.equals(user.getEmail())) {
+					return findById(id);
+				}
+			}
+			return null;
+		}
+		Integer id = emailIndex.get(email);
+		User user = findById(id);
+		return user != null && email.equals(user.getEmail()) ? user : null;
+	}
+
+	@Override
+	public long count() {
+		return size.get();
+	}
+
+	@Override
+	public List<User> findAfter(Integer afterId, int limit) {
+		List<User> page = new ArrayList<>(Math.min(limit, 1024));
+		for (Integer id : idsAfter(afterId)) {
+			if (page.size() == limit) {
+				break;
+			}
+			User user = peek(id);
+			if (user != null) {     //evicted since the id was read
+				page.add(user);
+			}
+		}
+		return page;
+	}
+
+	@Override
+	public void forEachAfter(Integer afterId, Consumer<User> action) {
+		for (Integer id : idsAfter(afterId)) {
+			User user = peek(id);
+			if (user != null) {
+				action.accept(user);
+			}
+		}
+	}
+
+	private NavigableSet<Integer> idsAfter(Integer afterId) {
+		return afterId == null ? ids : ids.tailSet(afterId, false);
+	}
+
+	private User peek(Integer id) {
+		Segment segment = segment(id);
+		segment.lock.lock();
+		try {
+			return segment.peek(id);
+		} finally {
+			segment.lock.unlock();
+		}
+	}
+
+	//called with the segment lock held
+	private void unindex(User user) {
+		if (emailIndex != null && user.getEmail() != null) {
+			emailIndex.remove(user.getEmail(), user.getId());
+		}
+	}
+
+	private Segment segment(int id) {
+		int h = id * 0x9E3779B9;
+		return segments[Math.floorMod(h ^ (h >>> 16), segments.length)];
+	}
+
+	private abstract static class Segment {
+
+		final ReentrantLock lock = new ReentrantLock();
+		final int capacity;
+		//the user the last put() pushed out of a full segment
+		User evicted;
+
+		Segment(int capacity) {
+			this.capacity = capacity;
+		}
+
+		abstract User get(Integer id);
+
+		//read for listings, leaves frequency alone (recency can't be, see LruSegment)
+		abstract User peek(Integer id);
+
+		//returns the user previously stored under the same id, evicts one first when a new id finds the segment full
+		abstract User put(User user);
+
+		User takeEvicted() {
+			User user = evicted;
+			evicted = null;
+			return user;
+		}
+	}
+
+	private static final class LruSegment extends Segment {
+
+		//access order, the eldest entry is the least recently used
+		private final LinkedHashMap<Integer, User> users = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, User> eldest) {
+				if (size() <= capacity) {
+					return false;
+				}
+				evicted = eldest.getValue();
+				return true;
+			}
+		};
+
+		LruSegment(int capacity) {
+			super(capacity);
+		}
+
+		@Override
+		User get(Integer id) {
+			return users.get(id);
+		}
+
+		//an access-ordered map has no read that leaves the order alone, so listings count as uses here
+		@Override
+		User peek(Integer id) {
+			return users.get(id);
+		}
+
+		@Override
+		User put(User user) {
+			return users.put(user.getId(), user);
+		}
+	}
+
+	//O(1) LFU: users grouped by hit count, ties broken by insertion order within a count
+	private static final class LfuSegment extends Segment {
+
+		private final Map<Integer, User> users = new HashMap<>();
+		private final Map<Integer, Integer> hits = new HashMap<>();
+		private final Map<Integer, LinkedHashSet<Integer>> byHits = new HashMap<>();
+		private int minHits;
+
+		LfuSegment(int capacity) {
+			super(capacity);
+		}
+
+		@Override
+		User get(Integer id) {
+			User user = users.get(id);
+			if (user != null) {
+				touch(id);
+			}
+			return user;
+		}
+
+		@Override
+		User peek(Integer id) {
+			return users.get(id);
+		}
+
+		@Override
+		User put(User user) {
+			Integer id = user.getId();
+			if (users.size() >= capacity && !users.containsKey(id)) {
+				evicted = evictColdest();
+			}
+			User previous = users.put(id, user);
+			if (previous != null) {
+				touch(id);
+			} else {
+				hits.put(id, 1);
+				byHits.computeIfAbsent(1, k -> new LinkedHashSet<>()).add(id);
+				minHits = 1;
+			}
+			return previous;
+		}
+
+		private User evictColdest() {
+			LinkedHashSet<Integer> coldest = byHits.get(minHits);
+			Iterator<Integer> it = coldest.iterator();
+			Integer coldestId = it.next();
+			it.remove();
+			if (coldest.isEmpty()) {
+				byHits.remove(minHits);
+			}
+			hits.remove(coldestId);
+			return users.remove(coldestId);
+		}
+
+		private void touch(Integer id) {
+			int count = hits.get(id);
+			LinkedHashSet<Integer> bucket = byHits.get(count);
+			bucket.remove(id);
+			if (bucket.isEmpty()) {
+				byHits.remove(count);
+				if (minHits == count) {
+					minHits = count + 1;
+				}
+			}
+			hits.put(id, count + 1);
+			byHits.computeIfAbsent(count + 1, k -> new LinkedHashSet<>()).add(id);
+		}
+	}
+
+}
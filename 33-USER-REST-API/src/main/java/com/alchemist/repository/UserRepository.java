@@ -0,0 +1,23 @@
+package com.alchemist.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.alchemist.binding.User;
+
+public interface UserRepository {
+
+	public void save(User user);
+
+	public User findById(Integer id);
+
+	public User findByEmail(String email);
+
+	public long count();
+
+	//users in id order after afterId (null = from the start)
+	public List<User> findAfter(Integer afterId, int limit);
+
+	public void forEachAfter(Integer afterId, Consumer<User> action);
+
+}
@@ -1,9 +1,11 @@
 package com.alchemist.rest;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,30 +13,83 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.alchemist.binding.User;
+import com.alchemist.binding.UserPage;
+import com.alchemist.repository.UserRepository;
+import com.alchemist.service.UserBulkProcessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 public class UserRestController {
 	
-	private  Map<Integer, User> dataMap =new HashMap<>();
+	private static final int MAX_PAGE_SIZE = 1000;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private UserBulkProcessor bulkProcessor;
 	
 	@PostMapping(
 			value="/user",
 			consumes= {"application/json"}
 			)
 	public ResponseEntity<String> addUser(@RequestBody User user){
-		dataMap.put(user.getId(), user);
-		System.out.println(dataMap);
+		if (user.getId() == null) {
+			return new ResponseEntity<String>("User id is required", HttpStatus.BAD_REQUEST);
+		}
+		userRepository.save(user);
 		return new ResponseEntity<String>("User saved.....",HttpStatus.CREATED);
 	}
 	
+	//body is a JSON array of users, saved while it is being read
+	@PostMapping(
+			value="/users",
+			consumes= {"application/json"}
+			)
+	public ResponseEntity<String> addUsers(HttpServletRequest request) throws IOException {
+		int[] result;
+		try {
+			result = bulkProcessor.importUsers(request.getInputStream());
+		} catch (IllegalArgumentException | JsonProcessingException e) {
+			return new ResponseEntity<String>(e.getMessage(), HttpStatus.BAD_REQUEST);
+		}
+		return new ResponseEntity<String>(result[0] + " users saved, " + result[1] + " rejected.....", HttpStatus.CREATED);
+	}
+	
+	//cursor paging in id order: pass the previous page's nextCursor as after
+	@GetMapping(
+			value="/users",
+			produces= {"application/json"}
+	)
+	public UserPage getUsers(@RequestParam(value="after", required=false) Integer after,
+			@RequestParam(value="size", defaultValue="100") int size) {
+		int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		List<User> users = userRepository.findAfter(after, limit);
+		Integer nextCursor = users.size() < limit ? null : users.get(users.size() - 1).getId();
+		return new UserPage(users, nextCursor);
+	}
+	
+	//every user after the cursor, one JSON object per line, written as it is read
+	@GetMapping(
+			value="/users/export",
+			produces= {"application/x-ndjson"}
+	)
+	public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(value="after", required=false) Integer after) {
+		StreamingResponseBody body = out -> bulkProcessor.exportUsers(after, out);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
 	@GetMapping(
 			value="/user", 
 			produces= {"aplication/json"}
 	)
 	public User getUserByQueryParam(@RequestParam("userId") Integer userId) {
-		User user = dataMap.get(userId);
+		User user = userRepository.findById(userId);
 		return user;
 	}
 	
@@ -46,13 +101,18 @@ public class UserRestController {
 	
 	@GetMapping("/user/{id}")
 	public User getUserByPathParam(@PathVariable("id")Integer userId) {
-		User user = dataMap.get(userId);
+		User user = userRepository.findById(userId);
 		return user;
 	}
 	
+	@GetMapping("/user/by-email")
+	public User getUserByEmail(@RequestParam("email") String email) {
+		return userRepository.findByEmail(email);
+	}
+	
 	@GetMapping("/userData/{id}/data")
 	public User getUserByPathParamUrlPattern(@PathVariable("id")Integer userId) {
-		User user = dataMap.get(userId);
+		User user = userRepository.findById(userId);
 		return user;
 	}
 
@@ -0,0 +1,76 @@
+package com.alchemist.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.alchemist.binding.User;
+import com.alchemist.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Bulk import and export without holding the whole data set in memory: the import reads a JSON array
+ * one element at a time as it arrives, the export writes one user per line (NDJSON) straight from
+ * the repository to the response.
+ */
+@Component
+public class UserBulkProcessor {
+
+	private final UserRepository userRepository;
+	private final ObjectMapper mapper;
+
+	@Autowired
+	public UserBulkProcessor(UserRepository userRepository, ObjectMapper mapper) {
+		this.userRepository = userRepository;
+		this.mapper = mapper;
+	}
+
+	//returns {saved, rejected}; elements without an id or of the wrong shape are rejected
+	public int[] importUsers(InputStream in) throws IOException {
+		int saved = 0;
+		int rejected = 0;
+		try (JsonParser parser = mapper.getFactory().createParser(in)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new IllegalArgumentException("Request body must be a JSON array of users");
+			}
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				JsonNode node = parser.readValueAsTree();     //always consumes the whole element
+				try {
+					User user = mapper.treeToValue(node, User.class);
+					if (user != null && user.getId() != null) {
+						userRepository.save(user);
+						saved++;
+						continue;
+					}
+				} catch (JsonProcessingException e) {
+					//fall through to rejected
+				}
+				rejected++;
+			}
+		}
+		return new int[] { saved, rejected };
+	}
+
+	public void exportUsers(Integer afterId, OutputStream out) throws IOException {
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+			generator.setRootValueSeparator(null);
+			userRepository.forEachAfter(afterId, user -> {
+				try {
+					generator.writeObject(user);
+					generator.writeRaw('\n');
+				} catch (IOException e) {
+					throw new IllegalStateException("Client went away during export", e);
+				}
+			});
+		}
+	}
+
+}
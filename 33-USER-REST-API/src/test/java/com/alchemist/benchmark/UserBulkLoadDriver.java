@@ -0,0 +1,101 @@
+package com.alchemist.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Imports users through POST /users with a generated (never fully materialized) JSON array, then reads
+ * them back through GET /users/export as NDJSON and through GET /users page by page, printing users per second for each.
+ * Start the API with user.store.max-size at least as large as the user count, and watch its heap
+ * (e.g. jcmd <pid> GC.heap_info) while this runs.
+ * Usage: UserBulkLoadDriver [baseUrl] [users] [pageSize]
+ */
+public class UserBulkLoadDriver {
+
+	private static final Pattern NEXT_CURSOR = Pattern.compile("\"nextCursor\":(\\d+)");
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = args.length > 0 ? args[0] : "http://localhost:9090";
+		int users = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+		int pageSize = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+		HttpClient client = HttpClient.newHttpClient();
+
+		long start = System.nanoTime();
+		HttpRequest importRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/users"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofInputStream(() -> usersArray(users)))
+				.build();
+		HttpResponse<String> imported = client.send(importRequest, HttpResponse.BodyHandlers.ofString());
+		System.out.println(imported.statusCode() + " " + imported.body());
+		report("bulk POST /users", users, start);
+
+		start = System.nanoTime();
+		HttpRequest streamRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/users/export"))
+				.header("Accept", "application/x-ndjson")
+				.build();
+		long lines = client.send(streamRequest, HttpResponse.BodyHandlers.ofLines()).body().count();
+		report("GET /users/export (ndjson)", lines, start);
+
+		start = System.nanoTime();
+		long listed = 0;
+		String after = "";
+		while (after != null) {
+			HttpRequest pageRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/users?size=" + pageSize + after))
+					.header("Accept", "application/json")
+					.build();
+			String page = client.send(pageRequest, HttpResponse.BodyHandlers.ofString()).body();
+			listed += page.split("\"id\":", -1).length - 1;
+			Matcher next = NEXT_CURSOR.matcher(page);
+			after = next.find() ? "&after=" + next.group(1) : null;
+		}
+		report("GET /users (pages of " + pageSize + ")", listed, start);
+	}
+
+	//"[" user, user, ... "]" produced lazily in chunks of 1000 users
+	private static InputStream usersArray(int users) {
+		Enumeration<InputStream> chunks = new Enumeration<>() {
+			private int next = -1;
+
+			@Override
+			public boolean hasMoreElements() {
+				return next <= users;
+			}
+
+			@Override
+			public InputStream nextElement() {
+				StringBuilder chunk = new StringBuilder();
+				if (next == -1) {
+					chunk.append('[');
+					next = 0;
+				}
+				int end = Math.min(users, next + 1000);
+				for (int i = next; i < end; i++) {
+					chunk.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"user").append(i)
+							.append("\",\"email\":\"user").append(i).append("@alchemist.com\"}");
+				}
+				if (end == users) {
+					chunk.append(']');
+					end++;
+				}
+				next = end;
+				return new ByteArrayInputStream(chunk.toString().getBytes(StandardCharsets.UTF_8));
+			}
+		};
+		return new SequenceInputStream(chunks);
+	}
+
+	private static void report(String mode, long users, long start) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%-30s %,d users in %.2f s = %,.0f users/s%n", mode, users, seconds, users / seconds);
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.alchemist.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alchemist.binding.User;
+import com.alchemist.repository.InMemoryUserRepository;
+import com.alchemist.repository.UserRepository;
+
+/*
+ * 16 threads, 80% lookups and 20% inserts over a key space twice the store capacity, so the
+ * bounded stores keep evicting. Compares InMemoryUserRepository (lru and lfu) with the old
+ * HashMap made thread safe by a single lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+	private static final int CAPACITY = 100_000;
+	private static final int KEYS = CAPACITY * 2;
+
+	@Param({ "lru", "lfu", "synchronized-hashmap" })
+	public String store;
+
+	private UserRepository users;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		if ("synchronized-hashmap".equals(store)) {
+			users = new SynchronizedMapRepository();
+		} else {
+			users = new InMemoryUserRepository(CAPACITY, store, true, 16);
+		}
+		for (int i = 0; i < CAPACITY; i++) {
+			users.save(user(i));
+		}
+	}
+
+	@Benchmark
+	@Threads(16)
+	public Object mixed() {
+		ThreadLocalRandom rnd = ThreadLocalRandom.current();
+		int id = rnd.nextInt(KEYS);
+		if (rnd.nextInt(10) < 2) {
+			users.save(user(id));
+			return null;
+		}
+		return users.findById(id);
+	}
+
+	private static User user(int id) {
+		User user = new User();
+		user.setId(id);
+		user.setName("user" + id);
+		user.setEmail("user" + id + "@alchemist.com");
+		return user;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(UserRepositoryBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	//baseline: the controller's original HashMap behind one lock, unbounded
+	static class SynchronizedMapRepository implements UserRepository {
+
+		private final Map<Integer, User> users = Collections.synchronizedMap(new HashMap<>());
+
+		@Override
+		public void save(User user) {
+			users.put(user.getId(), user);
+		}
+
+		@Override
+		public User findById(Integer id) {
+			return users.get(id);
+		}
+
+		//no index, like InMemoryUserRepository with user.store.email-index=false
+		@Override
+		public User findByEmail(String email) {
+			synchronized (users) {
+				for (User user : users.values()) {
+					if (user.getEmail() != null && user.getEmail().equals(email)) {
+						return user;
+					}
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public long count() {
+			return users.size();
+		}
+
+		@Override
+		public List<User> findAfter(Integer afterId, int limit) {
+			List<User> page = new ArrayList<>(Math.min(limit, 1024));
+			forEachAfter(afterId, user -> {
+				if (page.size() < limit) {
+					page.add(user);
+				}
+			});
+			return page;
+		}
+
+		//no id order kept, so every call sorts a copy of the keys
+		@Override
+		public void forEachAfter(Integer afterId, Consumer<User> action) {
+			List<Integer> ids;
+			synchronized (users) {
+				ids = new ArrayList<>(users.keySet());
+			}
+			Collections.sort(ids);
+			for (Integer id : ids) {
+				User user = afterId == null || id > afterId ? users.get(id) : null;
+				if (user != null) {
+					action.accept(user);
+				}
+			}
+		}
+	}
+
+}
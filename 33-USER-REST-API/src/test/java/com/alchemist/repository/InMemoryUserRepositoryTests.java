@@ -0,0 +1,103 @@
+package com.alchemist.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.alchemist.binding.User;
+
+class InMemoryUserRepositoryTests {
+
+	@Test
+	void lruEvictsTheLeastRecentlyUsedUser() {
+		InMemoryUserRepository users = new InMemoryUserRepository(3, "lru", true, 1);
+		users.save(user(1, "a@alchemist.com"));
+		users.save(user(2, "b@alchemist.com"));
+		users.save(user(3, "c@alchemist.com"));
+		users.findById(1);
+
+		users.save(user(4, "d@alchemist.com"));
+
+		assertThat(users.count()).isEqualTo(3);
+		assertThat(users.findById(2)).isNull();
+		assertThat(users.findById(1)).isNotNull();
+		assertThat(ids(users.findAfter(null, 10))).containsExactly(1, 3, 4);
+	}
+
+	@Test
+	void lruUpdateDoesNotEvict() {
+		InMemoryUserRepository users = new InMemoryUserRepository(2, "lru", true, 1);
+		users.save(user(1, "a@alchemist.com"));
+		users.save(user(2, "b@alchemist.com"));
+
+		users.save(user(1, "a2@alchemist.com"));
+
+		assertThat(users.count()).isEqualTo(2);
+		assertThat(users.findById(2)).isNotNull();
+		assertThat(users.findByEmail("a@alchemist.com")).isNull();
+		assertThat(users.findByEmail("a2@alchemist.com").getId()).isEqualTo(1);
+	}
+
+	@Test
+	void lfuEvictsTheLeastFrequentlyUsedUser() {
+		InMemoryUserRepository users = new InMemoryUserRepository(3, "lfu", true, 1);
+		users.save(user(1, "a@alchemist.com"));
+		users.save(user(2, "b@alchemist.com"));
+		users.save(user(3, "c@alchemist.com"));
+		users.findById(1);
+		users.findById(1);
+		users.findById(3);
+
+		users.save(user(4, "d@alchemist.com"));
+		users.save(user(5, "e@alchemist.com"));
+
+		//2 and then 4 were never read
+		assertThat(ids(users.findAfter(null, 10))).containsExactly(1, 3, 5);
+		assertThat(users.count()).isEqualTo(3);
+	}
+
+	@Test
+	void evictedUsersLeaveTheEmailIndex() {
+		for (String eviction : new String[] { "lru", "lfu" }) {
+			InMemoryUserRepository users = new InMemoryUserRepository(2, eviction, true, 1);
+			users.save(user(1, "a@alchemist.com"));
+			users.save(user(2, "b@alchemist.com"));
+			users.save(user(3, "c@alchemist.com"));
+
+			assertThat(users.findByEmail("a@alchemist.com")).as(eviction).isNull();
+			assertThat(users.findByEmail("b@alchemist.com").getId()).as(eviction).isEqualTo(2);
+			assertThat(users.findByEmail("c@alchemist.com").getId()).as(eviction).isEqualTo(3);
+
+			//the evicted user's address taken over by a new one
+			users.save(user(4, "a@alchemist.com"));
+			assertThat(users.findByEmail("a@alchemist.com").getId()).as(eviction).isEqualTo(4);
+		}
+	}
+
+	@Test
+	void findByEmailScansWithoutTheIndex() {
+		InMemoryUserRepository users = new InMemoryUserRepository(100, "lru", false, 4);
+		for (int id = 1; id <= 50; id++) {
+			users.save(user(id, "user" + id + "@alchemist.com"));
+		}
+
+		assertThat(users.findByEmail("user42@alchemist.com").getId()).isEqualTo(42);
+		assertThat(users.findByEmail("nobody@alchemist.com")).isNull();
+		assertThat(users.findByEmail(null)).isNull();
+	}
+
+	private static List<Integer> ids(List<User> users) {
+		return users.stream().map(User::getId).toList();
+	}
+
+	private static User user(int id, String email) {
+		User user = new User();
+		user.setId(id);
+		user.setName("user" + id);
+		user.setEmail(email);
+		return user;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.alchemist.cache;
+
+import org.springframework.http.MediaType;
+
+public enum Representation {
+
+	JSON(MediaType.APPLICATION_JSON, false),
+	JSON_GZIP(MediaType.APPLICATION_JSON, true),
+	XML(MediaType.APPLICATION_XML, false),
+	XML_GZIP(MediaType.APPLICATION_XML, true);
+
+	private final MediaType mediaType;
+	private final boolean gzip;
+
+	Representation(MediaType mediaType, boolean gzip) {
+		this.mediaType = mediaType;
+		this.gzip = gzip;
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	public boolean isGzip() {
+		return gzip;
+	}
+
+	public static Representation of(MediaType mediaType, boolean gzip) {
+		if (MediaType.APPLICATION_XML.isCompatibleWith(mediaType)) {
+			return gzip ? XML_GZIP : XML;
+		}
+		return gzip ? JSON_GZIP : JSON;
+	}
+
+	//quoted strong ETag, different per version and per representation
+	public String etag(long version) {
+		return "\"" + version + "-" + name().toLowerCase() + "\"";
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.alchemist.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Ready-made response bodies: each entity key keeps the bytes of every representation (JSON, XML and
+ * their gzip variants) for its current version only, rendered on first request. A request for a newer
+ * version drops the older bodies, so the cache never serves stale data and holds one version per key.
+ */
+@Component
+public class ResponseBodyCache {
+
+	private final ObjectMapper jsonMapper;
+	private final ObjectMapper xmlMapper;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	@Autowired
+	public ResponseBodyCache(ObjectMapper jsonMapper, Jackson2ObjectMapperBuilder builder) {
+		this.jsonMapper = jsonMapper;
+		this.xmlMapper = builder.createXmlMapper(true).build();     //same setup as the XML message converter
+	}
+
+	public byte[] get(String key, long version, Representation representation, Supplier<Object> entity) {
+		Entry entry = entries.compute(key, (k, current) -> current != null && current.version >= version ? current : new Entry(version));
+		if (entry.version != version) {
+			return render(entity.get(), representation);     //an older version was asked for, don't cache it
+		}
+		byte[] body = entry.bodies.get(representation.ordinal());
+		if (body == null) {
+			body = render(entity.get(), representation);     //racing threads render the same bytes, last one wins
+			entry.bodies.set(representation.ordinal(), body);
+		}
+		return body;
+	}
+
+	public byte[] render(Object entity, Representation representation) {
+		try {
+			ObjectMapper mapper = MediaType.APPLICATION_XML.equals(representation.getMediaType()) ? xmlMapper : jsonMapper;
+			byte[] body = mapper.writeValueAsBytes(entity);
+			if (!representation.isGzip()) {
+				return body;
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 32);
+			try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+				gzip.write(body);
+			}
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static final class Entry {
+
+		final long version;
+		final AtomicReferenceArray<byte[]> bodies = new AtomicReferenceArray<>(Representation.values().length);
+
+		Entry(long version) {
+			this.version = version;
+		}
+	}
+
+}
@@ -1,23 +1,88 @@
 package com.alchemist.rest;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
 
 import com.alchemist.binding.Book;
+import com.alchemist.cache.Representation;
+import com.alchemist.cache.ResponseBodyCache;
+import com.alchemist.service.BookService;
+import com.alchemist.service.BookService.VersionedBook;
 
 @RestController
 public class BookRestController {
 	
+	@Autowired
+	private BookService service;
+	
+	@Autowired
+	private ResponseBodyCache cache;
+	
+	@Autowired
+	private ContentNegotiationManager contentNegotiationManager;
+	
+	//body comes pre-serialized from the cache; a matching If-None-Match gets a 304 from Spring via the ETag
 	@GetMapping(
 			value="/book",
 			produces= {"application/json","application/xml"}
 			)
-	public Book getBook() {
-		Book b = new Book();
-		b.setId(1);
-		b.setName("Java");
-		b.setPrice(200d);
-		return b;	
+	public ResponseEntity<byte[]> getBook(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+		VersionedBook current = service.getBook();
+		Representation representation = Representation.of(negotiate(request),
+				acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+		byte[] body = cache.get("book", current.version(), representation, current::book);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(representation.getMediaType())
+				.eTag(representation.etag(current.version()))
+				.varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+		if (representation.isGzip()) {
+			response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return response.body(body);
+	}
+	
+	@PutMapping(
+			value="/book",
+			consumes= {"application/json","application/xml"}
+			)
+	public ResponseEntity<String> updateBook(@RequestBody Book book) {
+		VersionedBook updated = service.updateBook(book);
+		return ResponseEntity.ok().eTag(Representation.JSON.etag(updated.version())).body("Book updated.....");
+	}
+	
+	//first acceptable type in the client's order; produces already turned away clients that accept neither
+	private MediaType negotiate(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+		for (MediaType accepted : contentNegotiationManager.resolveMediaTypes(request)) {
+			if (accepted.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+				return MediaType.APPLICATION_JSON;
+			}
+			if (accepted.isCompatibleWith(MediaType.APPLICATION_XML)) {
+				return MediaType.APPLICATION_XML;
+			}
+		}
+		return MediaType.APPLICATION_JSON;
+	}
+	
+	private static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			if (parts[0].trim().equalsIgnoreCase("gzip")) {
+				return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
 	}
 
 }
@@ -0,0 +1,37 @@
+package com.alchemist.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.stereotype.Service;
+
+import com.alchemist.binding.Book;
+
+/*
+ * Holds the book together with a version that goes up on every update; the version
+ * keys the response cache and the ETag.
+ */
+@Service
+public class BookService {
+
+	private final AtomicReference<VersionedBook> current;
+
+	public BookService() {
+		Book b = new Book();
+		b.setId(1);
+		b.setName("Java");
+		b.setPrice(200d);
+		current = new AtomicReference<>(new VersionedBook(b, 1));
+	}
+
+	public VersionedBook getBook() {
+		return current.get();
+	}
+
+	public VersionedBook updateBook(Book book) {
+		return current.updateAndGet(old -> new VersionedBook(book, old.version() + 1));
+	}
+
+	public record VersionedBook(Book book, long version) {
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.alchemist.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.alchemist.binding.Book;
+import com.alchemist.cache.Representation;
+import com.alchemist.cache.ResponseBodyCache;
+
+/*
+ * Body bytes per second for each representation of the book: serialized on every request (what
+ * the controller did before) against served from ResponseBodyCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ResponseBodyCacheBenchmark {
+
+	@Param({ "JSON", "XML", "JSON_GZIP", "XML_GZIP" })
+	public Representation representation;
+
+	private ResponseBodyCache cache;
+	private Book book;
+
+	@Setup
+	public void setUp() {
+		cache = new ResponseBodyCache(new Jackson2ObjectMapperBuilder().build(), new Jackson2ObjectMapperBuilder());
+		book = new Book();
+		book.setId(1);
+		book.setName("Java");
+		book.setPrice(200d);
+	}
+
+	@Benchmark
+	public byte[] uncached() {
+		return cache.render(book, representation);
+	}
+
+	@Benchmark
+	public byte[] cached() {
+		return cache.get("book", 1, representation, () -> book);
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(ResponseBodyCacheBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
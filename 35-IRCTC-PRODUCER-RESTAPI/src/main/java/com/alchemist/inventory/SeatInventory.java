@@ -0,0 +1,127 @@
+package com.alchemist.inventory;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/*
+ * Seat counts per train and date of journey.
+ * Confirming a seat is a compare-and-set on that train's counter, so bookings for different
+ * trains never contend. Only the slow paths (train full, seat released) lock, and only the
+ * train concerned, which keeps a handful of popular trains from serializing the rest.
+ * Capacity is irctc.inventory.capacity.<trainNumber>, or irctc.inventory.default-capacity.
+ */
+@Component
+public class SeatInventory {
+
+	private final ConcurrentHashMap<String, TrainInventory> trains = new ConcurrentHashMap<>();
+	private final Environment env;
+	private final int defaultCapacity;
+
+	@Autowired
+	public SeatInventory(Environment env, @Value("${irctc.inventory.default-capacity:100}") int defaultCapacity) {
+		this.env = env;
+		this.defaultCapacity = defaultCapacity;
+	}
+
+	public SeatInventory(int defaultCapacity) {
+		this(null, defaultCapacity);
+	}
+
+	//true when a seat was confirmed, false when the ticket went on the waitlist
+	public boolean reserve(String trainNumber, String doj, int ticketNumber) {
+		TrainInventory train = train(trainNumber, doj);
+		if (train.tryTakeSeat()) {
+			return true;
+		}
+		synchronized (train) {
+			if (train.tryTakeSeat()) {     //a seat came back while we were waiting for the lock
+				return true;
+			}
+			train.waitlist.add(ticketNumber);
+			return false;
+		}
+	}
+
+	/*
+	 * Gives back the seat or waitlist place of a ticket. When a confirmed seat is released and
+	 * somebody is waiting, the seat goes straight to the head of the waitlist and that ticket
+	 * number is returned, otherwise null.
+	 */
+	public Integer release(String trainNumber, String doj, int ticketNumber) {
+		TrainInventory train = train(trainNumber, doj);
+		synchronized (train) {
+			if (train.waitlist.remove(ticketNumber)) {
+				return null;
+			}
+			Iterator<Integer> it = train.waitlist.iterator();
+			if (!it.hasNext()) {
+				train.available.incrementAndGet();
+				return null;
+			}
+			Integer promoted = it.next();
+			it.remove();
+			return promoted;
+		}
+	}
+
+	//rebuilds state for a ticket recovered at startup, waitlisted tickets must come in booking order
+	public void restore(String trainNumber, String doj, int ticketNumber, boolean confirmed) {
+		TrainInventory train = train(trainNumber, doj);
+		synchronized (train) {
+			if (confirmed) {
+				train.available.decrementAndGet();
+			} else {
+				train.waitlist.add(ticketNumber);
+			}
+		}
+	}
+
+	public int availableSeats(String trainNumber, String doj) {
+		return Math.max(0, train(trainNumber, doj).available.get());
+	}
+
+	public int waitlistLength(String trainNumber, String doj) {
+		TrainInventory train = train(trainNumber, doj);
+		synchronized (train) {
+			return train.waitlist.size();
+		}
+	}
+
+	private TrainInventory train(String trainNumber, String doj) {
+		return trains.computeIfAbsent(trainNumber + "|" + doj, k -> new TrainInventory(capacity(trainNumber)));
+	}
+
+	private int capacity(String trainNumber) {
+		if (env == null) {
+			return defaultCapacity;
+		}
+		return env.getProperty("irctc.inventory.capacity." + trainNumber, Integer.class, defaultCapacity);
+	}
+
+	private static class TrainInventory {
+
+		private final AtomicInteger available;
+		private final LinkedHashSet<Integer> waitlist = new LinkedHashSet<>();     //guarded by this, in booking order
+
+		TrainInventory(int capacity) {
+			available = new AtomicInteger(capacity);
+		}
+
+		boolean tryTakeSeat() {
+			for (int seats = available.get(); seats > 0; seats = available.get()) {
+				if (available.compareAndSet(seats, seats - 1)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+}
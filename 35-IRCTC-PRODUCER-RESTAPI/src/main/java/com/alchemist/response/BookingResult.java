@@ -0,0 +1,18 @@
+package com.alchemist.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//one NDJSON line of the bulk booking response, either a ticket or an error for that array index
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingResult {
+	private int index;
+	private Ticket ticket;
+	private String error;
+}
@@ -2,21 +2,29 @@ package com.alchemist.rest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.alchemist.request.Passenger;
 import com.alchemist.response.Ticket;
 import com.alchemist.service.BookingService;
+import com.alchemist.service.BulkBookingProcessor;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 public class BookingRestController {
 	@Autowired
 	private BookingService service;
+	@Autowired
+	private BulkBookingProcessor bulkProcessor;
 	
 	@PostMapping(
 			value="/ticket",
@@ -28,6 +36,17 @@ public class BookingRestController {
 		return new ResponseEntity<>(bookedTicket,HttpStatus.CREATED);
 	}
 	
+	//body is a JSON array of passengers, read while booking; one result per line is streamed back
+	@PostMapping(
+			value="/tickets",
+			consumes="application/json",
+			produces="application/x-ndjson"
+			)
+	public ResponseEntity<StreamingResponseBody> bookTickets(HttpServletRequest request) {
+		StreamingResponseBody body = out -> bulkProcessor.process(request.getInputStream(), out);
+		return ResponseEntity.status(HttpStatus.CREATED).contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
 	@GetMapping(
 			value="/ticket/{ticketNum}",
 			produces="application/json"
@@ -36,4 +55,16 @@ public class BookingRestController {
 		Ticket ticket = service.getTicket(ticketNum);
 		return ticket;
 	}
+
+	@DeleteMapping(
+			value="/ticket/{ticketNum}",
+			produces="application/json"
+			)
+	public ResponseEntity<Ticket> cancelTicket(@PathVariable Integer ticketNum) {
+		Ticket ticket = service.cancelTicket(ticketNum);
+		if (ticket == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(ticket);
+	}
 }
@@ -1,5 +1,7 @@
 package com.alchemist.service;
 
+import java.util.List;
+
 import com.alchemist.request.Passenger;
 import com.alchemist.response.Ticket;
 
@@ -7,6 +9,10 @@ public interface BookingService {
 	
 	public Ticket bookTicket(Passenger passenger);
 	
+	public List<Ticket> bookTickets(List<Passenger> passengers);
+	
 	public Ticket getTicket(Integer ticketNumber);
 
+	public Ticket cancelTicket(Integer ticketNumber);
+
 }
@@ -1,40 +1,152 @@
 package com.alchemist.service;
 
-import java.util.HashMap;
-import java.util.Map;
-import com.alchemist.rest.BookingRestController;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.alchemist.inventory.SeatInventory;
 import com.alchemist.request.Passenger;
 import com.alchemist.response.Ticket;
+import com.alchemist.store.TicketJournal;
+import com.alchemist.store.TicketStore;
+
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class BookingServiceImpl implements BookingService{
 
-	private Map<Integer ,Ticket> ticketMap = new HashMap<>();
-	private Integer ticketNum = 1;
+	public static final String CONFIRMED = "CONFIRMED";
+	public static final String WAITLISTED = "WAITLISTED";
+	public static final String CANCELLED = "CANCELLED";
+
+	private static final int LOCK_STRIPES = 64;
+
+	private final TicketStore ticketStore;
+	private final SeatInventory inventory;
+	private final Optional<TicketJournal> journal;
+	private final Object[] ticketLocks = new Object[LOCK_STRIPES];     //status changes of one ticket happen under its stripe
+
+	public BookingServiceImpl(TicketStore ticketStore, SeatInventory inventory) {
+		this(ticketStore, inventory, Optional.empty());
+	}
+
+	@Autowired
+	public BookingServiceImpl(TicketStore ticketStore, SeatInventory inventory, Optional<TicketJournal> journal) {
+		this.ticketStore = ticketStore;
+		this.inventory = inventory;
+		this.journal = journal;
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			ticketLocks[i] = new Object();
+		}
+	}
+
+	@PostConstruct
+	public void restoreInventory() {
+		List<Ticket> waitlisted = new ArrayList<>();
+		ticketStore.forEach(t -> {
+			if (CONFIRMED.equals(t.getStatus())) {
+				inventory.restore(t.getTrainNumber(), t.getDoj(), t.getTicketNumber(), true);
+			} else if (WAITLISTED.equals(t.getStatus())) {
+				waitlisted.add(t);
+			}
+		});
+		waitlisted.sort(Comparator.comparing(Ticket::getTicketNumber));
+		waitlisted.forEach(t -> inventory.restore(t.getTrainNumber(), t.getDoj(), t.getTicketNumber(), false));
+	}
 
 	@Override
 	public Ticket bookTicket(Passenger passenger) {
+		Ticket t = newTicket(passenger);
+		awaitDurable(reserveAndSave(t));
+		return t;
+	}
+
+	@Override
+	public List<Ticket> bookTickets(List<Passenger> passengers) {
+		List<Ticket> tickets = new ArrayList<>(passengers.size());
+		long lastWrite = 0;
+		for (Passenger passenger : passengers) {
+			Ticket t = newTicket(passenger);
+			lastWrite = reserveAndSave(t);
+			tickets.add(t);
+		}
+		awaitDurable(lastWrite);     //one journal flush for the whole batch
+		return tickets;
+	}
+
+	@Override
+	public Ticket getTicket(Integer ticketNumber) {
+		return ticketStore.findByNumber(ticketNumber);
+	}
+
+	@Override
+	public Ticket cancelTicket(Integer ticketNumber) {
+		Ticket cancelled;
+		Integer promoted;
+		long lastWrite;
+		synchronized (lockFor(ticketNumber)) {
+			Ticket ticket = ticketStore.findByNumber(ticketNumber);
+			if (ticket == null || CANCELLED.equals(ticket.getStatus())) {
+				return ticket;
+			}
+			promoted = inventory.release(ticket.getTrainNumber(), ticket.getDoj(), ticketNumber);
+			cancelled = withStatus(ticket, CANCELLED);
+			lastWrite = save(cancelled);
+		}
+		if (promoted != null) {
+			//separate critical section, never hold two stripes at once
+			synchronized (lockFor(promoted)) {
+				Ticket waiting = ticketStore.findByNumber(promoted);
+				if (waiting != null && WAITLISTED.equals(waiting.getStatus())) {
+					lastWrite = save(withStatus(waiting, CONFIRMED));
+				}
+			}
+		}
+		awaitDurable(lastWrite);
+		return cancelled;
+	}
+
+	private Ticket newTicket(Passenger passenger) {
 		Ticket t = new Ticket();
 		BeanUtils.copyProperties(passenger, t);
 		t.setTicketCost(1000.00);
-		t.setStatus("CONFIRMED");
-		t.setTicketNumber(ticketNum);
-		ticketMap.put(ticketNum, t);
-		ticketNum++;
+		t.setTicketNumber(ticketStore.nextTicketNumber());
 		return t;
 	}
 
-	@Override
-	public Ticket getTicket(Integer ticketNumber) {
-		if(ticketMap.containsKey(ticketNumber)) {
-			Ticket ticket = ticketMap.get(ticketNumber);
-			System.out.println(ticket);
-			return ticket;
+	private long reserveAndSave(Ticket t) {
+		synchronized (lockFor(t.getTicketNumber())) {      //a waitlisted ticket can't be promoted before it is stored
+			boolean confirmed = inventory.reserve(t.getTrainNumber(), t.getDoj(), t.getTicketNumber());
+			t.setStatus(confirmed ? CONFIRMED : WAITLISTED);
+			return save(t);
 		}
-		return null;
+	}
+
+	//journal writes happen under the ticket's stripe so the log keeps each ticket's changes in order
+	private long save(Ticket t) {
+		ticketStore.save(t);
+		return journal.map(j -> j.write(t)).orElse(0L);
+	}
+
+	private void awaitDurable(long journalSeq) {
+		journal.ifPresent(j -> j.awaitDurable(journalSeq));      //returns once the change is on disk
+	}
+
+	//stored tickets may be shared with readers, so changes go into a copy
+	private static Ticket withStatus(Ticket ticket, String status) {
+		Ticket copy = new Ticket();
+		BeanUtils.copyProperties(ticket, copy);
+		copy.setStatus(status);
+		return copy;
+	}
+
+	private Object lockFor(int ticketNumber) {
+		return ticketLocks[ticketNumber & (LOCK_STRIPES - 1)];
 	}
 	
 
@@ -0,0 +1,129 @@
+package com.alchemist.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.alchemist.request.Passenger;
+import com.alchemist.response.BookingResult;
+import com.alchemist.response.Ticket;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Reads a JSON array of passengers as it arrives, books them in batches of irctc.bulk.batch-size
+ * and writes one BookingResult per line (NDJSON) as soon as each batch is done, so neither the
+ * request nor the response is ever held in memory as a whole. A bad element only produces an
+ * error line for its index, and a batch the service fails to book an error line for each of its
+ * elements; the rest of the request is still processed.
+ */
+@Component
+public class BulkBookingProcessor {
+
+	private static final Logger logger = LoggerFactory.getLogger(BulkBookingProcessor.class);
+
+	private final BookingService service;
+	private final ObjectMapper mapper;
+	private final int batchSize;
+
+	@Autowired
+	public BulkBookingProcessor(BookingService service, ObjectMapper mapper,
+			@Value("${irctc.bulk.batch-size:64}") int batchSize) {
+		this.service = service;
+		this.mapper = mapper;
+		this.batchSize = batchSize;
+	}
+
+	public void process(InputStream in, OutputStream out) throws IOException {
+		try (JsonParser parser = mapper.getFactory().createParser(in);
+				JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+			generator.setRootValueSeparator(null);
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				writeLine(generator, new BookingResult(0, null, "Request body must be a JSON array of passengers"));
+				return;
+			}
+			List<Passenger> batch = new ArrayList<>(batchSize);
+			List<Integer> batchIndexes = new ArrayList<>(batchSize);
+			int index = 0;
+			try {
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					JsonNode node = parser.readValueAsTree();     //always consumes the whole element
+					String error = null;
+					try {
+						Passenger passenger = mapper.treeToValue(node, Passenger.class);
+						error = validate(passenger);
+						if (error == null) {
+							batch.add(passenger);
+							batchIndexes.add(index);
+						}
+					} catch (JsonProcessingException e) {
+						error = e.getOriginalMessage();
+					}
+					if (error != null) {
+						writeLine(generator, new BookingResult(index, null, error));
+					}
+					if (batch.size() == batchSize) {
+						flushBatch(generator, batch, batchIndexes);
+					}
+					index++;
+				}
+			} catch (JsonProcessingException e) {
+				//malformed JSON, nothing after this point can be read
+				flushBatch(generator, batch, batchIndexes);
+				writeLine(generator, new BookingResult(index, null, "Malformed JSON: " + e.getOriginalMessage()));
+				return;
+			}
+			flushBatch(generator, batch, batchIndexes);
+		}
+	}
+
+	private void flushBatch(JsonGenerator generator, List<Passenger> batch, List<Integer> batchIndexes)
+			throws IOException {
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			List<Ticket> tickets = service.bookTickets(batch);
+			for (int i = 0; i < tickets.size(); i++) {
+				writeLine(generator, new BookingResult(batchIndexes.get(i), tickets.get(i), null));
+			}
+		} catch (RuntimeException e) {
+			logger.error("Booking a batch of {} passengers from index {} failed", batch.size(), batchIndexes.get(0), e);
+			String error = "Booking failed: " + (e.getMessage() != null ? e.getMessage() : e.toString());
+			for (Integer index : batchIndexes) {
+				writeLine(generator, new BookingResult(index, null, error));
+			}
+		}
+		generator.flush();     //push this batch to the client while the next one is parsed
+		batch.clear();
+		batchIndexes.clear();
+	}
+
+	private void writeLine(JsonGenerator generator, BookingResult result) throws IOException {
+		generator.writeObject(result);
+		generator.writeRaw('\n');
+	}
+
+	private static String validate(Passenger passenger) {
+		if (passenger == null) {
+			return "Passenger must be a JSON object";
+		}
+		if (passenger.getTrainNumber() == null || passenger.getDoj() == null) {
+			return "trainNumber and doj are required";
+		}
+		return null;
+	}
+
+}
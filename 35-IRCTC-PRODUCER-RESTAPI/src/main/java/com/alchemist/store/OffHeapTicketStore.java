@@ -0,0 +1,305 @@
+package com.alchemist.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.alchemist.response.Ticket;
+
+/*
+ * Keeps tickets outside the Java heap so tens of millions of bookings don't show up in GC pauses.
+ * Records are appended in TicketCodec form to direct memory segments, and an open addressing
+ * int -> address index (also off heap, split into pages so it can go past 2GB) points at them.
+ * A Ticket object is only built when it is read.
+ *
+ * An update appends a new record and leaves the old one dead. Once dead records make up more than
+ * compact-ratio of a full segment, its live records are copied to the write segment and the segment is dropped.
+ *
+ * Writers are serialized, readers never lock: a slot's address is written before its key is
+ * published with release semantics, and a resize swaps in a fully built index. A dropped segment is
+ * only unlinked after the index points past it, so a reader that finds it gone looks the ticket up again.
+ * Direct memory is capped by -XX:MaxDirectMemorySize (defaults to -Xmx).
+ */
+@Component
+@ConditionalOnProperty(name = "irctc.ticket-store", havingValue = "offheap")
+public class OffHeapTicketStore implements TicketStore {
+
+	private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+	private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+	private static final int SLOT_SIZE = 16;      //long record address, int ticket number, 4 bytes padding
+	private static final int KEY_OFFSET = 8;
+	private static final int EMPTY = 0;           //ticket numbers start at 1
+	private static final int MAX_PAGE_SLOTS = 1 << 22;   //64MB index pages
+	//every positive int ticket number at a load factor of 1/2
+	private static final long MAX_SLOTS = 1L << 32;
+
+	private final int segmentSize;
+	private final double compactRatio;
+	private final AtomicInteger ticketNum = new AtomicInteger(1);
+
+	private volatile Index index;
+	//dropped segments stay as null entries, so an address never points into a different segment later on
+	private volatile ByteBuffer[] segments = new ByteBuffer[0];
+	private volatile long size;
+	private int writeOffset;
+	private int[] usedBytes = new int[0];
+	private int[] deadBytes = new int[0];
+
+	public OffHeapTicketStore(@Value("${irctc.offheap.segment-size:67108864}") int segmentSize,
+			@Value("${irctc.offheap.initial-capacity:1048576}") int initialCapacity,
+			@Value("${irctc.offheap.compact-ratio:0.5}") double compactRatio) {
+		if (compactRatio <= 0 || compactRatio > 1) {
+			throw new IllegalArgumentException("irctc.offheap.compact-ratio must be in (0, 1] but was " + compactRatio);
+		}
+		this.segmentSize = segmentSize;
+		this.compactRatio = compactRatio;
+		this.index = new Index(slotCount(initialCapacity));
+		addSegment();
+	}
+
+	@Override
+	public int nextTicketNumber() {
+		return ticketNum.getAndIncrement();
+	}
+
+	@Override
+	public synchronized void save(Ticket ticket) {
+		int key = ticket.getTicketNumber();
+		if (key == EMPTY) {
+			throw new IllegalArgumentException("Ticket number 0 is reserved");
+		}
+		byte[] record = TicketCodec.encode(ticket);
+		if (record.length > segmentSize) {
+			throw new IllegalArgumentException("Ticket record larger than segment size");
+		}
+		int segmentsBefore = segments.length;
+		long address = append(record);
+
+		if ((size + 1) * 2 > index.slots()) {
+			if (index.slots() >= MAX_SLOTS) {
+				throw new IllegalStateException("Off-heap ticket index is full at " + size + " tickets");
+			}
+			index = rehash(index, index.slots() * 2);
+		}
+		long previous = insert(index, key, address, true);
+		if (previous < 0) {
+			size++;
+		} else {
+			//the old record is garbage now, reclaim its segment once enough of it is
+			int segment = (int) (previous >>> 32);
+			deadBytes[segment] += TicketCodec.length(segments[segment], (int) previous);
+			compactIfWorthIt(segment);
+		}
+		if (segments.length > segmentsBefore) {
+			compactIfWorthIt(segmentsBefore - 1);
+		}
+	}
+
+	@Override
+	public Ticket findByNumber(Integer ticketNumber) {
+		if (ticketNumber == null || ticketNumber == EMPTY) {
+			return null;
+		}
+		for (;;) {
+			Index idx = index;
+			long address = lookup(idx, ticketNumber);
+			if (address < 0) {
+				return null;
+			}
+			ByteBuffer segment = segments[(int) (address >>> 32)];
+			if (segment != null) {
+				return TicketCodec.decode(segment, (int) address);
+			}
+			//compacted away after we read the address, the index has the new one by now
+		}
+	}
+
+	@Override
+	public long count() {
+		return size;
+	}
+
+	@Override
+	public void forEach(Consumer<Ticket> action) {
+		Index idx = index;
+		for (long slot = 0; slot < idx.slots(); slot++) {
+			ByteBuffer page = idx.page(slot);
+			int pos = idx.position(slot);
+			int key = (int) INT.getAcquire(page, pos + KEY_OFFSET);
+			if (key != EMPTY) {
+				long address = (long) LONG.getAcquire(page, pos);
+				ByteBuffer segment = segments[(int) (address >>> 32)];
+				action.accept(segment != null ? TicketCodec.decode(segment, (int) address) : findByNumber(key));
+			}
+		}
+	}
+
+	@Override
+	public void restoreTicketNumber(int nextTicketNumber) {
+		ticketNum.accumulateAndGet(nextTicketNumber, Math::max);
+	}
+
+	//segments still holding records, the write segment included
+	int liveSegments() {
+		int live = 0;
+		for (ByteBuffer segment : segments) {
+			if (segment != null) {
+				live++;
+			}
+		}
+		return live;
+	}
+
+	private long append(byte[] record) {
+		if (writeOffset + record.length > segmentSize) {
+			addSegment();
+		}
+		ByteBuffer[] segs = segments;
+		int segment = segs.length - 1;
+		segs[segment].put(writeOffset, record);
+		long address = ((long) segment << 32) | writeOffset;
+		writeOffset += record.length;
+		usedBytes[segment] = writeOffset;
+		return address;
+	}
+
+	private void addSegment() {
+		ByteBuffer[] segs = Arrays.copyOf(segments, segments.length + 1);
+		segs[segs.length - 1] = ByteBuffer.allocateDirect(segmentSize);
+		usedBytes = Arrays.copyOf(usedBytes, segs.length);
+		deadBytes = Arrays.copyOf(deadBytes, segs.length);
+		segments = segs;
+		writeOffset = 0;
+	}
+
+	//the write segment is left alone, it still fills up
+	private void compactIfWorthIt(int segment) {
+		if (segment == segments.length - 1 || segments[segment] == null
+				|| deadBytes[segment] <= usedBytes[segment] * compactRatio) {
+			return;
+		}
+		ByteBuffer old = segments[segment];
+		for (int offset = 0; offset < usedBytes[segment];) {
+			int length = TicketCodec.length(old, offset);
+			long address = ((long) segment << 32) | offset;
+			int key = old.getInt(offset);
+			if (lookup(index, key) == address) {
+				byte[] record = new byte[length];
+				old.get(offset, record);
+				insert(index, key, append(record), true);
+			}
+			offset += length;
+		}
+		ByteBuffer[] segs = segments.clone();
+		segs[segment] = null;
+		segments = segs;       //after the index updates, see findByNumber
+		usedBytes[segment] = 0;
+		deadBytes[segment] = 0;
+	}
+
+	//the record address for key, -1 when there is none
+	private static long lookup(Index idx, int key) {
+		for (long slot = hash(key) & idx.mask;; slot = (slot + 1) & idx.mask) {
+			ByteBuffer page = idx.page(slot);
+			int pos = idx.position(slot);
+			int existing = (int) INT.getAcquire(page, pos + KEY_OFFSET);
+			if (existing == EMPTY) {
+				return -1;
+			}
+			if (existing == key) {
+				return (long) LONG.getAcquire(page, pos);
+			}
+		}
+	}
+
+	//returns the address it replaced, -1 when a new key was added
+	private static long insert(Index idx, int key, long address, boolean publish) {
+		for (long slot = hash(key) & idx.mask;; slot = (slot + 1) & idx.mask) {
+			ByteBuffer page = idx.page(slot);
+			int pos = idx.position(slot);
+			int existing = (int) INT.get(page, pos + KEY_OFFSET);
+			if (existing == key) {
+				long previous = (long) LONG.get(page, pos);
+				LONG.setRelease(page, pos, address);
+				return previous;
+			}
+			if (existing == EMPTY) {
+				LONG.setRelease(page, pos, address);
+				if (publish) {
+					INT.setRelease(page, pos + KEY_OFFSET, key);
+				} else {
+					INT.set(page, pos + KEY_OFFSET, key);
+				}
+				return -1;
+			}
+		}
+	}
+
+	private static Index rehash(Index old, long newSlots) {
+		Index idx = new Index(newSlots);
+		for (long slot = 0; slot < old.slots(); slot++) {
+			ByteBuffer page = old.page(slot);
+			int pos = old.position(slot);
+			int key = (int) INT.get(page, pos + KEY_OFFSET);
+			if (key != EMPTY) {
+				insert(idx, key, (long) LONG.get(page, pos), false);
+			}
+		}
+		return idx;     //published through the volatile index field
+	}
+
+	private static long hash(int key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 32);
+	}
+
+	private static long slotCount(int capacity) {
+		long slots = Long.highestOneBit(Math.max(2L, capacity - 1L) << 1);
+		if (slots > MAX_SLOTS) {
+			throw new IllegalArgumentException("irctc.offheap.initial-capacity too large: " + capacity);
+		}
+		return slots;
+	}
+
+	//power of two slot table over equally sized direct buffers, addressed by long slot numbers
+	private static final class Index {
+
+		final long mask;
+		final ByteBuffer[] pages;
+		final int pageShift;
+		final int pageMask;
+
+		Index(long slots) {
+			int pageSlots = (int) Math.min(slots, MAX_PAGE_SLOTS);
+			this.mask = slots - 1;
+			this.pageShift = Integer.numberOfTrailingZeros(pageSlots);
+			this.pageMask = pageSlots - 1;
+			this.pages = new ByteBuffer[(int) (slots >>> pageShift)];
+			for (int i = 0; i < pages.length; i++) {
+				pages[i] = ByteBuffer.allocateDirect(pageSlots * SLOT_SIZE);
+			}
+		}
+
+		long slots() {
+			return mask + 1;
+		}
+
+		ByteBuffer page(long slot) {
+			return pages[(int) (slot >>> pageShift)];
+		}
+
+		int position(long slot) {
+			return ((int) slot & pageMask) * SLOT_SIZE;
+		}
+	}
+
+}
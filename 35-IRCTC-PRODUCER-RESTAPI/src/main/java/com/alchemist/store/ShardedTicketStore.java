@@ -0,0 +1,78 @@
+package com.alchemist.store;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.alchemist.response.Ticket;
+
+@Component
+@ConditionalOnProperty(name = "irctc.ticket-store", havingValue = "heap", matchIfMissing = true)
+public class ShardedTicketStore implements TicketStore {
+
+	private final ConcurrentHashMap<Integer, Ticket>[] shards;
+	private final int mask;
+	private final AtomicInteger ticketNum = new AtomicInteger(1);
+	private final LongAdder size = new LongAdder();
+
+	public ShardedTicketStore() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	@SuppressWarnings("unchecked")
+	public ShardedTicketStore(int concurrency) {
+		int shardCount = Integer.highestOneBit(Math.max(1, concurrency - 1) << 1);     //round up to power of two
+		shards = new ConcurrentHashMap[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shards[i] = new ConcurrentHashMap<>();
+		}
+		mask = shardCount - 1;
+	}
+
+	@Override
+	public int nextTicketNumber() {
+		return ticketNum.getAndIncrement();
+	}
+
+	@Override
+	public void save(Ticket ticket) {
+		if (shard(ticket.getTicketNumber()).put(ticket.getTicketNumber(), ticket) == null) {
+			size.increment();
+		}
+	}
+
+	@Override
+	public Ticket findByNumber(Integer ticketNumber) {
+		if (ticketNumber == null) {
+			return null;
+		}
+		return shard(ticketNumber).get(ticketNumber);     //lock free read, never waits for writers
+	}
+
+	@Override
+	public long count() {
+		return size.sum();
+	}
+
+	@Override
+	public void forEach(Consumer<Ticket> action) {
+		for (ConcurrentHashMap<Integer, Ticket> shard : shards) {
+			shard.values().forEach(action);
+		}
+	}
+
+	@Override
+	public void restoreTicketNumber(int nextTicketNumber) {
+		ticketNum.accumulateAndGet(nextTicketNumber, Math::max);
+	}
+
+	private ConcurrentHashMap<Integer, Ticket> shard(int ticketNumber) {
+		//sequential numbers spread round robin across shards, so concurrent bookings hit different maps
+		return shards[ticketNumber & mask];
+	}
+
+}
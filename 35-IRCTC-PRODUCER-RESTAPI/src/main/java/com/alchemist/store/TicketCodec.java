@@ -0,0 +1,92 @@
+package com.alchemist.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.alchemist.response.Ticket;
+
+/*
+ * Compact binary form of a Ticket:
+ * int ticketNumber | double ticketCost | 6 x (unsigned short length + UTF-8 bytes)
+ * for status, name, from, to, doj and trainNumber. Length 0xFFFF marks a null field.
+ */
+public final class TicketCodec {
+
+	private static final int NULL_LENGTH = 0xFFFF;
+	private static final int MAX_FIELD_LENGTH = NULL_LENGTH - 1;
+
+	private TicketCodec() {
+	}
+
+	public static byte[] encode(Ticket ticket) {
+		byte[][] fields = {
+				bytes(ticket.getStatus()), bytes(ticket.getName()), bytes(ticket.getFrom()),
+				bytes(ticket.getTo()), bytes(ticket.getDoj()), bytes(ticket.getTrainNumber()) };
+		int length = Integer.BYTES + Double.BYTES;
+		for (byte[] field : fields) {
+			length += Short.BYTES + (field == null ? 0 : field.length);
+		}
+		ByteBuffer buf = ByteBuffer.allocate(length);
+		buf.putInt(ticket.getTicketNumber() == null ? 0 : ticket.getTicketNumber());
+		buf.putDouble(ticket.getTicketCost() == null ? Double.NaN : ticket.getTicketCost());
+		for (byte[] field : fields) {
+			if (field == null) {
+				buf.putShort((short) NULL_LENGTH);
+			} else {
+				buf.putShort((short) field.length);
+				buf.put(field);
+			}
+		}
+		return buf.array();
+	}
+
+	//absolute reads only, so many threads can decode from the same buffer
+	public static Ticket decode(ByteBuffer buf, int offset) {
+		Ticket t = new Ticket();
+		t.setTicketNumber(buf.getInt(offset));
+		offset += Integer.BYTES;
+		double cost = buf.getDouble(offset);
+		t.setTicketCost(Double.isNaN(cost) ? null : cost);
+		offset += Double.BYTES;
+		String[] fields = new String[6];
+		for (int i = 0; i < fields.length; i++) {
+			int length = buf.getShort(offset) & 0xFFFF;
+			offset += Short.BYTES;
+			if (length != NULL_LENGTH) {
+				byte[] field = new byte[length];
+				buf.get(offset, field);
+				fields[i] = new String(field, StandardCharsets.UTF_8);
+				offset += length;
+			}
+		}
+		t.setStatus(fields[0]);
+		t.setName(fields[1]);
+		t.setFrom(fields[2]);
+		t.setTo(fields[3]);
+		t.setDoj(fields[4]);
+		t.setTrainNumber(fields[5]);
+		return t;
+	}
+
+	//size of the record at offset, without decoding it
+	public static int length(ByteBuffer buf, int offset) {
+		int end = offset + Integer.BYTES + Double.BYTES;
+		for (int i = 0; i < 6; i++) {
+			int length = buf.getShort(end) & 0xFFFF;
+			end += Short.BYTES + (length == NULL_LENGTH ? 0 : length);
+		}
+		return end - offset;
+	}
+
+	private static byte[] bytes(String value) {
+		if (value == null) {
+			return null;
+		}
+		byte[] b = value.getBytes(StandardCharsets.UTF_8);
+		if (b.length > MAX_FIELD_LENGTH) {
+			throw new IllegalArgumentException("Ticket field too long: " + b.length + " bytes");
+		}
+		return b;
+	}
+
+}
@@ -0,0 +1,417 @@
+package com.alchemist.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.alchemist.response.Ticket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Write-ahead log for bookings so the in memory TicketStore survives a restart.
+ *
+ * Every booking is appended to a memory-mapped log file (wal-<generation>.log) as
+ * [int length][int crc32][TicketCodec bytes]. Appending threads wait for a single flusher
+ * thread that forces everything written so far in one go (group commit), so many bookings
+ * share each fsync. A snapshot rolls the log to a new generation, dumps the store to
+ * snapshot-<generation>.snap and deletes the older files. Startup loads the newest snapshot
+ * and replays the log files written after it, stopping at the first torn record.
+ * Mappings of rolled and replayed files are released right away rather than whenever GC gets to them.
+ */
+@Component
+@ConditionalOnProperty(name = "irctc.journal.enabled", havingValue = "true")
+public class TicketJournal {
+
+	private static final Logger logger = LoggerFactory.getLogger(TicketJournal.class);
+
+	private static final String LOG_PREFIX = "wal-";
+	private static final String LOG_SUFFIX = ".log";
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String SNAPSHOT_SUFFIX = ".snap";
+	private static final int HEADER = 2 * Integer.BYTES;
+	private static final int END_OF_SNAPSHOT = -1;
+	//Unsafe.invokeCleaner, null when the JDK doesn't allow it (mappings are then released by GC)
+	private static final MethodHandle UNMAP = unmapHandle();
+
+	private final TicketStore ticketStore;
+	private final Path dir;
+	private final int segmentSize;
+	private final boolean syncCommit;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition pending = lock.newCondition();
+	private final Condition flushed = lock.newCondition();
+
+	private long generation;
+	private FileChannel channel;
+	private MappedByteBuffer log;
+	private int flushedPosition;
+	//the buffer the flusher is forcing outside the lock, it unmaps it if the log rolled meanwhile
+	private MappedByteBuffer flushing;
+	private long written;
+	private long durable;
+	private long writtenAtSnapshot;
+	private volatile boolean running;
+	private Thread flusher;
+
+	public TicketJournal(TicketStore ticketStore,
+			@Value("${irctc.journal.dir:./data/journal}") String dir,
+			@Value("${irctc.journal.segment-size:268435456}") int segmentSize,
+			@Value("${irctc.journal.sync-commit:true}") boolean syncCommit) {
+		this.ticketStore = ticketStore;
+		this.dir = Paths.get(dir);
+		this.segmentSize = segmentSize;
+		this.syncCommit = syncCommit;
+	}
+
+	@PostConstruct
+	public void recover() throws IOException {
+		Files.createDirectories(dir);
+		long start = System.nanoTime();
+		int[] maxTicketNumber = { 0 };
+		long restored = 0;
+		long replayed = 0;
+
+		List<Long> snapshots = generations(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+		long snapshotGeneration = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+		if (!snapshots.isEmpty()) {
+			restored = readSnapshot(file(SNAPSHOT_PREFIX, snapshotGeneration, SNAPSHOT_SUFFIX), maxTicketNumber);
+		}
+		long lastGeneration = snapshotGeneration;
+		for (long gen : generations(LOG_PREFIX, LOG_SUFFIX)) {
+			if (gen >= snapshotGeneration) {
+				replayed += replayLog(file(LOG_PREFIX, gen, LOG_SUFFIX), maxTicketNumber);
+				lastGeneration = Math.max(lastGeneration, gen);
+			}
+		}
+		ticketStore.restoreTicketNumber(maxTicketNumber[0] + 1);
+		writtenAtSnapshot = replayed > 0 ? -1 : 0;     //compact the replayed log on the next snapshot
+
+		//never append to a file that may end in a torn record, start a fresh generation instead
+		generation = lastGeneration + 1;
+		openLog();
+		running = true;
+		flusher = new Thread(this::flushLoop, "ticket-journal-flusher");
+		flusher.setDaemon(true);
+		flusher.start();
+
+		logger.info("Recovered {} tickets ({} from snapshot, {} log records) in {} ms",
+				ticketStore.count(), restored, replayed, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	public void append(Ticket ticket) {
+		awaitDurable(write(ticket));
+	}
+
+	//appends without waiting for the disk, returns the sequence number to pass to awaitDurable
+	public long write(Ticket ticket) {
+		byte[] record = TicketCodec.encode(ticket);
+		if (HEADER + record.length > segmentSize) {
+			throw new IllegalArgumentException("Ticket record larger than journal segment size");
+		}
+		CRC32 crc = new CRC32();
+		crc.update(record);
+
+		lock.lock();
+		try {
+			if (log == null) {
+				throw new IllegalStateException("Ticket journal is closed");
+			}
+			if (log.position() + HEADER + record.length > segmentSize) {
+				roll();
+			}
+			log.putInt(record.length);
+			log.putInt((int) crc.getValue());
+			log.put(record);
+			pending.signal();
+			return ++written;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not roll ticket journal", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void awaitDurable(long seq) {
+		if (!syncCommit) {
+			return;
+		}
+		lock.lock();
+		try {
+			while (durable < seq && running) {
+				flushed.awaitUninterruptibly();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${irctc.journal.snapshot-interval-ms:300000}",
+			initialDelayString = "${irctc.journal.snapshot-interval-ms:300000}")
+	public synchronized void snapshot() throws IOException {
+		long snapshotGeneration;
+		lock.lock();
+		try {
+			if (written == writtenAtSnapshot) {
+				return;     //nothing booked since the last snapshot
+			}
+			writtenAtSnapshot = written;
+			roll();      //everything in older generations is already in the store
+			snapshotGeneration = generation;
+		} finally {
+			lock.unlock();
+		}
+
+		long start = System.nanoTime();
+		long[] count = { 0 };
+		Path tmp = file(SNAPSHOT_PREFIX, snapshotGeneration, ".tmp");
+		try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16))) {
+			ticketStore.forEach(t -> {
+				byte[] record = TicketCodec.encode(t);
+				try {
+					out.writeInt(record.length);
+					out.write(record);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				count[0]++;
+			});
+			out.writeInt(END_OF_SNAPSHOT);
+			out.flush();
+			ch.force(true);
+		} catch (UncheckedIOException e) {
+			Files.deleteIfExists(tmp);
+			throw e.getCause();
+		}
+		Files.move(tmp, file(SNAPSHOT_PREFIX, snapshotGeneration, SNAPSHOT_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+
+		for (long gen : generations(LOG_PREFIX, LOG_SUFFIX)) {
+			if (gen < snapshotGeneration) {
+				Files.deleteIfExists(file(LOG_PREFIX, gen, LOG_SUFFIX));
+			}
+		}
+		for (long gen : generations(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+			if (gen < snapshotGeneration) {
+				Files.deleteIfExists(file(SNAPSHOT_PREFIX, gen, SNAPSHOT_SUFFIX));
+			}
+		}
+		logger.info("Wrote snapshot {} with {} tickets in {} ms", snapshotGeneration, count[0],
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	@PreDestroy
+	public void close() throws IOException, InterruptedException {
+		lock.lock();
+		try {
+			running = false;
+			pending.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		if (flusher != null) {     //null when recover() failed
+			flusher.join();
+		}
+		lock.lock();
+		try {
+			if (log == null) {
+				return;
+			}
+			log.force();
+			durable = written;
+			flushed.signalAll();
+			channel.close();
+			unmap(log);
+			log = null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void flushLoop() {
+		while (true) {
+			MappedByteBuffer buf;
+			int from;
+			int to;
+			long target;
+			lock.lock();
+			try {
+				while (running && written == durable) {
+					pending.awaitUninterruptibly();
+				}
+				if (!running) {
+					return;
+				}
+				buf = log;
+				from = flushedPosition;
+				to = log.position();
+				target = written;
+				flushing = buf;
+			} finally {
+				lock.unlock();
+			}
+
+			buf.force(from, to - from);     //one fsync for every record appended since the last one
+
+			lock.lock();
+			try {
+				flushing = null;
+				if (buf == log) {
+					flushedPosition = Math.max(flushedPosition, to);
+				} else {
+					unmap(buf);      //rolled while we were forcing it, see roll()
+				}
+				durable = Math.max(durable, target);
+				flushed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	//called with lock held
+	private void roll() throws IOException {
+		MappedByteBuffer old = log;
+		old.force();
+		channel.close();
+		durable = written;
+		flushed.signalAll();
+		generation++;
+		openLog();
+		//only once the new log is in place, a failed roll keeps appending to the old mapping
+		if (old != flushing) {
+			unmap(old);
+		}
+	}
+
+	private void openLog() throws IOException {
+		channel = FileChannel.open(file(LOG_PREFIX, generation, LOG_SUFFIX), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		log = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		flushedPosition = 0;
+	}
+
+	private long replayLog(Path path, int[] maxTicketNumber) throws IOException {
+		long count = 0;
+		MappedByteBuffer buf;
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+		}
+		try {
+			CRC32 crc = new CRC32();
+			int pos = 0;
+			while (pos + HEADER <= buf.limit()) {
+				int length = buf.getInt(pos);
+				if (length <= 0 || pos + HEADER + length > buf.limit()) {
+					break;      //end of written data
+				}
+				crc.reset();
+				crc.update(buf.slice(pos + HEADER, length));
+				if ((int) crc.getValue() != buf.getInt(pos + Integer.BYTES)) {
+					logger.warn("Torn record at offset {} in {}, ignoring the rest of the file", pos, path);
+					break;
+				}
+				restore(TicketCodec.decode(buf, pos + HEADER), maxTicketNumber);
+				pos += HEADER + length;
+				count++;
+			}
+		} finally {
+			unmap(buf);
+		}
+		return count;
+	}
+
+	private long readSnapshot(Path path, int[] maxTicketNumber) throws IOException {
+		long count = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+			byte[] record = new byte[256];
+			for (int length = in.readInt(); length != END_OF_SNAPSHOT; length = in.readInt()) {
+				if (record.length < length) {
+					record = new byte[length];
+				}
+				in.readFully(record, 0, length);
+				restore(TicketCodec.decode(ByteBuffer.wrap(record), 0), maxTicketNumber);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void restore(Ticket ticket, int[] maxTicketNumber) {
+		ticketStore.save(ticket);
+		maxTicketNumber[0] = Math.max(maxTicketNumber[0], ticket.getTicketNumber());
+	}
+
+	//the buffer must not be touched afterwards, that would read or write unmapped memory
+	private static void unmap(MappedByteBuffer buffer) {
+		if (UNMAP == null) {
+			return;
+		}
+		try {
+			UNMAP.invokeExact((ByteBuffer) buffer);
+		} catch (Throwable e) {
+			logger.warn("Could not unmap journal buffer, leaving it to GC", e);
+		}
+	}
+
+	private static MethodHandle unmapHandle() {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			return MethodHandles.lookup()
+					.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(theUnsafe.get(null));
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			logger.warn("Journal mappings will only be released by GC: {}", e.toString());
+			return null;
+		}
+	}
+
+	private Path file(String prefix, long gen, String suffix) {
+		return dir.resolve(prefix + String.format("%016d", gen) + suffix);
+	}
+
+	private List<Long> generations(String prefix, String suffix) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.map(p -> p.getFileName().toString())
+					.filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+					.map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.alchemist.store;
+
+import java.util.function.Consumer;
+
+import com.alchemist.response.Ticket;
+
+public interface TicketStore {
+
+	public int nextTicketNumber();
+
+	public void save(Ticket ticket);
+
+	public Ticket findByNumber(Integer ticketNumber);
+
+	public long count();
+
+	public void forEach(Consumer<Ticket> action);
+
+	//used after recovery so new bookings continue after the highest restored number
+	public void restoreTicketNumber(int nextTicketNumber);
+
+}
@@ -0,0 +1,147 @@
+package com.alchemist.benchmark;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.BeanUtils;
+
+import com.alchemist.inventory.SeatInventory;
+import com.alchemist.request.Passenger;
+import com.alchemist.response.Ticket;
+import com.alchemist.service.BookingService;
+import com.alchemist.service.BookingServiceImpl;
+import com.alchemist.store.ShardedTicketStore;
+
+/*
+ * Compares bookTicket/getTicket throughput of the old HashMap service with the sharded store.
+ * Bookings go to a random one of the param trains: with a single train every booking confirms
+ * its seat on the same inventory counter, and that counter is all the sharded run measures.
+ * The HashMap baseline is wrapped in Collections.synchronizedMap: used as is from several benchmark
+ * threads it would lose tickets or corrupt the map, and its numbers would mean nothing.
+ * Run from the project folder:
+ *   mvn test-compile exec:java -Dexec.mainClass=com.alchemist.benchmark.BookingServiceBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+
+	private static final int PRELOADED = 100_000;
+
+	@Param({ "hashmap", "sharded" })
+	public String store;
+
+	@Param({ "1", "1024" })
+	public int trains;
+
+	private BookingService service;
+	private Passenger[] passengers;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		service = "hashmap".equals(store) ? new HashMapBookingService() : new BookingServiceImpl(new ShardedTicketStore(), new SeatInventory(Integer.MAX_VALUE));
+		passengers = new Passenger[trains];
+		for (int i = 0; i < trains; i++) {
+			Passenger passenger = new Passenger();
+			passenger.setName("Ashok");
+			passenger.setFrom("Hyderabad");
+			passenger.setTo("Pune");
+			passenger.setDoj("10-10-2026");
+			passenger.setTrainNumber(String.valueOf(12701 + i));
+			passengers[i] = passenger;
+		}
+		for (int i = 0; i < PRELOADED; i++) {
+			service.bookTicket(passengers[i % trains]);
+		}
+	}
+
+	@Benchmark
+	public Ticket bookTicket() {
+		return service.bookTicket(passengers[ThreadLocalRandom.current().nextInt(trains)]);
+	}
+
+	@Benchmark
+	public Ticket getTicket() {
+		return service.getTicket(ThreadLocalRandom.current().nextInt(1, PRELOADED + 1));
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (int threads : new int[] { 1, 2, 4, 8, 16, 32, 64 }) {
+			Options opt = new OptionsBuilder()
+					.include(BookingServiceBenchmark.class.getSimpleName())
+					.threads(threads)
+					.build();
+			new Runner(opt).run();
+		}
+	}
+
+	//copy of the original implementation, kept as the baseline (console print left out, made thread safe)
+	static class HashMapBookingService implements BookingService {
+
+		private final Map<Integer, Ticket> ticketMap = Collections.synchronizedMap(new HashMap<>());
+		private Integer ticketNum = 1;     //guarded by ticketMap
+
+		@Override
+		public Ticket bookTicket(Passenger passenger) {
+			Ticket t = new Ticket();
+			BeanUtils.copyProperties(passenger, t);
+			t.setTicketCost(1000.00);
+			t.setStatus("CONFIRMED");
+			synchronized (ticketMap) {
+				t.setTicketNumber(ticketNum);
+				ticketMap.put(ticketNum, t);
+				ticketNum++;
+			}
+			return t;
+		}
+
+		@Override
+		public List<Ticket> bookTickets(List<Passenger> passengers) {
+			return passengers.stream().map(this::bookTicket).toList();
+		}
+
+		@Override
+		public Ticket getTicket(Integer ticketNumber) {
+			return ticketMap.get(ticketNumber);
+		}
+
+		//no seat inventory in the original, so nothing to hand to a waitlisted ticket
+		@Override
+		public Ticket cancelTicket(Integer ticketNumber) {
+			synchronized (ticketMap) {
+				Ticket ticket = ticketMap.get(ticketNumber);
+				if (ticket == null || "CANCELLED".equals(ticket.getStatus())) {
+					return ticket;
+				}
+				Ticket cancelled = new Ticket();
+				BeanUtils.copyProperties(ticket, cancelled);
+				cancelled.setStatus("CANCELLED");
+				ticketMap.put(ticketNumber, cancelled);
+				return cancelled;
+			}
+		}
+	}
+
+}
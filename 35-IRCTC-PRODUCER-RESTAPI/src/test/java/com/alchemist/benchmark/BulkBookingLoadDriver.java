@@ -0,0 +1,87 @@
+package com.alchemist.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Books the same passengers through POST /ticket (one request each) and POST /tickets
+ * (bulk, NDJSON response) against a running producer and prints bookings per second.
+ * Usage: BulkBookingLoadDriver [baseUrl] [passengers] [clientThreads] [bulkSize]
+ */
+public class BulkBookingLoadDriver {
+
+	private static final String PASSENGER = "{\"name\":\"Ashok\",\"from\":\"Hyderabad\",\"to\":\"Pune\","
+			+ "\"doj\":\"10-10-2026\",\"trainNumber\":\"%d\"}";
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = args.length > 0 ? args[0] : "http://localhost:9090";
+		int passengers = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+		int bulkSize = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		HttpClient client = HttpClient.newHttpClient();
+
+		AtomicInteger next = new AtomicInteger();
+		long start = System.nanoTime();
+		List<CompletableFuture<Void>> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			workers.add(CompletableFuture.runAsync(() -> {
+				for (int i = next.getAndIncrement(); i < passengers; i = next.getAndIncrement()) {
+					send(client, baseUrl + "/ticket", String.format(PASSENGER, 10000 + i % 1000));
+				}
+			}, pool));
+		}
+		CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+		report("single POST /ticket", passengers, start);
+
+		next.set(0);
+		start = System.nanoTime();
+		workers.clear();
+		for (int t = 0; t < threads; t++) {
+			workers.add(CompletableFuture.runAsync(() -> {
+				for (int from = next.getAndAdd(bulkSize); from < passengers; from = next.getAndAdd(bulkSize)) {
+					StringBuilder body = new StringBuilder("[");
+					for (int i = from; i < Math.min(passengers, from + bulkSize); i++) {
+						body.append(i == from ? "" : ",").append(String.format(PASSENGER, 10000 + i % 1000));
+					}
+					send(client, baseUrl + "/tickets", body.append(']').toString());
+				}
+			}, pool));
+		}
+		CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+		report("bulk POST /tickets (" + bulkSize + " per request)", passengers, start);
+
+		pool.shutdown();
+	}
+
+	private static void send(HttpClient client, String url, String json) {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json))
+				.build();
+		try {
+			HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+			if (response.statusCode() != 201) {
+				throw new IllegalStateException("HTTP " + response.statusCode() + " from " + url);
+			}
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static void report(String mode, int passengers, long start) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%-40s %,d bookings in %.2f s = %,.0f bookings/s%n", mode, passengers, seconds,
+				passengers / seconds);
+	}
+
+}
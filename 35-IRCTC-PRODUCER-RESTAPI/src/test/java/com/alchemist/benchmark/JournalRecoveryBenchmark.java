@@ -0,0 +1,69 @@
+package com.alchemist.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import com.alchemist.response.Ticket;
+import com.alchemist.store.ShardedTicketStore;
+import com.alchemist.store.TicketJournal;
+import com.alchemist.store.TicketStore;
+
+/*
+ * Writes N bookings through the journal (90% covered by a snapshot, 10% left in the log tail)
+ * and times how long a fresh store takes to recover them.
+ * Usage: JournalRecoveryBenchmark [tickets...], defaults to 1M, 10M and 50M. Run with a heap
+ * large enough for the biggest store, e.g. -Xmx24g.
+ */
+public class JournalRecoveryBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int[] sizes = args.length == 0 ? new int[] { 1_000_000, 10_000_000, 50_000_000 }
+				: Stream.of(args).mapToInt(Integer::parseInt).toArray();
+		for (int tickets : sizes) {
+			Path dir = Files.createTempDirectory("ticket-journal");
+			try {
+				write(dir, tickets);
+				System.gc();
+				TicketStore store = new ShardedTicketStore();
+				TicketJournal journal = new TicketJournal(store, dir.toString(), 256 << 20, false);
+				long start = System.nanoTime();
+				journal.recover();
+				long millis = (System.nanoTime() - start) / 1_000_000;
+				journal.close();
+				System.out.printf("%,d tickets recovered in %,d ms (%,.0f tickets/s)%n", store.count(), millis,
+						store.count() * 1000.0 / Math.max(1, millis));
+			} finally {
+				delete(dir);
+			}
+		}
+	}
+
+	private static void write(Path dir, int tickets) throws Exception {
+		TicketStore store = new ShardedTicketStore();
+		TicketJournal journal = new TicketJournal(store, dir.toString(), 256 << 20, false);
+		journal.recover();
+		int snapshotAt = tickets / 10 * 9;
+		for (int i = 0; i < tickets; i++) {
+			Ticket t = TicketStoreBenchmark.sampleTicket();
+			t.setTicketNumber(store.nextTicketNumber());
+			store.save(t);
+			journal.append(t);
+			if (i + 1 == snapshotAt) {
+				journal.snapshot();
+			}
+		}
+		journal.close();
+	}
+
+	private static void delete(Path dir) throws IOException {
+		try (Stream<Path> files = Files.walk(dir)) {
+			for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(p);
+			}
+		}
+	}
+
+}
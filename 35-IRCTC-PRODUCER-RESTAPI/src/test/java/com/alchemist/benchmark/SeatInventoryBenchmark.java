@@ -0,0 +1,141 @@
+package com.alchemist.benchmark;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alchemist.inventory.SeatInventory;
+
+/*
+ * Skewed booking load: 90% of reservations go to 1% of the trains.
+ * Each operation books a seat and half of them cancel it again, so trains run full, waitlist
+ * and promote. Compares SeatInventory with a single lock around the whole inventory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeatInventoryBenchmark {
+
+	private static final int TRAINS = 10_000;
+	private static final int HOT_TRAINS = TRAINS / 100;
+	private static final String DOJ = "10-10-2026";
+
+	@Param({ "striped", "global" })
+	public String inventory;
+
+	@Param({ "50" })
+	public int capacity;
+
+	private Inventory seats;
+	private final AtomicInteger ticketNum = new AtomicInteger(1);
+	private String[] trainNumbers;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		if ("striped".equals(inventory)) {
+			SeatInventory seatInventory = new SeatInventory(capacity);
+			seats = new Inventory() {
+				public boolean reserve(String train, int ticket) {
+					return seatInventory.reserve(train, DOJ, ticket);
+				}
+
+				public Integer release(String train, int ticket) {
+					return seatInventory.release(train, DOJ, ticket);
+				}
+			};
+		} else {
+			seats = new GlobalLockInventory(capacity);
+		}
+		trainNumbers = new String[TRAINS];
+		for (int i = 0; i < TRAINS; i++) {
+			trainNumbers[i] = String.valueOf(10000 + i);
+		}
+	}
+
+	@Benchmark
+	@Threads(16)
+	public Object bookAndCancel() {
+		ThreadLocalRandom rnd = ThreadLocalRandom.current();
+		String train = rnd.nextInt(10) < 9 ? trainNumbers[rnd.nextInt(HOT_TRAINS)] : trainNumbers[rnd.nextInt(TRAINS)];
+		int ticket = ticketNum.getAndIncrement();
+		boolean confirmed = seats.reserve(train, ticket);
+		if (rnd.nextBoolean()) {
+			return seats.release(train, ticket);
+		}
+		return confirmed;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(SeatInventoryBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	interface Inventory {
+
+		boolean reserve(String train, int ticket);
+
+		Integer release(String train, int ticket);
+	}
+
+	//baseline: one monitor for every train
+	static class GlobalLockInventory implements Inventory {
+
+		private final int capacity;
+		private final Map<String, int[]> available = new HashMap<>();
+		private final Map<String, LinkedHashSet<Integer>> waitlists = new HashMap<>();
+
+		GlobalLockInventory(int capacity) {
+			this.capacity = capacity;
+		}
+
+		@Override
+		public synchronized boolean reserve(String train, int ticket) {
+			int[] seats = available.computeIfAbsent(train, k -> new int[] { capacity });
+			if (seats[0] > 0) {
+				seats[0]--;
+				return true;
+			}
+			waitlists.computeIfAbsent(train, k -> new LinkedHashSet<>()).add(ticket);
+			return false;
+		}
+
+		@Override
+		public synchronized Integer release(String train, int ticket) {
+			LinkedHashSet<Integer> waitlist = waitlists.computeIfAbsent(train, k -> new LinkedHashSet<>());
+			if (waitlist.remove(ticket)) {
+				return null;
+			}
+			Iterator<Integer> it = waitlist.iterator();
+			if (!it.hasNext()) {
+				available.get(train)[0]++;
+				return null;
+			}
+			Integer promoted = it.next();
+			it.remove();
+			return promoted;
+		}
+	}
+
+}
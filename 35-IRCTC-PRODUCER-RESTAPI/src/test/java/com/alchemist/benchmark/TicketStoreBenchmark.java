@@ -0,0 +1,94 @@
+package com.alchemist.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alchemist.response.Ticket;
+import com.alchemist.store.OffHeapTicketStore;
+import com.alchemist.store.ShardedTicketStore;
+import com.alchemist.store.TicketStore;
+
+/*
+ * Lookup latency percentiles (p50..p99.99) of the heap and off heap stores with a large preloaded data set.
+ * The GC pauses of the heap store show up in the upper percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx4g", "-XX:MaxDirectMemorySize=4g" })
+@Threads(8)
+public class TicketStoreBenchmark {
+
+	@Param({ "heap", "offheap" })
+	public String store;
+
+	@Param({ "10000000" })
+	public int tickets;
+
+	private TicketStore ticketStore;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		ticketStore = create(store, tickets);
+		fill(ticketStore, tickets);
+	}
+
+	@Benchmark
+	public Ticket getTicket() {
+		return ticketStore.findByNumber(ThreadLocalRandom.current().nextInt(1, tickets + 1));
+	}
+
+	@Benchmark
+	public void bookTicket() {
+		Ticket t = sampleTicket();
+		t.setTicketNumber(ticketStore.nextTicketNumber());
+		ticketStore.save(t);
+	}
+
+	static TicketStore create(String store, int tickets) {
+		return "offheap".equals(store) ? new OffHeapTicketStore(64 << 20, tickets, 0.5) : new ShardedTicketStore();
+	}
+
+	static void fill(TicketStore ticketStore, int tickets) {
+		for (int i = 0; i < tickets; i++) {
+			Ticket t = sampleTicket();
+			t.setTicketNumber(ticketStore.nextTicketNumber());
+			ticketStore.save(t);
+		}
+	}
+
+	static Ticket sampleTicket() {
+		Ticket t = new Ticket();
+		t.setStatus("CONFIRMED");
+		t.setTicketCost(1000.00);
+		t.setName("Passenger " + ThreadLocalRandom.current().nextInt(1_000_000));
+		t.setFrom("Hyderabad");
+		t.setTo("Pune");
+		t.setDoj("10-10-2026");
+		t.setTrainNumber("12701");
+		return t;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(TicketStoreBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
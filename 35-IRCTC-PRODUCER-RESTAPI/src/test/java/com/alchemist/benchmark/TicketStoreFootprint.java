@@ -0,0 +1,48 @@
+package com.alchemist.benchmark;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+import com.alchemist.store.TicketStore;
+
+/*
+ * Prints heap and direct memory used by each store after loading N tickets.
+ * Usage: TicketStoreFootprint <heap|offheap> [tickets], one store per JVM so the numbers don't mix,
+ * e.g. with -Xmx8g -XX:MaxDirectMemorySize=8g -Xlog:gc to also see pause times.
+ */
+public class TicketStoreFootprint {
+
+	public static void main(String[] args) {
+		String store = args.length > 0 ? args[0] : "heap";
+		int tickets = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+
+		long heapBefore = usedHeap();
+		long directBefore = usedDirect();
+		long start = System.nanoTime();
+		TicketStore ticketStore = TicketStoreBenchmark.create(store, tickets);
+		TicketStoreBenchmark.fill(ticketStore, tickets);
+		long loadMillis = (System.nanoTime() - start) / 1_000_000;
+
+		System.out.printf("%s store, %,d tickets loaded in %,d ms%n", store, ticketStore.count(), loadMillis);
+		System.out.printf("  heap used   : %,d MB%n", (usedHeap() - heapBefore) >> 20);
+		System.out.printf("  direct used : %,d MB%n", (usedDirect() - directBefore) >> 20);
+	}
+
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		Runtime rt = Runtime.getRuntime();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	private static long usedDirect() {
+		for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+			if ("direct".equals(pool.getName())) {
+				return pool.getMemoryUsed();
+			}
+		}
+		return 0;
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.alchemist.inventory;
+
+import static com.alchemist.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class SeatInventoryTests {
+
+	private static final String TRAIN = "12785";
+	private static final String DOJ = "01-01-2027";
+	private static final int THREADS = 8;
+
+	@Test
+	void concurrentReservationsNeverOversell() throws Exception {
+		SeatInventory inventory = new SeatInventory(100);
+		AtomicInteger ticketNumbers = new AtomicInteger(1);
+		AtomicInteger confirmed = new AtomicInteger();
+
+		runConcurrently(THREADS, () -> {
+			for (int i = 0; i < 2_000; i++) {
+				if (inventory.reserve(TRAIN, DOJ, ticketNumbers.getAndIncrement())) {
+					confirmed.incrementAndGet();
+				}
+			}
+		});
+
+		assertThat(confirmed.get()).isEqualTo(100);
+		assertThat(inventory.availableSeats(TRAIN, DOJ)).isZero();
+		assertThat(inventory.waitlistLength(TRAIN, DOJ)).isEqualTo(THREADS * 2_000 - 100);
+	}
+
+	@Test
+	void concurrentReserveAndReleaseKeepSeatsAccountedFor() throws Exception {
+		SeatInventory inventory = new SeatInventory(50);
+		AtomicInteger ticketNumbers = new AtomicInteger(1);
+		Set<Integer> seated = ConcurrentHashMap.newKeySet();
+
+		runConcurrently(THREADS, () -> {
+			List<Integer> mine = new ArrayList<>();
+			for (int i = 0; i < 5_000; i++) {
+				int ticket = ticketNumbers.getAndIncrement();
+				if (inventory.reserve(TRAIN, DOJ, ticket)) {
+					assertThat(seated.add(ticket)).isTrue();
+					mine.add(ticket);
+				}
+				if (!mine.isEmpty() && ThreadLocalRandom.current().nextInt(3) == 0) {
+					Integer released = mine.remove(mine.size() - 1);
+					assertThat(seated.remove(released)).isTrue();
+					Integer promoted = inventory.release(TRAIN, DOJ, released);
+					if (promoted != null) {
+						assertThat(seated.add(promoted)).isTrue();
+					}
+				}
+				//added only after a seat was taken and removed before it is given back
+				assertThat(seated.size()).isLessThanOrEqualTo(50);
+			}
+		});
+
+		assertThat(seated.size() + inventory.availableSeats(TRAIN, DOJ)).isEqualTo(50);
+		if (inventory.waitlistLength(TRAIN, DOJ) > 0) {
+			assertThat(inventory.availableSeats(TRAIN, DOJ)).isZero();
+		}
+	}
+
+	@Test
+	void releasedSeatsGoToTheWaitlistInBookingOrder() throws Exception {
+		SeatInventory inventory = new SeatInventory(400);
+		for (int ticket = 1; ticket <= 400; ticket++) {
+			assertThat(inventory.reserve(TRAIN, DOJ, ticket)).isTrue();
+		}
+		for (int ticket = 401; ticket <= 1_000; ticket++) {
+			assertThat(inventory.reserve(TRAIN, DOJ, ticket)).isFalse();
+		}
+		AtomicInteger nextToCancel = new AtomicInteger(1);
+		Set<Integer> promoted = ConcurrentHashMap.newKeySet();
+
+		runConcurrently(THREADS, () -> {
+			for (int ticket = nextToCancel.getAndIncrement(); ticket <= 400; ticket = nextToCancel.getAndIncrement()) {
+				promoted.add(inventory.release(TRAIN, DOJ, ticket));
+			}
+		});
+
+		assertThat(promoted).isEqualTo(IntStream.rangeClosed(401, 800).boxed().collect(Collectors.toSet()));
+		assertThat(inventory.waitlistLength(TRAIN, DOJ)).isEqualTo(200);
+		assertThat(inventory.availableSeats(TRAIN, DOJ)).isZero();
+	}
+
+}
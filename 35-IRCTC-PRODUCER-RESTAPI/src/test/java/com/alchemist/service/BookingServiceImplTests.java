@@ -0,0 +1,98 @@
+package com.alchemist.service;
+
+import static com.alchemist.ConcurrentTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.alchemist.inventory.SeatInventory;
+import com.alchemist.request.Passenger;
+import com.alchemist.response.Ticket;
+import com.alchemist.store.ShardedTicketStore;
+import com.alchemist.store.TicketStore;
+
+class BookingServiceImplTests {
+
+	private static final String TRAIN = "12785";
+	private static final String DOJ = "01-01-2027";
+	private static final int THREADS = 8;
+
+	private final TicketStore store = new ShardedTicketStore();
+	private final SeatInventory inventory = new SeatInventory(100);
+	private final BookingServiceImpl service = new BookingServiceImpl(store, inventory);
+
+	@Test
+	void concurrentBookingsAndCancellationsNeverOversell() throws Exception {
+		runConcurrently(THREADS, () -> {
+			List<Integer> mine = new ArrayList<>();
+			for (int i = 0; i < 1_000; i++) {
+				mine.add(service.bookTicket(passenger(i)).getTicketNumber());
+				if (ThreadLocalRandom.current().nextInt(3) == 0) {
+					service.cancelTicket(mine.remove(ThreadLocalRandom.current().nextInt(mine.size())));
+				}
+			}
+		});
+
+		Map<String, Long> byStatus = statuses();
+		long confirmed = byStatus.getOrDefault(BookingServiceImpl.CONFIRMED, 0L);
+		long waitlisted = byStatus.getOrDefault(BookingServiceImpl.WAITLISTED, 0L);
+		assertThat(confirmed + inventory.availableSeats(TRAIN, DOJ)).isEqualTo(100);
+		assertThat(waitlisted).isEqualTo(inventory.waitlistLength(TRAIN, DOJ));
+		assertThat(store.count()).isEqualTo(THREADS * 1_000);
+		if (waitlisted > 0) {
+			//a free seat never sits next to a waiting ticket
+			assertThat(confirmed).isEqualTo(100);
+		}
+	}
+
+	@Test
+	void cancellationsConfirmWaitlistedTicketsInBookingOrder() throws Exception {
+		List<Integer> seated = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			seated.add(service.bookTicket(passenger(i)).getTicketNumber());
+		}
+		List<Integer> waiting = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			Ticket ticket = service.bookTicket(passenger(i));
+			assertThat(ticket.getStatus()).isEqualTo(BookingServiceImpl.WAITLISTED);
+			waiting.add(ticket.getTicketNumber());
+		}
+		AtomicInteger next = new AtomicInteger();
+
+		runConcurrently(THREADS, () -> {
+			for (int i = next.getAndIncrement(); i < seated.size(); i = next.getAndIncrement()) {
+				assertThat(service.cancelTicket(seated.get(i)).getStatus()).isEqualTo(BookingServiceImpl.CANCELLED);
+			}
+		});
+
+		for (int i = 0; i < waiting.size(); i++) {
+			String expected = i < 100 ? BookingServiceImpl.CONFIRMED : BookingServiceImpl.WAITLISTED;
+			assertThat(service.getTicket(waiting.get(i)).getStatus()).as("waitlisted #%d", i).isEqualTo(expected);
+		}
+		assertThat(inventory.waitlistLength(TRAIN, DOJ)).isEqualTo(200);
+	}
+
+	private Map<String, Long> statuses() {
+		List<Ticket> tickets = new ArrayList<>();
+		store.forEach(tickets::add);
+		return tickets.stream().collect(Collectors.groupingBy(Ticket::getStatus, Collectors.counting()));
+	}
+
+	private static Passenger passenger(int i) {
+		Passenger passenger = new Passenger();
+		passenger.setName("Passenger " + i);
+		passenger.setFrom("HYD");
+		passenger.setTo("BLR");
+		passenger.setDoj(DOJ);
+		passenger.setTrainNumber(TRAIN);
+		return passenger;
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.alchemist.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.alchemist.inventory.SeatInventory;
+import com.alchemist.request.Passenger;
+import com.alchemist.response.BookingResult;
+import com.alchemist.response.Ticket;
+import com.alchemist.store.ShardedTicketStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BulkBookingProcessorTests {
+
+	private static final String BROKEN_TRAIN = "00000";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final BookingServiceImpl bookings = new BookingServiceImpl(new ShardedTicketStore(), new SeatInventory(100));
+
+	//fails every batch with a passenger for BROKEN_TRAIN, books the others
+	private final BookingService service = new BookingService() {
+
+		@Override
+		public Ticket bookTicket(Passenger passenger) {
+			return bookTickets(List.of(passenger)).get(0);
+		}
+
+		@Override
+		public List<Ticket> bookTickets(List<Passenger> passengers) {
+			if (passengers.stream().anyMatch(p -> BROKEN_TRAIN.equals(p.getTrainNumber()))) {
+				throw new IllegalStateException("Inventory unavailable for " + BROKEN_TRAIN);
+			}
+			return bookings.bookTickets(passengers);
+		}
+
+		@Override
+		public Ticket getTicket(Integer ticketNumber) {
+			return bookings.getTicket(ticketNumber);
+		}
+
+		@Override
+		public Ticket cancelTicket(Integer ticketNumber) {
+			return bookings.cancelTicket(ticketNumber);
+		}
+	};
+
+	@Test
+	void aFailedBatchGetsAnErrorLinePerElementAndTheRestIsStillBooked() throws Exception {
+		List<Passenger> passengers = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			passengers.add(passenger(i, i == 2 ? BROKEN_TRAIN : "12785"));
+		}
+
+		List<BookingResult> results = process(2, mapper.writeValueAsString(passengers));
+
+		assertThat(results.stream().map(BookingResult::getIndex).toList()).containsExactly(0, 1, 2, 3, 4, 5);
+		for (BookingResult result : results) {
+			if (result.getIndex() == 2 || result.getIndex() == 3) {
+				assertThat(result.getTicket()).isNull();
+				assertThat(result.getError()).isEqualTo("Booking failed: Inventory unavailable for " + BROKEN_TRAIN);
+			} else {
+				assertThat(result.getError()).isNull();
+				assertThat(result.getTicket().getName()).isEqualTo("Passenger " + result.getIndex());
+			}
+		}
+	}
+
+	@Test
+	void aFailedLastBatchBeforeMalformedJsonStillGetsItsErrorLines() throws Exception {
+		String json = "[" + mapper.writeValueAsString(passenger(0, "12785")) + ","
+				+ mapper.writeValueAsString(passenger(1, BROKEN_TRAIN)) + ", {\"name\": ";
+
+		List<BookingResult> results = process(4, json);
+
+		assertThat(results).hasSize(3);
+		assertThat(results.get(0).getError()).startsWith("Booking failed");
+		assertThat(results.get(1).getError()).startsWith("Booking failed");
+		assertThat(results.get(2).getIndex()).isEqualTo(2);
+		assertThat(results.get(2).getError()).startsWith("Malformed JSON");
+	}
+
+	private List<BookingResult> process(int batchSize, String json) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BulkBookingProcessor(service, mapper, batchSize)
+				.process(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), out);
+		List<BookingResult> results = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			results.add(mapper.readValue(line, BookingResult.class));
+		}
+		return results;
+	}
+
+	private static Passenger passenger(int i, String train) {
+		Passenger passenger = new Passenger();
+		passenger.setName("Passenger " + i);
+		passenger.setFrom("HYD");
+		passenger.setTo("BLR");
+		passenger.setDoj("01-01-2027");
+		passenger.setTrainNumber(train);
+		return passenger;
+	}
+
+}
@@ -0,0 +1,213 @@
+package com.alchemist.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.alchemist.response.Ticket;
+
+class OffHeapTicketStoreTests {
+
+	private static final int READERS = 4;
+
+	@Test
+	void savedTicketsReadBackAsTheyWereWritten() {
+		OffHeapTicketStore store = new OffHeapTicketStore(1 << 16, 16, 0.5);
+		Ticket booked = ticket(1, "CONFIRMED");
+		booked.setName("Pässenger ✓");
+		Ticket sparse = new Ticket();
+		sparse.setTicketNumber(2);
+
+		store.save(booked);
+		store.save(sparse);
+
+		assertThat(store.count()).isEqualTo(2);
+		assertThat(store.findByNumber(1)).isEqualTo(booked);
+		assertThat(store.findByNumber(2)).isEqualTo(sparse);
+		assertThat(store.findByNumber(3)).isNull();
+		assertThat(store.findByNumber(null)).isNull();
+		assertThat(store.findByNumber(0)).isNull();
+	}
+
+	@Test
+	void updateReplacesTheTicketInPlaceOfAddingOne() {
+		OffHeapTicketStore store = new OffHeapTicketStore(1 << 16, 16, 0.5);
+		store.save(ticket(1, "WAITLISTED"));
+		store.save(ticket(2, "CONFIRMED"));
+
+		store.save(ticket(1, "CONFIRMED"));
+		store.save(ticket(2, "CANCELLED"));
+
+		assertThat(store.count()).isEqualTo(2);
+		assertThat(store.findByNumber(1).getStatus()).isEqualTo("CONFIRMED");
+		assertThat(store.findByNumber(2).getStatus()).isEqualTo("CANCELLED");
+		List<Ticket> all = new ArrayList<>();
+		store.forEach(all::add);
+		assertThat(all).containsExactlyInAnyOrder(ticket(1, "CONFIRMED"), ticket(2, "CANCELLED"));
+	}
+
+	@Test
+	void ticketNumberZeroIsRejected() {
+		OffHeapTicketStore store = new OffHeapTicketStore(1 << 16, 16, 0.5);
+
+		assertThatThrownBy(() -> store.save(ticket(0, "CONFIRMED"))).isInstanceOf(IllegalArgumentException.class);
+		assertThat(store.count()).isZero();
+	}
+
+	//there is no delete, a cancellation is an update, so superseded records are what compaction reclaims
+	@Test
+	void updatesCompactSegmentsFullOfSupersededRecords() {
+		OffHeapTicketStore store = new OffHeapTicketStore(1024, 16, 0.5);
+		for (int round = 0; round < 20; round++) {
+			for (int number = 1; number <= 100; number++) {
+				store.save(ticket(number, "ROUND-" + round));
+			}
+		}
+
+		assertThat(store.count()).isEqualTo(100);
+		for (int number = 1; number <= 100; number++) {
+			assertThat(store.findByNumber(number)).isEqualTo(ticket(number, "ROUND-19"));
+		}
+		Set<Integer> seen = new HashSet<>();
+		store.forEach(t -> {
+			assertThat(t.getStatus()).isEqualTo("ROUND-19");
+			assertThat(seen.add(t.getTicketNumber())).isTrue();
+		});
+		assertThat(seen).hasSize(100);
+		//2,000 records of ~70 bytes would fill ~140 segments left alone, 100 live ones fill ~7
+		assertThat(store.liveSegments()).isLessThanOrEqualTo(20);
+	}
+
+	@Test
+	void indexGrowsPastItsInitialCapacity() {
+		OffHeapTicketStore store = new OffHeapTicketStore(1 << 16, 4, 0.5);
+		for (int number = 1; number <= 10_000; number++) {
+			store.save(ticket(number, "CONFIRMED"));
+		}
+		store.save(ticket(Integer.MAX_VALUE, "CONFIRMED"));
+
+		assertThat(store.count()).isEqualTo(10_001);
+		for (int number = 1; number <= 10_000; number++) {
+			assertThat(store.findByNumber(number).getTicketNumber()).isEqualTo(number);
+		}
+		assertThat(store.findByNumber(Integer.MAX_VALUE)).isEqualTo(ticket(Integer.MAX_VALUE, "CONFIRMED"));
+		assertThat(store.findByNumber(10_002)).isNull();
+		AtomicInteger visited = new AtomicInteger();
+		store.forEach(t -> visited.incrementAndGet());
+		assertThat(visited.get()).isEqualTo(10_001);
+	}
+
+	@Test
+	void readersSeeEveryTicketWhileItIsRewrittenAndCompacted() throws Exception {
+		//small segments and index so the writer compacts and rehashes under the readers
+		OffHeapTicketStore store = new OffHeapTicketStore(4096, 4, 0.5);
+		AtomicInteger saved = new AtomicInteger();
+		AtomicBoolean done = new AtomicBoolean();
+		ExecutorService pool = Executors.newFixedThreadPool(READERS);
+		try {
+			List<Future<?>> readers = new ArrayList<>();
+			for (int i = 0; i < READERS; i++) {
+				readers.add(pool.submit(() -> {
+					Map<Integer, Integer> lastRound = new HashMap<>();
+					while (!done.get()) {
+						int upTo = saved.get();
+						if (upTo == 0) {
+							continue;
+						}
+						int number = ThreadLocalRandom.current().nextInt(upTo) + 1;
+						Ticket t = store.findByNumber(number);
+						assertThat(t).as("ticket %d", number).isNotNull();
+						assertThat(t.getName()).isEqualTo("Passenger " + number);
+						//a reader never goes back to a round it has seen replaced
+						int round = Integer.parseInt(t.getStatus().substring("ROUND-".length()));
+						assertThat(round).isGreaterThanOrEqualTo(lastRound.getOrDefault(number, 0));
+						lastRound.put(number, round);
+						if (number == 1) {
+							store.forEach(each -> assertThat(each.getName()).isEqualTo("Passenger " + each.getTicketNumber()));
+						}
+					}
+					return null;
+				}));
+			}
+
+			for (int round = 0; round < 50; round++) {
+				for (int number = 1; number <= 500; number++) {
+					store.save(ticket(number, "ROUND-" + round));
+					if (round == 0) {
+						saved.set(number);
+					}
+				}
+			}
+			done.set(true);
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+		} finally {
+			done.set(true);
+			pool.shutdownNow();
+		}
+
+		assertThat(store.count()).isEqualTo(500);
+		assertThat(store.findByNumber(500)).isEqualTo(ticket(500, "ROUND-49"));
+	}
+
+	@Test
+	void fieldsLongerThanTheCodecLimitAreRejected() {
+		OffHeapTicketStore store = new OffHeapTicketStore(1 << 18, 16, 0.5);
+		Ticket longest = ticket(1, "CONFIRMED");
+		longest.setName("x".repeat(0xFFFE));
+		Ticket tooLong = ticket(2, "CONFIRMED");
+		tooLong.setName("x".repeat(0xFFFF));
+		Ticket tooLongInUtf8 = ticket(3, "CONFIRMED");
+		tooLongInUtf8.setTo("✓".repeat(0x5555 + 1));
+
+		assertThat(TicketCodec.decode(ByteBuffer.wrap(TicketCodec.encode(longest)), 0)).isEqualTo(longest);
+		assertThatThrownBy(() -> TicketCodec.encode(tooLong)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> store.save(tooLong)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> store.save(tooLongInUtf8)).isInstanceOf(IllegalArgumentException.class);
+
+		store.save(longest);
+		assertThat(store.count()).isEqualTo(1);
+		assertThat(store.findByNumber(1)).isEqualTo(longest);
+		assertThat(store.findByNumber(2)).isNull();
+	}
+
+	@Test
+	void recordsLargerThanASegmentAreRejected() {
+		OffHeapTicketStore store = new OffHeapTicketStore(1024, 16, 0.5);
+		Ticket large = ticket(1, "CONFIRMED");
+		large.setName("x".repeat(1024));
+
+		assertThatThrownBy(() -> store.save(large)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(store.count()).isZero();
+	}
+
+	private static Ticket ticket(int number, String status) {
+		Ticket ticket = new Ticket();
+		ticket.setTicketNumber(number);
+		ticket.setStatus(status);
+		ticket.setTicketCost(1250.0);
+		ticket.setName("Passenger " + number);
+		ticket.setFrom("HYD");
+		ticket.setTo("BLR");
+		ticket.setDoj("01-01-2027");
+		ticket.setTrainNumber("12785");
+		return ticket;
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.alchemist.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.alchemist.response.Ticket;
+
+class TicketJournalTests {
+
+	private static final int SEGMENT_SIZE = 1 << 16;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void recoveryStopsAtARecordCutOffMidway() throws Exception {
+		TicketJournal journal = open(new ShardedTicketStore());
+		Ticket first = ticket(1, "CONFIRMED");
+		Ticket second = ticket(2, "CONFIRMED");
+		journal.append(first);
+		journal.append(second);
+		journal.append(ticket(3, "CONFIRMED"));
+		journal.close();
+
+		//as if the process died while the third record was being written
+		long complete = 2 * Integer.BYTES + TicketCodec.encode(first).length + 2 * Integer.BYTES
+				+ TicketCodec.encode(second).length;
+		try (FileChannel ch = FileChannel.open(only("wal-"), StandardOpenOption.WRITE)) {
+			ch.truncate(complete + 10);
+		}
+
+		TicketStore store = new ShardedTicketStore();
+		journal = open(store);
+		assertThat(store.count()).isEqualTo(2);
+		assertThat(store.findByNumber(2)).isEqualTo(second);
+		assertThat(store.findByNumber(3)).isNull();
+		assertThat(store.nextTicketNumber()).isEqualTo(3);
+
+		//appends go to a new log file, so the cut off one never gets records after the torn one
+		journal.append(ticket(3, "WAITLISTED"));
+		journal.close();
+		store = new ShardedTicketStore();
+		open(store).close();
+		assertThat(store.count()).isEqualTo(3);
+		assertThat(store.findByNumber(3).getStatus()).isEqualTo("WAITLISTED");
+	}
+
+	@Test
+	void recoveryLoadsTheSnapshotAndReplaysTheLogAfterIt() throws Exception {
+		TicketStore store = new ShardedTicketStore();
+		TicketJournal journal = open(store);
+		for (int i = 1; i <= 100; i++) {
+			book(store, journal, ticket(i, "CONFIRMED"));
+		}
+		journal.snapshot();
+		book(store, journal, ticket(101, "CONFIRMED"));
+		book(store, journal, ticket(7, "CANCELLED"));
+		journal.close();
+
+		assertThat(files("snapshot-")).hasSize(1);
+		store = new ShardedTicketStore();
+		open(store).close();
+		assertThat(store.count()).isEqualTo(101);
+		assertThat(store.findByNumber(7).getStatus()).isEqualTo("CANCELLED");
+		assertThat(store.findByNumber(100).getStatus()).isEqualTo("CONFIRMED");
+		assertThat(store.nextTicketNumber()).isEqualTo(102);
+	}
+
+	@Test
+	void snapshotsAcrossRolledSegmentsKeepEveryTicket() throws Exception {
+		TicketStore store = new ShardedTicketStore();
+		TicketJournal journal = open(store);
+		//several segments' worth, so appends roll the log between snapshots
+		for (int i = 1; i <= 5_000; i++) {
+			book(store, journal, ticket(i, "CONFIRMED"));
+			if (i % 2_000 == 0) {
+				journal.snapshot();
+			}
+		}
+		journal.close();
+
+		TicketStore recovered = new ShardedTicketStore();
+		open(recovered).close();
+		assertThat(recovered.count()).isEqualTo(5_000);
+		assertThat(recovered.findByNumber(4_999)).isEqualTo(store.findByNumber(4_999));
+	}
+
+	@Test
+	void closeWithoutRecoveryDoesNothing() throws Exception {
+		new TicketJournal(new ShardedTicketStore(), dir.toString(), SEGMENT_SIZE, true).close();
+	}
+
+	private TicketJournal open(TicketStore store) throws Exception {
+		TicketJournal journal = new TicketJournal(store, dir.toString(), SEGMENT_SIZE, true);
+		journal.recover();
+		return journal;
+	}
+
+	//what BookingServiceImpl does: the store is what snapshots are taken from
+	private static void book(TicketStore store, TicketJournal journal, Ticket ticket) {
+		store.save(ticket);
+		journal.append(ticket);
+	}
+
+	private Path only(String prefix) throws Exception {
+		List<Path> files = files(prefix);
+		assertThat(files).hasSize(1);
+		return files.get(0);
+	}
+
+	private List<Path> files(String prefix) throws Exception {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(p -> p.getFileName().toString().startsWith(prefix)).collect(Collectors.toList());
+		}
+	}
+
+	private static Ticket ticket(int number, String status) {
+		Ticket ticket = new Ticket();
+		ticket.setTicketNumber(number);
+		ticket.setStatus(status);
+		ticket.setTicketCost(1250.0);
+		ticket.setName("Passenger " + number);
+		ticket.setFrom("HYD");
+		ticket.setTo("BLR");
+		ticket.setDoj("01-01-2027");
+		ticket.setTrainNumber("12785");
+		return ticket;
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.alchemist.cache;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.alchemist.response.Ticket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*
+ * Read-through cache of IRCTC tickets by number, bounded by irctc.cache.max-size and expired
+ * irctc.cache.ttl-seconds after being loaded. Concurrent misses for the same number wait for a
+ * single IRCTC call. Missing tickets are not cached. Hit, miss and eviction counts are published
+ * as cache.gets / cache.evictions with tag cache=tickets.
+ */
+@Component
+public class TicketCache {
+
+	private final Cache<Integer, Ticket> cache;
+
+	@Autowired
+	public TicketCache(MeterRegistry registry,
+			@Value("${irctc.cache.max-size:10000}") long maxSize,
+			@Value("${irctc.cache.ttl-seconds:60}") long ttlSeconds) {
+		cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, cache, "tickets");
+	}
+
+	public Ticket get(Integer ticketNumber, Function<Integer, Ticket> loader) {
+		return cache.get(ticketNumber, loader);
+	}
+
+	public void invalidate(Integer ticketNumber) {
+		cache.invalidate(ticketNumber);
+	}
+
+}
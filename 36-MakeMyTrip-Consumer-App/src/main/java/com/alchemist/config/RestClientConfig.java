@@ -0,0 +1,112 @@
+package com.alchemist.config;
+
+import java.net.URI;
+
+import org.apache.hc.client5.http.UnsupportedSchemeException;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.routing.HttpRoute;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.alchemist.hedge.HedgedRequests;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+//one RestTemplate for the whole app, backed by a pool of kept-alive connections to IRCTC
+@Configuration
+public class RestClientConfig {
+
+	@Value("${irctc.base-url}")
+	private String irctcBaseUrl;
+
+	@Value("${irctc.client.max-connections:200}")
+	private int maxConnections;
+
+	@Value("${irctc.client.max-connections-per-route:50}")
+	private int maxConnectionsPerRoute;
+
+	@Value("${irctc.client.irctc-max-connections:100}")
+	private int irctcMaxConnections;
+
+	@Value("${irctc.client.connect-timeout-ms:2000}")
+	private long connectTimeout;
+
+	@Value("${irctc.client.response-timeout-ms:5000}")
+	private long responseTimeout;
+
+	@Value("${irctc.client.pool-wait-timeout-ms:1000}")
+	private long poolWaitTimeout;
+
+	@Value("${irctc.client.keep-alive-ms:30000}")
+	private long keepAlive;
+
+	@Bean
+	public PoolingHttpClientConnectionManager connectionManager() throws UnsupportedSchemeException {
+		PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder.create()
+				.setMaxConnTotal(maxConnections)
+				.setMaxConnPerRoute(maxConnectionsPerRoute)
+				.setDefaultConnectionConfig(ConnectionConfig.custom()
+						.setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+						.setSocketTimeout(Timeout.ofMilliseconds(responseTimeout))
+						.setValidateAfterInactivity(TimeValue.ofSeconds(2))       //skip stale sockets the server already closed
+						.build())
+				.build();
+		//the pool keys routes by the resolved port and the https flag, as the client's route planner builds them
+		HttpHost irctc = HttpHost.create(URI.create(irctcBaseUrl));
+		HttpHost target = new HttpHost(irctc.getSchemeName(), irctc.getHostName(),
+				DefaultSchemePortResolver.INSTANCE.resolve(irctc));
+		cm.setMaxPerRoute(new HttpRoute(target, null, URIScheme.HTTPS.same(target.getSchemeName())), irctcMaxConnections);
+		return cm;
+	}
+
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+		return HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAlive))
+				.setDefaultRequestConfig(RequestConfig.custom()
+						.setConnectionRequestTimeout(Timeout.ofMilliseconds(poolWaitTimeout))
+						.setResponseTimeout(Timeout.ofMilliseconds(responseTimeout))
+						.build())
+				.evictExpiredConnections()
+				.evictIdleConnections(TimeValue.ofMilliseconds(keepAlive))
+				.build();
+	}
+
+	@Bean
+	public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient) {
+		return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient) {
+			//lets a hedged read abort the request of an attempt that lost or ran out of time
+			@Override
+			protected void postProcessHttpRequest(ClassicHttpRequest request) {
+				if (request instanceof Cancellable cancellable) {
+					HedgedRequests.bindToCurrentAttempt(cancellable);
+				}
+			}
+		}).build();
+	}
+
+	//httpcomponents.httpclient.pool.* gauges: leased/available connections, pending requests, limits
+	@Bean
+	public MeterBinder irctcPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+		return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "irctc");
+	}
+
+}
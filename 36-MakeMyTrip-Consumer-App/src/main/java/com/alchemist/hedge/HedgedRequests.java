@@ -0,0 +1,264 @@
+package com.alchemist.hedge;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Runs idempotent IRCTC reads with hedging and an adaptive timeout.
+ * The first attempt runs on the caller's thread. If it hasn't answered after the recent p(hedge-percentile)
+ * latency, a second identical request is sent from a small pool (skipped when the pool is busy) and whichever
+ * succeeds first wins; the other one is aborted. The caller gives up after timeout-multiplier x the recent
+ * p(timeout-percentile), kept between min and max timeout, and the attempts still running are aborted.
+ * Every attempt that ends on its own counts towards the percentiles, failures and timeouts included;
+ * only the ones aborted because another attempt won don't.
+ * Until min-samples calls have been seen the configured defaults are used.
+ */
+@Component
+public class HedgedRequests {
+
+	//the attempt running on this thread, so the http request it makes can be aborted
+	private static final ThreadLocal<Attempt> CURRENT = new ThreadLocal<>();
+
+	private final boolean enabled;
+	private final double hedgePercentile;
+	private final double timeoutPercentile;
+	private final double timeoutMultiplier;
+	private final Duration defaultHedgeDelay;
+	private final Duration minTimeout;
+	private final Duration maxTimeout;
+	private final long minSamples;
+
+	private final LatencyHistogram latencies = new LatencyHistogram(Duration.ofMinutes(1), 6);
+	private final ThreadPoolExecutor hedgers;
+	private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1);
+	private final Counter hedgesSent;
+	private final Counter hedgesSkipped;
+	private final Counter timeouts;
+
+	@Autowired
+	public HedgedRequests(MeterRegistry registry,
+			@Value("${irctc.hedge.enabled:true}") boolean enabled,
+			@Value("${irctc.hedge.hedge-percentile:0.95}") double hedgePercentile,
+			@Value("${irctc.hedge.timeout-percentile:0.999}") double timeoutPercentile,
+			@Value("${irctc.hedge.timeout-multiplier:3}") double timeoutMultiplier,
+			@Value("${irctc.hedge.default-delay-ms:50}") long defaultHedgeDelay,
+			@Value("${irctc.hedge.min-timeout-ms:100}") long minTimeout,
+			@Value("${irctc.client.response-timeout-ms:5000}") long maxTimeout,
+			@Value("${irctc.hedge.min-samples:100}") long minSamples,
+			@Value("${irctc.hedge.threads:16}") int threads) {
+		this.enabled = enabled;
+		this.hedgePercentile = hedgePercentile;
+		this.timeoutPercentile = timeoutPercentile;
+		this.timeoutMultiplier = timeoutMultiplier;
+		this.defaultHedgeDelay = Duration.ofMillis(defaultHedgeDelay);
+		this.minTimeout = Duration.ofMillis(minTimeout);
+		this.maxTimeout = Duration.ofMillis(maxTimeout);
+		this.minSamples = minSamples;
+		//no queue: a hedge that can't start right away is not worth sending later
+		this.hedgers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new SynchronousQueue<>());
+		this.hedgers.allowCoreThreadTimeOut(true);
+		this.timer.setRemoveOnCancelPolicy(true);
+		this.hedgesSent = registry.counter("irctc.hedge.requests");
+		this.hedgesSkipped = registry.counter("irctc.hedge.skipped");
+		this.timeouts = registry.counter("irctc.hedge.timeouts");
+	}
+
+	//called by the http client for each request it creates, see RestClientConfig
+	public static void bindToCurrentAttempt(Cancellable request) {
+		Attempt attempt = CURRENT.get();
+		if (attempt != null) {
+			attempt.bind(request);
+		}
+	}
+
+	public <T> T call(Supplier<T> request) {
+		if (!enabled) {
+			long start = System.nanoTime();
+			try {
+				return request.get();
+			} finally {
+				latencies.record(System.nanoTime() - start);
+			}
+		}
+		Call<T> call = new Call<>(request);
+		Duration timeout = timeout();
+		ScheduledFuture<?> hedge = timer.schedule(call::hedge, hedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+		ScheduledFuture<?> deadline = timer.schedule(call::expire, timeout.toNanos(), TimeUnit.NANOSECONDS);
+		try {
+			call.run(call.primary);
+			return call.result.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CallTimeout) {
+				timeouts.increment();
+				throw new ResourceAccessException("IRCTC did not answer within " + timeout.toMillis() + " ms");
+			}
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ResourceAccessException("Interrupted while waiting for IRCTC");
+		} finally {
+			hedge.cancel(false);
+			deadline.cancel(false);
+			call.hedge.abort(true);
+		}
+	}
+
+	public Duration hedgeDelay() {
+		Duration p = latencies.count() < minSamples ? null : latencies.percentile(hedgePercentile);
+		return p == null ? defaultHedgeDelay : p;
+	}
+
+	public Duration timeout() {
+		Duration p = latencies.count() < minSamples ? null : latencies.percentile(timeoutPercentile);
+		if (p == null) {
+			return maxTimeout;
+		}
+		Duration t = Duration.ofNanos((long) (p.toNanos() * timeoutMultiplier));
+		return t.compareTo(minTimeout) < 0 ? minTimeout : t.compareTo(maxTimeout) > 0 ? maxTimeout : t;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		timer.shutdownNow();
+		hedgers.shutdownNow();
+	}
+
+	//one caller's read: the attempts, how many of them are still running and the first failure
+	private final class Call<T> {
+
+		final Supplier<T> request;
+		final CompletableFuture<T> result = new CompletableFuture<>();
+		final AtomicInteger running = new AtomicInteger(1);
+		final Attempt primary = new Attempt();
+		final Attempt hedge = new Attempt();
+		volatile RuntimeException failure;
+
+		Call(Supplier<T> request) {
+			this.request = request;
+		}
+
+		//a failed attempt only fails the call when no other attempt is still running
+		void run(Attempt attempt) {
+			CURRENT.set(attempt);
+			long start = System.nanoTime();
+			try {
+				T value = request.get();
+				attempt.finish();
+				latencies.record(System.nanoTime() - start);
+				if (result.complete(value)) {
+					primary.abort(true);
+					hedge.abort(true);
+				}
+			} catch (RuntimeException e) {
+				attempt.finish();
+				if (!attempt.lost) {
+					latencies.record(System.nanoTime() - start);
+				}
+				if (failure == null) {
+					failure = e;
+				}
+				release();
+			} finally {
+				CURRENT.remove();
+			}
+		}
+
+		void hedge() {
+			if (result.isDone()) {
+				return;
+			}
+			running.incrementAndGet();
+			try {
+				hedgers.execute(() -> {
+					if (result.isDone()) {
+						//the caller already has its answer or gave up
+						release();
+						return;
+					}
+					hedgesSent.increment();
+					run(hedge);
+				});
+			} catch (RejectedExecutionException e) {
+				hedgesSkipped.increment();
+				release();
+			}
+		}
+
+		void expire() {
+			if (result.completeExceptionally(new CallTimeout())) {
+				//their time so far still counts as a sample, it's a lower bound of the real latency
+				primary.abort(false);
+				hedge.abort(false);
+			}
+		}
+
+		private void release() {
+			RuntimeException e = failure;
+			if (running.decrementAndGet() == 0 && e != null) {
+				result.completeExceptionally(e);
+			}
+		}
+	}
+
+	//an http request that may be aborted before or while it runs
+	private static final class Attempt {
+
+		private volatile Cancellable request;
+		private volatile boolean aborted;
+		private volatile boolean finished;
+		volatile boolean lost;
+
+		void bind(Cancellable request) {
+			this.request = request;
+			if (aborted) {
+				request.cancel();
+			}
+		}
+
+		void abort(boolean lost) {
+			if (finished || aborted) {
+				return;
+			}
+			this.lost = lost;
+			aborted = true;
+			Cancellable r = request;
+			if (r != null) {
+				r.cancel();
+			}
+		}
+
+		void finish() {
+			finished = true;
+		}
+	}
+
+	private static final class CallTimeout extends RuntimeException {
+
+		CallTimeout() {
+			super(null, null, false, false);
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.alchemist.hedge;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Rolling latency histogram: the window is split into slots that are recycled as time moves on,
+ * each slot counts samples in exponentially sized buckets (100us and up, ~15% apart), so
+ * percentiles are cheap to record and to read and reflect only the recent past.
+ */
+public class LatencyHistogram {
+
+	private static final long[] BOUNDS_MICROS;
+
+	static {
+		List<Long> bounds = new ArrayList<>();
+		for (double b = 100; b < 300_000_000; b *= 1.15) {
+			bounds.add((long) b);
+		}
+		BOUNDS_MICROS = bounds.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private final long slotMillis;
+	private final Slot[] slots;
+
+	public LatencyHistogram(Duration window, int slotCount) {
+		this.slotMillis = Math.max(1, window.toMillis() / slotCount);
+		this.slots = new Slot[slotCount];
+		for (int i = 0; i < slotCount; i++) {
+			slots[i] = new Slot();
+		}
+	}
+
+	public void record(long nanos) {
+		long epoch = System.currentTimeMillis() / slotMillis;
+		Slot slot = slots[(int) (epoch % slots.length)];
+		if (slot.epoch != epoch) {
+			synchronized (slot) {
+				if (slot.epoch != epoch) {      //first sample in a new period, forget what the slot held
+					for (int i = 0; i < BOUNDS_MICROS.length + 1; i++) {
+						slot.counts.set(i, 0);
+					}
+					slot.epoch = epoch;
+				}
+			}
+		}
+		slot.counts.incrementAndGet(bucket(nanos / 1000));
+	}
+
+	public long count() {
+		long total = 0;
+		for (long c : merged()) {
+			total += c;
+		}
+		return total;
+	}
+
+	//upper bound of the bucket holding the given percentile (0..1), null when there are no samples
+	public Duration percentile(double p) {
+		long[] counts = merged();
+		long total = Arrays.stream(counts).sum();
+		if (total == 0) {
+			return null;
+		}
+		long rank = (long) Math.ceil(p * total);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				long micros = i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] : BOUNDS_MICROS[BOUNDS_MICROS.length - 1];
+				return Duration.ofNanos(micros * 1000);
+			}
+		}
+		return Duration.ofNanos(BOUNDS_MICROS[BOUNDS_MICROS.length - 1] * 1000);
+	}
+
+	private long[] merged() {
+		long oldest = System.currentTimeMillis() / slotMillis - slots.length + 1;
+		long[] counts = new long[BOUNDS_MICROS.length + 1];
+		for (Slot slot : slots) {
+			if (slot.epoch >= oldest) {
+				for (int i = 0; i < counts.length; i++) {
+					counts[i] += slot.counts.get(i);
+				}
+			}
+		}
+		return counts;
+	}
+
+	private static int bucket(long micros) {
+		int i = Arrays.binarySearch(BOUNDS_MICROS, micros);
+		return i >= 0 ? i : -i - 1;
+	}
+
+	private static final class Slot {
+		volatile long epoch = -1;
+		final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+	}
+
+}
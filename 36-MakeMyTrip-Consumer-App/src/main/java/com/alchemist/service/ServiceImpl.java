@@ -1,31 +1,56 @@
 package com.alchemist.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import com.alchemist.cache.TicketCache;
+import com.alchemist.hedge.HedgedRequests;
 import com.alchemist.request.Passenger;
 import com.alchemist.response.Ticket;
 
 @Service
 public class ServiceImpl implements MTMService{
-	private String BOOK_TICKET_URL = "http://localhost:9090/ticket";       //ip inplace of localhost when deployed on AWS
-	private String GET_TICKET_URL = "http://localhost:9090/ticket/{ticketNum}";
+	private final String BOOK_TICKET_URL;
+	private final String GET_TICKET_URL;
+
+	private final RestTemplate rt;     //shared and pooled, see RestClientConfig
+	private final TicketCache ticketCache;
+	private final HedgedRequests hedgedRequests;
+
+	@Autowired
+	public ServiceImpl(RestTemplate rt, TicketCache ticketCache, HedgedRequests hedgedRequests,
+			@Value("${irctc.base-url}") String irctcBaseUrl) {
+		this.rt = rt;
+		this.ticketCache = ticketCache;
+		this.hedgedRequests = hedgedRequests;
+		this.BOOK_TICKET_URL = irctcBaseUrl + "/ticket";
+		this.GET_TICKET_URL = irctcBaseUrl + "/ticket/{ticketNum}";
+	}
 
 	@Override
 	public Ticket bookTicket(Passenger passenger) {
-		RestTemplate rt = new RestTemplate();
 		ResponseEntity<Ticket> response = rt.postForEntity(BOOK_TICKET_URL, passenger, Ticket.class);       //to send post request
 		Ticket ticket = response.getBody();
+		if (ticket != null) {
+			ticketCache.invalidate(ticket.getTicketNumber());     //IRCTC reuses numbers after a restart without its journal, drop any stale copy
+		}
 		return ticket;
 	}
 
 	@Override
 	public Ticket getTicketByNum(Integer ticketNumber) {
-		RestTemplate rt = new RestTemplate();
-		ResponseEntity<Ticket> response = rt.getForEntity(GET_TICKET_URL, Ticket.class, ticketNumber);    // to send get request
-		Ticket ticket = response.getBody();
-		return ticket;
+		return ticketCache.get(ticketNumber, this::fetchTicket);
+	}
+
+	//GET is idempotent, so a slow call may be raced by a second one
+	private Ticket fetchTicket(Integer ticketNumber) {
+		return hedgedRequests.call(() -> {
+			ResponseEntity<Ticket> response = rt.getForEntity(GET_TICKET_URL, Ticket.class, ticketNumber);    // to send get request
+			return response.getBody();
+		});
 	}
 
 }
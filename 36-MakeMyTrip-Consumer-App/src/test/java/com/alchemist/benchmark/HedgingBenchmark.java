@@ -0,0 +1,72 @@
+package com.alchemist.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.alchemist.Application;
+import com.alchemist.service.MTMService;
+
+/*
+ * getTicketByNum against a stub where a small share of requests stalls (default 1% for 1 s),
+ * once without and once with hedging, printing p50/p99/p99.9 and failures (timeouts).
+ * The ticket cache is switched off so every call goes to the stub.
+ * Usage: HedgingBenchmark [requests] [threads] [stallProbability] [stallMs]
+ */
+public class HedgingBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		double stallProbability = args.length > 2 ? Double.parseDouble(args[2]) : 0.01;
+		long stallMillis = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+
+		try (IrctcStub stub = new IrctcStub(stallProbability, stallMillis)) {
+			for (boolean hedge : new boolean[] { false, true }) {
+				try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(Application.class)
+						.web(WebApplicationType.NONE)
+						.properties("irctc.base-url=" + stub.baseUrl(), "irctc.cache.max-size=0",
+								"irctc.hedge.enabled=" + hedge)
+						.run()) {
+					run(hedge ? "hedged + adaptive timeout" : "single request", ctx.getBean(MTMService.class),
+							requests, threads);
+				}
+			}
+		}
+	}
+
+	private static void run(String mode, MTMService service, int requests, int threads) {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long[] latencies = new long[requests];
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger failures = new AtomicInteger();
+		CompletableFuture<?>[] workers = new CompletableFuture[threads];
+		for (int t = 0; t < threads; t++) {
+			workers[t] = CompletableFuture.runAsync(() -> {
+				for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+					long begin = System.nanoTime();
+					try {
+						service.getTicketByNum(i + 1);
+					} catch (RuntimeException e) {
+						failures.incrementAndGet();
+					}
+					latencies[i] = System.nanoTime() - begin;
+				}
+			}, pool);
+		}
+		CompletableFuture.allOf(workers).join();
+		pool.shutdown();
+
+		Arrays.sort(latencies);
+		System.out.printf("%-26s p50 %7.2f ms  p99 %7.2f ms  p99.9 %7.2f ms  failures %d%n", mode,
+				RestClientLoadDriver.percentile(latencies, 0.50), RestClientLoadDriver.percentile(latencies, 0.99),
+				RestClientLoadDriver.percentile(latencies, 0.999), failures.get());
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.alchemist.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Minimal stand-in for the IRCTC producer (POST /ticket, GET /ticket/{n}) on a random port.
+ * Every distinct client address:port seen is a new TCP connection, which gives the socket churn.
+ * Optionally a fraction of requests stalls, like the producer in a GC pause.
+ */
+public class IrctcStub implements AutoCloseable {
+
+	private static final String TICKET = "{\"ticketNumber\":%d,\"status\":\"CONFIRMED\",\"ticketCost\":1000.0,"
+			+ "\"name\":\"Ashok\",\"from\":\"Hyderabad\",\"to\":\"Pune\",\"doj\":\"10-10-2026\",\"trainNumber\":\"12701\"}";
+
+	private final HttpServer server;
+	private final AtomicInteger ticketNum = new AtomicInteger(1);
+	private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger requests = new AtomicInteger();
+	private final double stallProbability;
+	private final long stallMillis;
+
+	public IrctcStub() throws IOException {
+		this(0, 0);
+	}
+
+	public IrctcStub(double stallProbability, long stallMillis) throws IOException {
+		this.stallProbability = stallProbability;
+		this.stallMillis = stallMillis;
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/ticket", this::handle);
+		server.start();
+	}
+
+	public String baseUrl() {
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	public int connectionsOpened() {
+		return connections.size();
+	}
+
+	public int requests() {
+		return requests.get();
+	}
+
+	public void reset() {
+		connections.clear();
+		requests.set(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		connections.add(exchange.getRemoteAddress());
+		requests.incrementAndGet();
+		try (InputStream in = exchange.getRequestBody()) {
+			in.readAllBytes();
+		}
+		if (stallProbability > 0 && ThreadLocalRandom.current().nextDouble() < stallProbability) {
+			try {
+				Thread.sleep(stallMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		int number;
+		int status;
+		if ("POST".equals(exchange.getRequestMethod())) {
+			number = ticketNum.getAndIncrement();
+			status = 201;
+		} else {
+			String path = exchange.getRequestURI().getPath();
+			number = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+			status = 200;
+		}
+		byte[] body = String.format(TICKET, number).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+}
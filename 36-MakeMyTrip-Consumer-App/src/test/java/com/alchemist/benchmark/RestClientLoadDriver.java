@@ -0,0 +1,76 @@
+package com.alchemist.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+
+import com.alchemist.Application;
+import com.alchemist.response.Ticket;
+import com.alchemist.service.MTMService;
+
+/*
+ * Calls GET /ticket/{n} on a local IRCTC stub, first with a new RestTemplate per call (the old
+ * ServiceImpl) and then through the pooled MTMService bean, and prints latency percentiles and
+ * how many TCP connections the stub had to accept.
+ * Usage: RestClientLoadDriver [requests] [threads]
+ */
+public class RestClientLoadDriver {
+
+	public static void main(String[] args) throws Exception {
+		int requests = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+
+		try (IrctcStub stub = new IrctcStub()) {
+			String url = stub.baseUrl() + "/ticket/{ticketNum}";
+			run("new RestTemplate per call", stub, requests, threads,
+					i -> new RestTemplate().getForEntity(url, Ticket.class, i));
+
+			try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(Application.class)
+					.web(WebApplicationType.NONE)
+					.properties("irctc.base-url=" + stub.baseUrl())
+					.run()) {
+				MTMService service = ctx.getBean(MTMService.class);
+				run("shared pooled RestTemplate", stub, requests, threads, service::getTicketByNum);
+			}
+		}
+	}
+
+	private static void run(String mode, IrctcStub stub, int requests, int threads, IntConsumer call) {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long[] latencies = new long[requests];
+		AtomicInteger next = new AtomicInteger();
+		stub.reset();
+		long start = System.nanoTime();
+		CompletableFuture<?>[] workers = new CompletableFuture[threads];
+		for (int t = 0; t < threads; t++) {
+			workers[t] = CompletableFuture.runAsync(() -> {
+				for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+					long begin = System.nanoTime();
+					call.accept(i + 1);
+					latencies[i] = System.nanoTime() - begin;
+				}
+			}, pool);
+		}
+		CompletableFuture.allOf(workers).join();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		pool.shutdown();
+
+		Arrays.sort(latencies);
+		System.out.printf("%-28s %,8.0f req/s  p50 %6.2f ms  p99 %6.2f ms  p99.9 %6.2f ms  connections opened %,d%n",
+				mode, requests / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99),
+				percentile(latencies, 0.999), stub.connectionsOpened());
+	}
+
+	static double percentile(long[] sorted, double p) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+	}
+
+}
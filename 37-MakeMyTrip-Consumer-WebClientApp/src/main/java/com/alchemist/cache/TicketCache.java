@@ -0,0 +1,52 @@
+package com.alchemist.cache;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.alchemist.response.Ticket;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/*
+ * Read-through cache of IRCTC tickets by number, bounded by irctc.cache.max-size and expired
+ * irctc.cache.ttl-seconds after being loaded. The cache holds the pending call itself, so
+ * concurrent misses for the same number all subscribe to one IRCTC request. Empty results are
+ * not cached. Hit, miss and eviction counts are published as cache.gets / cache.evictions with
+ * tag cache=tickets.
+ */
+@Component
+public class TicketCache {
+
+	private final AsyncCache<Integer, Ticket> cache;
+
+	@Autowired
+	public TicketCache(MeterRegistry registry,
+			@Value("${irctc.cache.max-size:10000}") long maxSize,
+			@Value("${irctc.cache.ttl-seconds:60}") long ttlSeconds) {
+		cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.buildAsync();
+		CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "tickets");
+	}
+
+	public Mono<Ticket> get(Integer ticketNumber, Function<Integer, Mono<Ticket>> loader) {
+		//suppressCancel: one subscriber going away must not cancel the call the others wait for
+		return Mono.defer(() -> Mono.fromFuture(
+				cache.get(ticketNumber, (key, executor) -> loader.apply(key).toFuture()), true));
+	}
+
+	public void invalidate(Integer ticketNumber) {
+		cache.synchronous().invalidate(ticketNumber);
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.alchemist.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+//one WebClient for the whole app so Reactor Netty's connection pool and event loops are reused
+@Configuration
+public class WebClientConfig {
+
+	@Value("${irctc.base-url}")
+	private String irctcBaseUrl;
+
+	@Value("${irctc.client.max-connections:500}")
+	private int maxConnections;
+
+	@Value("${irctc.client.max-pending-acquires:5000}")
+	private int maxPendingAcquires;
+
+	@Value("${irctc.client.connect-timeout-ms:2000}")
+	private int connectTimeout;
+
+	@Value("${irctc.client.response-timeout-ms:5000}")
+	private long responseTimeout;
+
+	@Value("${irctc.client.max-idle-ms:30000}")
+	private long maxIdle;
+
+	@Bean(destroyMethod = "dispose")
+	public ConnectionProvider irctcConnectionProvider() {
+		return ConnectionProvider.builder("irctc")
+				.maxConnections(maxConnections)
+				.pendingAcquireMaxCount(maxPendingAcquires)        //beyond this, fail fast instead of queueing forever
+				.pendingAcquireTimeout(Duration.ofMillis(responseTimeout))
+				.maxIdleTime(Duration.ofMillis(maxIdle))
+				.evictInBackground(Duration.ofMillis(maxIdle))
+				.build();
+	}
+
+	@Bean
+	public WebClient irctcWebClient(WebClient.Builder builder, ConnectionProvider irctcConnectionProvider) {
+		HttpClient httpClient = HttpClient.create(irctcConnectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+				.responseTimeout(Duration.ofMillis(responseTimeout))
+				.keepAlive(true);
+		return builder.baseUrl(irctcBaseUrl)
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.build();
+	}
+
+}
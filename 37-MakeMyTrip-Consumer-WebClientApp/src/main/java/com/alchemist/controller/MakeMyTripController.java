@@ -9,10 +9,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import com.alchemist.request.Passenger;
-import com.alchemist.response.Ticket;
 import com.alchemist.service.MTMService;
 
+import reactor.core.publisher.Mono;
 
+
+//handler methods return Mono, Spring MVC frees the servlet thread and renders the view when IRCTC answers
 @Controller
 public class MakeMyTripController {
 	@Autowired
@@ -25,44 +27,24 @@ public class MakeMyTripController {
 	}
 	
 	@PostMapping("book-ticket")
-	public String bookTicket(@ModelAttribute("passenger")Passenger passenger, Model model) {
-		Ticket bookedTicket = service.bookTicket(passenger);
-		model.addAttribute("msg","Ticket is booked with ID:"+bookedTicket.getTicketNumber());
-		return "index";
+	public Mono<String> bookTicket(@ModelAttribute("passenger")Passenger passenger, Model model) {
+		return service.bookTicket(passenger)
+				.map(bookedTicket -> {
+					model.addAttribute("msg","Ticket is booked with ID:"+bookedTicket.getTicketNumber());
+					return "index";
+				});
 	}
 	
-	/*
-	 * @GetMapping("/get-ticket") public String
-	 * getTicket(@RequestParam("tikcetNumber") Integer ticketNumber, Model model) {
-	 * Ticket ticketByNum = service.getTicketByNum(ticketNumber);
-	 * model.addAttribute("ticket",ticketByNum); return "ticket-form"; }
-	 */
-	
 	@GetMapping("/get-ticket")  
-	public String getTicketDetails(
+	public Mono<String> getTicketDetails(
 	        @RequestParam(value = "ticketNumber", required = false) Integer ticketNumber, 
 	        Model model) {
-	    
-	    System.out.println("=== GET TICKET DEBUG ===");
-	    System.out.println("Received ticketNum parameter: " + ticketNumber);
-	    
-	    if (ticketNumber != null) {
-	        System.out.println("Calling service.getTicketByNum(" + ticketNumber + ")");
-	        Ticket ticket = service.getTicketByNum(ticketNumber);
-	        System.out.println("Service returned ticket: " + ticket);
-	        model.addAttribute("ticket", ticket);
-	        
-	        if (ticket == null) {
-	            System.out.println("⚠️ No ticket found for number: " + ticketNumber);
-	        } else {
-	            System.out.println("✅ Ticket found: " + ticket.getTicketNumber());
-	        }
-	    } else {
-	        System.out.println("ℹ️ No ticketNum parameter received");
+	    if (ticketNumber == null) {
+	        return Mono.just("ticket-form");
 	    }
-	    
-	    System.out.println("Returning view: ticket-form");
-	    return "ticket-form";
+	    return service.getTicketByNum(ticketNumber)
+	            .doOnNext(ticket -> model.addAttribute("ticket", ticket))     //no ticket -> page shows "not found"
+	            .thenReturn("ticket-form");
 	}
 	
 }
@@ -0,0 +1,140 @@
+package com.alchemist.hedge;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+/*
+ * Runs idempotent IRCTC reads with hedging and an adaptive timeout.
+ * If the first attempt hasn't answered after the recent p(hedge-percentile) latency, a second
+ * identical request is subscribed and whichever succeeds first wins, the other one is cancelled.
+ * When both attempts fail the call fails with the first attempt's error. A 4xx answer is final:
+ * it fails the call straight away and no hedge is sent, a second identical request would get it again.
+ * Failed attempts count towards the latency percentiles as well. The call times out after
+ * timeout-multiplier x the recent p(timeout-percentile), kept between min and max timeout.
+ * Until min-samples calls have been seen the configured defaults are used.
+ */
+@Component
+public class HedgedRequests {
+
+	private final boolean enabled;
+	private final double hedgePercentile;
+	private final double timeoutPercentile;
+	private final double timeoutMultiplier;
+	private final Duration defaultHedgeDelay;
+	private final Duration minTimeout;
+	private final Duration maxTimeout;
+	private final long minSamples;
+
+	private final LatencyHistogram latencies = new LatencyHistogram(Duration.ofMinutes(1), 6);
+	private final Counter hedgesSent;
+	private final Counter timeouts;
+
+	@Autowired
+	public HedgedRequests(MeterRegistry registry,
+			@Value("${irctc.hedge.enabled:true}") boolean enabled,
+			@Value("${irctc.hedge.hedge-percentile:0.95}") double hedgePercentile,
+			@Value("${irctc.hedge.timeout-percentile:0.999}") double timeoutPercentile,
+			@Value("${irctc.hedge.timeout-multiplier:3}") double timeoutMultiplier,
+			@Value("${irctc.hedge.default-delay-ms:50}") long defaultHedgeDelay,
+			@Value("${irctc.hedge.min-timeout-ms:100}") long minTimeout,
+			@Value("${irctc.client.response-timeout-ms:5000}") long maxTimeout,
+			@Value("${irctc.hedge.min-samples:100}") long minSamples) {
+		this.enabled = enabled;
+		this.hedgePercentile = hedgePercentile;
+		this.timeoutPercentile = timeoutPercentile;
+		this.timeoutMultiplier = timeoutMultiplier;
+		this.defaultHedgeDelay = Duration.ofMillis(defaultHedgeDelay);
+		this.minTimeout = Duration.ofMillis(minTimeout);
+		this.maxTimeout = Duration.ofMillis(maxTimeout);
+		this.minSamples = minSamples;
+		this.hedgesSent = registry.counter("irctc.hedge.requests");
+		this.timeouts = registry.counter("irctc.hedge.timeouts");
+	}
+
+	public <T> Mono<T> call(Supplier<Mono<T>> request) {
+		//wrapped in an Answer so an empty answer (no such ticket) or a client error still counts as the winning answer
+		Mono<Answer<T>> attempt = Mono.defer(() -> {
+			long start = System.nanoTime();
+			return request.get()
+					.map(Answer::of)
+					.defaultIfEmpty(Answer.empty())
+					.onErrorResume(HedgedRequests::isClientError, Answer::failed)
+					.doOnNext(v -> latencies.record(System.nanoTime() - start))
+					.doOnError(e -> latencies.record(System.nanoTime() - start));
+		});
+		if (!enabled) {
+			return attempt.flatMap(Answer::unwrap);
+		}
+		return Mono.defer(() -> {
+			Mono<Answer<T>> hedge = Mono.delay(hedgeDelay())
+					.then(attempt.doOnSubscribe(s -> hedgesSent.increment()));
+			return Mono.firstWithValue(attempt, hedge)
+					.onErrorMap(NoSuchElementException.class, HedgedRequests::primaryFailure)
+					.timeout(timeout())
+					.doOnError(TimeoutException.class, e -> timeouts.increment())
+					.flatMap(Answer::unwrap);
+		});
+	}
+
+	public Duration hedgeDelay() {
+		Duration p = latencies.count() < minSamples ? null : latencies.percentile(hedgePercentile);
+		return p == null ? defaultHedgeDelay : p;
+	}
+
+	public Duration timeout() {
+		Duration p = latencies.count() < minSamples ? null : latencies.percentile(timeoutPercentile);
+		if (p == null) {
+			return maxTimeout;
+		}
+		Duration t = Duration.ofNanos((long) (p.toNanos() * timeoutMultiplier));
+		return t.compareTo(minTimeout) < 0 ? minTimeout : t.compareTo(maxTimeout) > 0 ? maxTimeout : t;
+	}
+
+	//firstWithValue reports all sources failing as NoSuchElementException, with their errors in source order
+	private static Throwable primaryFailure(NoSuchElementException e) {
+		List<Throwable> failures = Exceptions.unwrapMultiple(e.getCause());
+		if (failures.isEmpty()) {
+			failures = Arrays.asList(e.getSuppressed());
+		}
+		return failures.isEmpty() || failures.get(0) == null ? e : failures.get(0);
+	}
+
+	private static boolean isClientError(Throwable e) {
+		return e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+	}
+
+	//what an attempt came back with, a value, nothing, or a client error
+	private record Answer<T>(T value, Throwable error) {
+
+		static <T> Answer<T> of(T value) {
+			return new Answer<>(value, null);
+		}
+
+		static <T> Answer<T> empty() {
+			return new Answer<>(null, null);
+		}
+
+		static <T> Mono<Answer<T>> failed(Throwable error) {
+			return Mono.just(new Answer<>(null, error));
+		}
+
+		Mono<T> unwrap() {
+			return error != null ? Mono.error(error) : Mono.justOrEmpty(value);
+		}
+	}
+
+}
@@ -3,8 +3,10 @@ package com.alchemist.service;
 import com.alchemist.request.Passenger;
 import com.alchemist.response.Ticket;
 
+import reactor.core.publisher.Mono;
+
 public interface MTMService {
-	public Ticket bookTicket(Passenger passenger);
+	public Mono<Ticket> bookTicket(Passenger passenger);
 	
-	public Ticket getTicketByNum(Integer tikcetNumber);
+	public Mono<Ticket> getTicketByNum(Integer tikcetNumber);
 }
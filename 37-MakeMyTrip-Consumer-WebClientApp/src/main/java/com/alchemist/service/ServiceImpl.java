@@ -1,43 +1,53 @@
 package com.alchemist.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+
+import com.alchemist.cache.TicketCache;
+import com.alchemist.hedge.HedgedRequests;
 import com.alchemist.request.Passenger;
 import com.alchemist.response.Ticket;
 
+import reactor.core.publisher.Mono;
+
 @Service
 public class ServiceImpl implements MTMService{
 
-	private String BOOK_TICKET_URL = "http://localhost:9090/ticket";       //ip inplace of localhost when deployed on AWS
-	private String GET_TICKET_URL = "http://localhost:9090/ticket/{ticketNumber}";
+	private String BOOK_TICKET_URL = "/ticket";       //host comes from irctc.base-url
+	private String GET_TICKET_URL = "/ticket/{ticketNumber}";
 
+	@Autowired
+	private WebClient webclient;     //shared instance, see WebClientConfig
+	@Autowired
+	private TicketCache ticketCache;
+	@Autowired
+	private HedgedRequests hedgedRequests;
 
 	@Override
-	public Ticket bookTicket(Passenger passenger) {
-		WebClient webclient = WebClient.create();
-		Ticket ticket = webclient.post()
+	public Mono<Ticket> bookTicket(Passenger passenger) {
+		return webclient.post()
 				     .uri(BOOK_TICKET_URL)
 				     //.body(BodyInserters.fromObject(passenger))    //deprecated
 				     .bodyValue(passenger)
 				     .retrieve()
 				     .bodyToMono(Ticket.class)
-				     .block();
-		System.out.println(ticket);
-		return ticket;
+				     //IRCTC reuses numbers after a restart without its journal, drop any stale copy
+				     .doOnNext(ticket -> ticketCache.invalidate(ticket.getTicketNumber()));
 	}
 
 	@Override
-	public Ticket getTicketByNum(Integer ticketNumber) {
-		//Get the instance of webclient(Implementaion class object)
-		WebClient webclient = WebClient.create(); 
-		//Send GET Request and map response to ticket obj
-		Ticket ticket = webclient.get()                         //represent get request
+	public Mono<Ticket> getTicketByNum(Integer ticketNumber) {
+		return ticketCache.get(ticketNumber, this::fetchTicket);
+	}
+
+	//GET is idempotent, so a slow call may be raced by a second one
+	private Mono<Ticket> fetchTicket(Integer ticketNumber) {
+		//Send GET Request and map response to ticket obj, nothing happens until the caller subscribes
+		return hedgedRequests.call(() -> webclient.get()        //represent get request
 				        .uri(GET_TICKET_URL,ticketNumber)      //If we want to send query param-->set it parameter here
 				        .retrieve()                            //retrieve the response
-				        .bodyToMono(Ticket.class)              //response map to Ticket class object and return object
-				        .block();                             //wait till get response from IRCTC app and store into variable
-		System.out.println(ticket);
-		return ticket;
+				        .bodyToMono(Ticket.class));            //response map to Ticket class object, no thread waits for it
 	}
 
 }
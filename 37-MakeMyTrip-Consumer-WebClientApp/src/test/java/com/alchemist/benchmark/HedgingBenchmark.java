@@ -0,0 +1,62 @@
+package com.alchemist.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.alchemist.Application;
+import com.alchemist.service.MTMService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * getTicketByNum against a stub that answers in 2 ms but stalls a small share of requests
+ * (default 1% for 1 s), once without and once with hedging, printing p50/p99/p99.9 and failures.
+ * The ticket cache is switched off so every call goes to the stub.
+ * Usage: HedgingBenchmark [requests] [concurrency] [stallProbability] [stallMs]
+ */
+public class HedgingBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+		int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+		double stallProbability = args.length > 2 ? Double.parseDouble(args[2]) : 0.01;
+		long stallMillis = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+
+		try (IrctcStub stub = new IrctcStub(2, stallProbability, stallMillis)) {
+			for (boolean hedge : new boolean[] { false, true }) {
+				try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(Application.class)
+						.web(WebApplicationType.NONE)
+						.properties("irctc.base-url=" + stub.baseUrl(), "irctc.cache.max-size=0",
+								"irctc.hedge.enabled=" + hedge)
+						.run()) {
+					MTMService service = ctx.getBean(MTMService.class);
+					long[] latencies = new long[requests];
+					AtomicInteger failures = new AtomicInteger();
+					Flux.range(0, requests)
+							.flatMap(i -> Mono.defer(() -> {
+								long begin = System.nanoTime();
+								return service.getTicketByNum(i + 1)
+										.doOnError(e -> failures.incrementAndGet())
+										.onErrorResume(e -> Mono.empty())
+										.doFinally(s -> latencies[i] = System.nanoTime() - begin);
+							}), concurrency)
+							.blockLast();
+					Arrays.sort(latencies);
+					System.out.printf("%-26s p50 %7.2f ms  p99 %7.2f ms  p99.9 %7.2f ms  failures %d%n",
+							hedge ? "hedged + adaptive timeout" : "single request", percentile(latencies, 0.50),
+							percentile(latencies, 0.99), percentile(latencies, 0.999), failures.get());
+				}
+			}
+		}
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+	}
+
+}
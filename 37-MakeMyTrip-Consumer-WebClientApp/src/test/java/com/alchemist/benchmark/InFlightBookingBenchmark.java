@@ -0,0 +1,80 @@
+package com.alchemist.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.alchemist.Application;
+import com.alchemist.request.Passenger;
+import com.alchemist.response.Ticket;
+import com.alchemist.service.MTMService;
+
+/*
+ * Books N tickets against a stub IRCTC that takes 200 ms per call, using the same small number of
+ * worker threads for both versions:
+ *  - blocking: WebClient.create() + block() per call, as ServiceImpl used to do
+ *  - reactive: the shared WebClient, workers only subscribe
+ * Prints the peak number of bookings in flight at the stub and the overall throughput.
+ * Usage: InFlightBookingBenchmark [bookings] [threads] [delayMs]
+ */
+public class InFlightBookingBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int bookings = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+		long delay = args.length > 2 ? Long.parseLong(args[2]) : 200;
+
+		Passenger passenger = new Passenger();
+		passenger.setName("Ashok");
+		passenger.setTrainNumber("12701");
+		passenger.setDoj("10-10-2026");
+
+		try (IrctcStub stub = new IrctcStub(delay)) {
+			String url = stub.baseUrl() + "/ticket";
+			run("blocking, client per call", stub, bookings, threads, done -> {
+				try {
+					WebClient.create().post().uri(url).bodyValue(passenger).retrieve()
+							.bodyToMono(Ticket.class).block();
+				} finally {
+					done.countDown();
+				}
+			});
+
+			try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(Application.class)
+					.web(WebApplicationType.NONE)
+					.properties("irctc.base-url=" + stub.baseUrl())
+					.run()) {
+				MTMService service = ctx.getBean(MTMService.class);
+				run("reactive, shared client", stub, bookings, threads,
+						done -> service.bookTicket(passenger).doFinally(s -> done.countDown()).subscribe());
+			}
+		}
+	}
+
+	interface Booking {
+		void book(CountDownLatch done);
+	}
+
+	private static void run(String mode, IrctcStub stub, int bookings, int threads, Booking booking)
+			throws InterruptedException {
+		ExecutorService workers = Executors.newFixedThreadPool(threads);
+		CountDownLatch done = new CountDownLatch(bookings);
+		stub.reset();
+		long start = System.nanoTime();
+		for (int i = 0; i < bookings; i++) {
+			workers.execute(() -> booking.book(done));
+		}
+		done.await(10, TimeUnit.MINUTES);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		workers.shutdown();
+		System.out.printf("%-28s %d worker threads  peak in flight %,5d  %,8.0f bookings/s%n",
+				mode, threads, stub.peakInFlight(), bookings / seconds);
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.alchemist.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Stand-in for the IRCTC producer (POST /ticket, GET /ticket/{n}) on a random port that answers
+ * after a fixed delay and records the peak number of requests it was serving at once.
+ * Optionally a fraction of requests stalls for longer, like the producer in a GC pause.
+ */
+public class IrctcStub implements AutoCloseable {
+
+	private static final String TICKET = "{\"ticketNumber\":%d,\"status\":\"CONFIRMED\",\"ticketCost\":1000.0,"
+			+ "\"name\":\"Ashok\",\"from\":\"Hyderabad\",\"to\":\"Pune\",\"doj\":\"10-10-2026\",\"trainNumber\":\"12701\"}";
+
+	private final HttpServer server;
+	private final long delayMillis;
+	private final double stallProbability;
+	private final long stallMillis;
+	private final AtomicInteger ticketNum = new AtomicInteger(1);
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger peakInFlight = new AtomicInteger();
+
+	public IrctcStub(long delayMillis) throws IOException {
+		this(delayMillis, 0, 0);
+	}
+
+	public IrctcStub(long delayMillis, double stallProbability, long stallMillis) throws IOException {
+		this.delayMillis = delayMillis;
+		this.stallProbability = stallProbability;
+		this.stallMillis = stallMillis;
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/ticket", this::handle);
+		server.start();
+	}
+
+	public String baseUrl() {
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	public int peakInFlight() {
+		return peakInFlight.get();
+	}
+
+	public void reset() {
+		peakInFlight.set(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+		try (InputStream in = exchange.getRequestBody()) {
+			in.readAllBytes();
+			boolean stall = stallProbability > 0 && ThreadLocalRandom.current().nextDouble() < stallProbability;
+			Thread.sleep(stall ? stallMillis : delayMillis);
+			boolean post = "POST".equals(exchange.getRequestMethod());
+			String path = exchange.getRequestURI().getPath();
+			int number = post ? ticketNum.getAndIncrement() : Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+			byte[] body = String.format(TICKET, number).getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(post ? 201 : 200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			inFlight.decrementAndGet();
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+}
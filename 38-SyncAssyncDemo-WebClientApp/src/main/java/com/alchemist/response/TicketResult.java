@@ -0,0 +1,19 @@
+package com.alchemist.response;
+
+//one entry per requested ticket number, in request order: the ticket, or why there is none
+public record TicketResult(Integer ticketNumber, Ticket ticket, String error) {
+
+	public static final String NOT_FOUND = "NOT_FOUND";
+
+	public static TicketResult found(Integer ticketNumber, Ticket ticket) {
+		return new TicketResult(ticketNumber, ticket, null);
+	}
+
+	public static TicketResult notFound(Integer ticketNumber) {
+		return new TicketResult(ticketNumber, null, NOT_FOUND);
+	}
+
+	public static TicketResult failed(Integer ticketNumber, Throwable error) {
+		return new TicketResult(ticketNumber, null, error.getMessage() != null ? error.getMessage() : error.toString());
+	}
+}
@@ -0,0 +1,87 @@
+package com.alchemist.rest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.alchemist.request.Passenger;
+import com.alchemist.response.Ticket;
+import com.alchemist.response.TicketResult;
+import com.alchemist.service.MTMService;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/async")
+public class AsyncTicketRestController {
+	@Autowired
+	private MTMService service;
+
+	@Value("${irctc.async.default-parallelism:16}")
+	private int defaultParallelism;
+
+	//fire and forget, answers 202 with the id to poll
+	@PostMapping("/ticket")
+	public ResponseEntity<Map<String, String>> bookTicket(@RequestBody Passenger passenger) {
+		String id = service.bookTickeASync(passenger);
+		return ResponseEntity.accepted().body(Map.of("correlationId", id));
+	}
+
+	@PostMapping("/ticket/{ticketNumber}")
+	public ResponseEntity<Map<String, String>> requestTicket(@PathVariable Integer ticketNumber) {
+		String id = service.getTicketByNumASync(ticketNumber);
+		return ResponseEntity.accepted().body(Map.of("correlationId", id));
+	}
+
+	//200 with the ticket when done, 202 while still running, 404 for unknown or already collected ids
+	@GetMapping("/result/{correlationId}")
+	public ResponseEntity<Ticket> getResult(@PathVariable String correlationId) {
+		CompletableFuture<Ticket> result = service.getResult(correlationId);
+		if (result == null) {
+			return ResponseEntity.notFound().build();
+		}
+		if (!result.isDone()) {
+			return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+		}
+		try {
+			return ResponseEntity.ok(result.join());
+		} catch (CompletionException e) {
+			return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+		}
+	}
+
+	//e.g. /async/tickets?numbers=1,2,3&parallelism=8, one entry per number in the same order
+	@GetMapping("/tickets")
+	public Mono<ResponseEntity<List<TicketResult>>> getTickets(@RequestParam List<Integer> numbers,
+			@RequestParam(required = false) Integer parallelism) {
+		int p = parallelism == null ? defaultParallelism : parallelism;
+		if (p <= 0) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+		return service.getTicketsByNum(numbers, p).collectList().map(ResponseEntity::ok);
+	}
+
+	//request window full or too many uncollected results: tell the client to come back instead of failing with 500
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<Map<String, String>> rejected(RejectedExecutionException e) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+				.body(Map.of("error", e.getMessage()));
+	}
+
+}
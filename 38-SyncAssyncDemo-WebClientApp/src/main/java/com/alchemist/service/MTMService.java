@@ -1,14 +1,36 @@
 package com.alchemist.service;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
 import com.alchemist.request.Passenger;
 import com.alchemist.response.Ticket;
+import com.alchemist.response.TicketResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public interface MTMService {
 	public Ticket bookTicketSync(Passenger passenger);
 
 	public Ticket getTicketByNumSync(Integer tikcetNumber);
 
-	public void bookTickeASync(Passenger passenger);
+	//async calls return a correlation id, the result is collected with getResult(id) or handed to the callback;
+	//with a callback nothing is kept for getResult, uncollected results expire after irctc.async.result-ttl-ms
+	public String bookTickeASync(Passenger passenger);
+
+	public String bookTickeASync(Passenger passenger, BiConsumer<Ticket, Throwable> callback);
+
+	public String getTicketByNumASync(Integer tikcetNumber);
+
+	public String getTicketByNumASync(Integer tikcetNumber, BiConsumer<Ticket, Throwable> callback);
+
+	public CompletableFuture<Ticket> getResult(String correlationId);
+
+	public Mono<Ticket> getTicketByNumReactive(Integer tikcetNumber);
 
-	public void getTicketByNumASync(Integer tikcetNumber);
+	//fetches all tickets with at most `parallelism` calls in flight, one result per number in request order,
+	//a missing ticket or a failed call only affects its own entry
+	public Flux<TicketResult> getTicketsByNum(List<Integer> ticketNumbers, int parallelism);
 }
@@ -1,57 +1,168 @@
 package com.alchemist.service;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import com.alchemist.controller.MakeMyTripController;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
 import com.alchemist.request.Passenger;
 import com.alchemist.response.Ticket;
+import com.alchemist.response.TicketResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
-import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Service
 public class ServiceImpl implements MTMService {
 
-	private String BOOK_TICKET_URL = "http://localhost:9090/ticket"; // ip inplace of localhost when deployed on AWS
-	private String GET_TICKET_URL = "http://localhost:9090/ticket/{ticketNumber}";
+	private String BOOK_TICKET_URL = "/ticket"; // host comes from irctc.base-url
+	private String GET_TICKET_URL = "/ticket/{ticketNumber}";
+
+	private final WebClient webclient; // shared instance, see WebClientConfig
+	private final Semaphore window; // async calls in flight
+	private final long windowWaitMillis;
+	private final int maxResults;
+	private final AtomicLong correlationIds = new AtomicLong();
+	private final Cache<String, CompletableFuture<Ticket>> results; // only for callers that poll, see submit
+
+	@Autowired
+	public ServiceImpl(WebClient webclient,
+			@Value("${irctc.async.max-in-flight:256}") int maxInFlight,
+			@Value("${irctc.async.window-wait-ms:1000}") long windowWaitMillis,
+			@Value("${irctc.async.max-results:100000}") int maxResults,
+			@Value("${irctc.async.result-ttl-ms:300000}") long resultTtlMillis) {
+		this.webclient = webclient;
+		this.window = new Semaphore(maxInFlight);
+		this.windowWaitMillis = windowWaitMillis;
+		this.maxResults = maxResults;
+		// results nobody polls for are dropped after the ttl, so they can't fill up max-results for good
+		this.results = Caffeine.newBuilder()
+				.expireAfterWrite(Duration.ofMillis(resultTtlMillis))
+				.build();
+	}
 
 	@Override
 	public Ticket bookTicketSync(Passenger passenger) {
-		WebClient webclient = WebClient.create();
-		Ticket ticket = webclient.post().uri(BOOK_TICKET_URL)
-				.header("Accept","application/json")
-				// .body(BodyInserters.fromObject(passenger)) //deprecated
-				.bodyValue(passenger).retrieve().bodyToMono(Ticket.class).block();
-		System.out.println(ticket);
-		return ticket;
+		return book(passenger).block();
 	}
 
 	@Override
 	public Ticket getTicketByNumSync(Integer ticketNumber) {
-		// Get the instance of webclient(Implementaion class object)
-		WebClient webclient = WebClient.create();
-		// Send GET Request and map response to ticket obj
-		Ticket ticket = webclient.get() // represent get request
+		return getTicketByNumReactive(ticketNumber).block(); // wait till get response from IRCTC app
+	}
+
+	@Override
+	public String bookTickeASync(Passenger passenger) {
+		return bookTickeASync(passenger, null);
+	}
+
+	@Override
+	public String bookTickeASync(Passenger passenger, BiConsumer<Ticket, Throwable> callback) {
+		return submit(book(passenger), callback);
+	}
+
+	@Override
+	public String getTicketByNumASync(Integer ticketNumber) {
+		return getTicketByNumASync(ticketNumber, null);
+	}
+
+	@Override
+	public String getTicketByNumASync(Integer ticketNumber, BiConsumer<Ticket, Throwable> callback) {
+		return submit(getTicketByNumReactive(ticketNumber), callback);
+	}
+
+	// finished results are handed out once, unfinished ones stay until they complete
+	@Override
+	public CompletableFuture<Ticket> getResult(String correlationId) {
+		CompletableFuture<Ticket> result = results.getIfPresent(correlationId);
+		if (result != null && result.isDone()) {
+			results.invalidate(correlationId);
+		}
+		return result;
+	}
+
+	@Override
+	public Mono<Ticket> getTicketByNumReactive(Integer ticketNumber) {
+		return webclient.get() // represent get request
 				.uri(GET_TICKET_URL, ticketNumber) // If we want to send query param-->set it parameter here
 				.retrieve() // retrieve the response
-				.bodyToMono(Ticket.class) // response map to Ticket class object and return object
-				.block(); // wait till get response from IRCTC app and store into variable
-		System.out.println(ticket);
-		return ticket;
+				.bodyToMono(Ticket.class); // response map to Ticket class object
 	}
 
 	@Override
-	public void bookTickeASync(Passenger passenger) {
-		// TODO Auto-generated method stub
-		WebClient webclient = WebClient.create();
-		webclient.post().uri(BOOK_TICKET_URL)
+	public Flux<TicketResult> getTicketsByNum(List<Integer> ticketNumbers, int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("parallelism must be positive but was " + parallelism);
+		}
+		return Flux.fromIterable(ticketNumbers)
+				.flatMapSequential(this::lookup, parallelism); // at most parallelism requests open
+	}
+
+	// never empty and never an error, so every number keeps its position in getTicketsByNum
+	private Mono<TicketResult> lookup(Integer ticketNumber) {
+		return getTicketByNumReactive(ticketNumber)
+				.map(ticket -> TicketResult.found(ticketNumber, ticket))
+				.defaultIfEmpty(TicketResult.notFound(ticketNumber))
+				.onErrorResume(WebClientResponseException.NotFound.class,
+						e -> Mono.just(TicketResult.notFound(ticketNumber)))
+				.onErrorResume(e -> Mono.just(TicketResult.failed(ticketNumber, e)));
+	}
+
+	private Mono<Ticket> book(Passenger passenger) {
+		return webclient.post().uri(BOOK_TICKET_URL)
+				.header("Accept", "application/json")
 				// .body(BodyInserters.fromObject(passenger)) //deprecated
-				.bodyValue(passenger)
-				.retrieve().bodyToMono(Ticket.class).subscribe();
+				.bodyValue(passenger).retrieve().bodyToMono(Ticket.class);
 	}
 
-	@Override
-	public void getTicketByNumASync(Integer tikcetNumber) {
-		WebClient webclient = WebClient.create();
+	/*
+	 * Backpressure: the caller waits up to irctc.async.window-wait-ms for a free slot in the
+	 * in-flight window and is rejected after that, so a burst can't open unlimited requests.
+	 * The future is only kept for getResult when there is no callback to hand the ticket to.
+	 */
+	private String submit(Mono<Ticket> call, BiConsumer<Ticket, Throwable> callback) {
+		if (callback == null && results.estimatedSize() >= maxResults) {
+			throw new RejectedExecutionException("Too many uncollected async results");
+		}
+		try {
+			if (!window.tryAcquire(windowWaitMillis, TimeUnit.MILLISECONDS)) {
+				throw new RejectedExecutionException("Async request window is full");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for the request window", e);
+		}
+		String correlationId = Long.toString(correlationIds.incrementAndGet());
+		CompletableFuture<Ticket> result = new CompletableFuture<>();
+		if (callback == null) {
+			results.put(correlationId, result);
+		}
+		call.doFinally(signal -> window.release())
+				.subscribe(
+						ticket -> complete(result, ticket, null, callback),
+						error -> complete(result, null, error, callback),
+						() -> complete(result, null, null, callback)); // no-op if a ticket already arrived
+		return correlationId;
+	}
+
+	private static void complete(CompletableFuture<Ticket> result, Ticket ticket, Throwable error,
+			BiConsumer<Ticket, Throwable> callback) {
+		boolean first = error == null ? result.complete(ticket) : result.completeExceptionally(error);
+		if (first && callback != null) {
+			callback.accept(ticket, error);
+		}
 	}
 
 }
@@ -0,0 +1,115 @@
+package com.alchemist.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.alchemist.Application;
+import com.alchemist.response.Ticket;
+import com.alchemist.service.MTMService;
+
+/*
+ * Fetches N tickets from a stub IRCTC (fixed delay per call) four ways through MTMService and prints
+ * throughput and latency percentiles:
+ *  - sequential: one getTicketByNumSync after the other
+ *  - sync-parallel: a pool of `parallelism` threads, each blocking on getTicketByNumSync
+ *  - getTicketsByNum: the batch fan-out with `parallelism` requests in flight; it only hands back
+ *    results, so latency there is from the start of the batch until each result arrives
+ *  - async window: getTicketByNumASync from one thread with irctc.async.max-in-flight=`parallelism`,
+ *    each result collected through getResult(correlationId); latency includes waiting for a window slot
+ * Usage: FanOutBenchmark [tickets] [parallelism] [delayMs]
+ */
+public class FanOutBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int tickets = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+		int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+		long delay = args.length > 2 ? Long.parseLong(args[2]) : 20;
+		List<Integer> numbers = IntStream.rangeClosed(1, tickets).boxed().collect(Collectors.toList());
+
+		try (IrctcStub stub = new IrctcStub(delay);
+				ConfigurableApplicationContext ctx = new SpringApplicationBuilder(Application.class)
+						.web(WebApplicationType.NONE)
+						.properties("irctc.base-url=" + stub.baseUrl(),
+								"irctc.client.max-connections=" + Math.max(parallelism, 500),
+								"irctc.async.max-in-flight=" + parallelism,
+								"irctc.async.window-wait-ms=60000")
+						.run()) {
+			MTMService service = ctx.getBean(MTMService.class);
+			long[] latencies = new long[tickets];
+
+			long start = System.nanoTime();
+			for (int i = 0; i < tickets; i++) {
+				long begin = System.nanoTime();
+				service.getTicketByNumSync(numbers.get(i));
+				latencies[i] = System.nanoTime() - begin;
+			}
+			report("sequential", start, latencies);
+
+			ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+			start = System.nanoTime();
+			Future<?>[] futures = new Future[tickets];
+			for (int i = 0; i < tickets; i++) {
+				int index = i;
+				futures[i] = pool.submit(() -> {
+					long begin = System.nanoTime();
+					service.getTicketByNumSync(numbers.get(index));
+					latencies[index] = System.nanoTime() - begin;
+				});
+			}
+			for (Future<?> f : futures) {
+				f.get();
+			}
+			report("sync-parallel (" + parallelism + " threads)", start, latencies);
+			pool.shutdown();
+
+			start = System.nanoTime();
+			long batchStart = start;
+			service.getTicketsByNum(numbers, parallelism)
+					.index()
+					.doOnNext(result -> latencies[result.getT1().intValue()] = System.nanoTime() - batchStart)
+					.blockLast();
+			report("getTicketsByNum (" + parallelism + " in flight)", start, latencies);
+
+			start = System.nanoTime();
+			List<String> ids = new ArrayList<>(tickets);
+			List<CompletableFuture<Ticket>> results = new ArrayList<>(tickets);
+			for (int i = 0; i < tickets; i++) {
+				int index = i;
+				long begin = System.nanoTime();
+				String id = service.getTicketByNumASync(numbers.get(i));
+				ids.add(id);
+				//a pending result stays registered, looking at it doesn't collect it
+				results.add(service.getResult(id).whenComplete((ticket, error) -> latencies[index] = System.nanoTime() - begin));
+			}
+			CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+			report("async window (" + parallelism + " in flight)", start, latencies);
+			for (String id : ids) {
+				service.getResult(id);     //collect the rest, finished results are only dropped when collected or expired
+			}
+		}
+	}
+
+	private static void report(String mode, long start, long[] latencies) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		long[] sorted = latencies.clone();
+		Arrays.sort(sorted);
+		System.out.printf("%-36s %,8.0f tickets/s  p50 %7.2f ms  p99 %7.2f ms  p99.9 %7.2f ms%n", mode,
+				sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+	}
+
+}
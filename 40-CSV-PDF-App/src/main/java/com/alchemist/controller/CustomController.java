@@ -1,26 +1,40 @@
 package com.alchemist.controller;
 
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.alchemist.report.ReportSection;
+import com.alchemist.report.SampleReportRowSource;
 import com.alchemist.service.CsvService;
 import com.alchemist.service.PdfService;
 
-import java.io.ByteArrayInputStream;
+import java.util.List;
 
 @RestController
 public class CustomController {
 
     private final CsvService csvService;
     private final PdfService pdfService;
+    private final boolean csvGzip;
+    private final long pdfSectionRows;
+    private final long maxRows;
 
-    public CustomController(CsvService csvService, PdfService pdfService) {
+    public CustomController(CsvService csvService, PdfService pdfService,
+                            @Value("${report.csv.gzip:true}") boolean csvGzip,
+                            @Value("${report.pdf.section-rows:10000}") long pdfSectionRows,
+                            @Value("${report.max-rows:10000000}") long maxRows) {
         this.csvService = csvService;
         this.pdfService = pdfService;
+        this.csvGzip = csvGzip;
+        this.pdfSectionRows = SampleReportRowSource.checkSectionRows(pdfSectionRows);
+        this.maxRows = maxRows;
     }
     
     @GetMapping("/")
@@ -28,29 +42,61 @@ public class CustomController {
     	return "Welcom to Spring boot Prod-ready features: Actuators";
     }
 
-    // CSV download
+    // CSV download, streamed while the rows are read; gzip when enabled and the client accepts it
     @GetMapping(value = "/report", produces = "text/csv")
-    public ResponseEntity<InputStreamResource> downloadCsv() {
-        ByteArrayInputStream bis = csvService.generateCsv();
+    public ResponseEntity<StreamingResponseBody> downloadCsv(
+            @RequestParam(value = "rows", defaultValue = "2") long rows,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (rows < 0 || rows > maxRows) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean gzip = csvGzip && acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> csvService.writeCsv(new SampleReportRowSource(rows), out, gzip);
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=report.csv");
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
 
         return ResponseEntity.ok()
                 .headers(headers)
                 .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
-                .body(new InputStreamResource(bis));
+                .body(body);
     }
 
-    // PDF download
+    // PDF download, streamed page by page; parallel=true renders the sections concurrently
     @GetMapping(value = "/pdf", produces = "application/pdf")
-    public ResponseEntity<InputStreamResource> downloadPdf() {
-        ByteArrayInputStream bis = pdfService.generatePdf();
+    public ResponseEntity<StreamingResponseBody> downloadPdf(
+            @RequestParam(value = "rows", defaultValue = "2") long rows,
+            @RequestParam(value = "parallel", defaultValue = "false") boolean parallel) {
+        if (rows < 0 || rows > maxRows) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<ReportSection> sections = SampleReportRowSource.sections(rows, pdfSectionRows);
+        StreamingResponseBody body = parallel
+                ? out -> pdfService.writeReportParallel(sections, out)
+                : out -> pdfService.writeReport(sections, out);
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=document.pdf");
 
         return ResponseEntity.ok()
                 .headers(headers)
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(new InputStreamResource(bis));
+                .body(body);
+    }
+
+    // gzip listed without q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,88 @@
+package com.alchemist.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.alchemist.report.ReportArtifact;
+import com.alchemist.report.ReportJob;
+import com.alchemist.report.ReportJobService;
+import com.alchemist.report.ReportKey;
+
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
+/*
+ * Async downloads: POST /reports queues a job and answers 202 with its location, GET /reports/{id}
+ * reports progress and redirects (303) to /reports/{id}/file once the report is ready.
+ */
+@RestController
+public class ReportJobController {
+
+    private final ReportJobService jobService;
+    private final long maxRows;
+
+    public ReportJobController(ReportJobService jobService, @Value("${report.max-rows:10000000}") long maxRows) {
+        this.jobService = jobService;
+        this.maxRows = maxRows;
+    }
+
+    @PostMapping("/reports")
+    public ResponseEntity<ReportJob> submit(@RequestParam(value = "type", defaultValue = "csv") String type,
+                                            @RequestParam(value = "rows", defaultValue = "2") long rows) {
+        if (!"csv".equals(type) && !"pdf".equals(type) || rows < 0 || rows > maxRows) {
+            return ResponseEntity.badRequest().build();
+        }
+        ReportJob job;
+        try {
+            job = jobService.submit(new ReportKey(type, rows));
+        } catch (RejectedExecutionException e) {
+            // queue full: tell the client to come back instead of tying up a worker
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.accepted().location(URI.create("/reports/" + job.getId())).body(job);
+    }
+
+    @GetMapping("/reports/{id}")
+    public ResponseEntity<ReportJob> status(@PathVariable("id") String id) {
+        ReportJob job = jobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getState() == ReportJob.State.DONE) {
+            return ResponseEntity.status(HttpStatus.SEE_OTHER).location(URI.create("/reports/" + id + "/file")).body(job);
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/reports/{id}/file")
+    public ResponseEntity<Resource> download(@PathVariable("id") String id) {
+        ReportJob job = jobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getState() != ReportJob.State.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        ReportArtifact artifact = jobService.getArtifact(job);
+        if (artifact == null) {
+            return ResponseEntity.status(HttpStatus.GONE).build();     // evicted, submit again
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Content-Disposition", "attachment; filename=" + job.getKey().fileName());
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.parseMediaType(job.getKey().contentType()))
+                .contentLength(artifact.size())
+                .body(artifact.resource());
+    }
+}
@@ -0,0 +1,21 @@
+package com.alchemist.report;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+
+/*
+ * A finished report, held in memory (bytes) when small and on disk (file) otherwise.
+ */
+public record ReportArtifact(byte[] bytes, Path file, long size) {
+
+    public boolean inMemory() {
+        return bytes != null;
+    }
+
+    public Resource resource() {
+        return inMemory() ? new ByteArrayResource(bytes) : new FileSystemResource(file);
+    }
+}
@@ -0,0 +1,105 @@
+package com.alchemist.report;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Finished reports by key, least recently used first out. Small artifacts live in memory and large
+ * ones on disk, each tier with its own byte budget; evicted files are deleted.
+ * Publishes report.cache.gets{result=hit|miss}, report.cache.hit.ratio and report.cache.size{tier}.
+ */
+@Component
+public class ReportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCache.class);
+
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Map<ReportKey, ReportArtifact> artifacts = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ReportCache(MeterRegistry registry,
+                       @Value("${report.cache.max-memory-bytes:67108864}") long maxMemoryBytes,
+                       @Value("${report.cache.max-disk-bytes:2147483648}") long maxDiskBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        this.hits = Counter.builder("report.cache.gets").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("report.cache.gets").tag("result", "miss").register(registry);
+        Gauge.builder("report.cache.hit.ratio", this, ReportCache::hitRatio).register(registry);
+        Gauge.builder("report.cache.size", this, c -> c.size(true)).tag("tier", "memory").baseUnit("bytes").register(registry);
+        Gauge.builder("report.cache.size", this, c -> c.size(false)).tag("tier", "disk").baseUnit("bytes").register(registry);
+    }
+
+    public synchronized ReportArtifact get(ReportKey key) {
+        ReportArtifact artifact = artifacts.get(key);
+        (artifact == null ? misses : hits).increment();
+        return artifact;
+    }
+
+    // lookup for serving a finished job's file, not counted as a hit or miss
+    public synchronized ReportArtifact peek(ReportKey key) {
+        return artifacts.get(key);
+    }
+
+    public synchronized void put(ReportKey key, ReportArtifact artifact) {
+        remove(artifacts.put(key, artifact));
+        if (artifact.inMemory()) {
+            memoryBytes += artifact.size();
+        } else {
+            diskBytes += artifact.size();
+        }
+        // evict the least recently used artifacts of whichever tier is over budget
+        Iterator<ReportArtifact> eldest = artifacts.values().iterator();
+        while ((memoryBytes > maxMemoryBytes || diskBytes > maxDiskBytes) && eldest.hasNext()) {
+            ReportArtifact candidate = eldest.next();
+            boolean over = candidate.inMemory() ? memoryBytes > maxMemoryBytes : diskBytes > maxDiskBytes;
+            if (over && candidate != artifact) {     // never the report just finished, even if it alone is over
+                eldest.remove();
+                remove(candidate);
+            }
+        }
+    }
+
+    public synchronized long size(boolean memory) {
+        return memory ? memoryBytes : diskBytes;
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    // called with the lock held
+    private void remove(ReportArtifact artifact) {
+        if (artifact == null) {
+            return;
+        }
+        if (artifact.inMemory()) {
+            memoryBytes -= artifact.size();
+            return;
+        }
+        diskBytes -= artifact.size();
+        try {
+            Files.deleteIfExists(artifact.file());     // a download already streaming it keeps its open handle
+        } catch (IOException e) {
+            // the entry is gone either way, a put must not fail because an old file couldn't be deleted
+            logger.warn("Could not delete cached report {}", artifact.file(), e);
+        }
+    }
+}
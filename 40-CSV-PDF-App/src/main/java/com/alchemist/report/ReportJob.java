@@ -0,0 +1,69 @@
+package com.alchemist.report;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+
+/*
+ * One submitted report generation, polled by id.
+ */
+public class ReportJob {
+
+    public enum State { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final ReportKey key;
+    private final Instant submitted = Instant.now();
+    private volatile State state = State.QUEUED;
+    private volatile String error;
+    private volatile Instant finished;
+
+    public ReportJob(String id, ReportKey key) {
+        this.id = id;
+        this.key = key;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ReportKey getKey() {
+        return key;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getSubmitted() {
+        return submitted;
+    }
+
+    public Instant getFinished() {
+        return finished;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return state == State.DONE || state == State.FAILED;
+    }
+
+    void running() {
+        state = State.RUNNING;
+    }
+
+    void done() {
+        finished = Instant.now();
+        state = State.DONE;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finished = Instant.now();
+        state = State.FAILED;
+    }
+}
@@ -0,0 +1,163 @@
+package com.alchemist.report;
+
+import com.alchemist.service.CsvService;
+import com.alchemist.service.PdfService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Generates reports off the request threads. Jobs run on a fixed pool with a bounded queue; when the
+ * queue is full submit() throws RejectedExecutionException instead of piling up work. A report that is
+ * already cached completes at once, and a second request for a report being generated joins that job.
+ * Publishes report.jobs.queued, report.jobs.running and report.generation{type,outcome}.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final CsvService csvService;
+    private final PdfService pdfService;
+    private final ReportCache cache;
+    private final MeterRegistry registry;
+    private final ThreadPoolExecutor executor;
+    private final Path directory;
+    private final long memoryThreshold;
+    private final long pdfSectionRows;
+    private final Duration retention;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<ReportKey, ReportJob> inProgress = new ConcurrentHashMap<>();
+
+    public ReportJobService(CsvService csvService, PdfService pdfService, ReportCache cache, MeterRegistry registry,
+                            @Value("${report.jobs.threads:4}") int threads,
+                            @Value("${report.jobs.queue-capacity:100}") int queueCapacity,
+                            @Value("${report.jobs.retention:PT1H}") Duration retention,
+                            @Value("${report.cache.directory:${java.io.tmpdir}/reports}") Path directory,
+                            @Value("${report.cache.memory-threshold:1048576}") long memoryThreshold,
+                            @Value("${report.pdf.section-rows:10000}") long pdfSectionRows) throws IOException {
+        this.csvService = csvService;
+        this.pdfService = pdfService;
+        this.cache = cache;
+        this.registry = registry;
+        this.retention = retention;
+        this.directory = Files.createDirectories(directory);
+        this.memoryThreshold = memoryThreshold;
+        this.pdfSectionRows = SampleReportRowSource.checkSectionRows(pdfSectionRows);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> new Thread(r, "report-job-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("report.jobs.queued", executor, e -> e.getQueue().size()).register(registry);
+        Gauge.builder("report.jobs.running", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+    }
+
+    public ReportJob submit(ReportKey key) throws RejectedExecutionException {
+        if (cache.get(key) != null) {
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), key);
+            job.done();
+            jobs.put(job.getId(), job);
+            return job;
+        }
+        // the map's per-key lock makes a finishing job's remove() wait until it has been inserted
+        return inProgress.computeIfAbsent(key, k -> {
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), k);
+            executor.execute(() -> generate(job));
+            jobs.put(job.getId(), job);
+            return job;
+        });
+    }
+
+    public ReportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    // null when the job is not done or its report has since been evicted
+    public ReportArtifact getArtifact(ReportJob job) {
+        return job.getState() == ReportJob.State.DONE ? cache.peek(job.getKey()) : null;
+    }
+
+    private void generate(ReportJob job) {
+        ReportKey key = job.getKey();
+        job.running();
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        Path file = null;
+        try {
+            file = Files.createTempFile(directory, "report-", "pdf".equals(key.type()) ? ".pdf" : ".csv");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+                if ("pdf".equals(key.type())) {
+                    pdfService.writeReport(SampleReportRowSource.sections(key.rows(), pdfSectionRows), out);
+                } else {
+                    csvService.writeCsv(new SampleReportRowSource(key.rows()), out, false);
+                }
+            }
+            long size = Files.size(file);
+            if (size <= memoryThreshold) {
+                cache.put(key, new ReportArtifact(Files.readAllBytes(file), null, size));
+                Files.delete(file);
+            } else {
+                cache.put(key, new ReportArtifact(null, file, size));
+            }
+            job.done();
+        } catch (Exception e) {
+            outcome = "failure";
+            logger.error("Report job {} for {} failed", job.getId(), key, e);
+            job.failed(e.getMessage());
+            deleteQuietly(file);
+        } finally {
+            inProgress.remove(key, job);
+            sample.stop(registry.timer("report.generation", "type", key.type(), "outcome", outcome));
+        }
+    }
+
+    // forget finished jobs after report.jobs.retention; their reports stay cached
+    @Scheduled(fixedDelayString = "${report.jobs.cleanup-interval:60000}")
+    public void removeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinished().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.alchemist.report;
+
+/*
+ * What a generated report depends on; equal keys produce the same file, so it keys the artifact cache.
+ */
+public record ReportKey(String type, long rows) {
+
+    public String contentType() {
+        return "pdf".equals(type) ? "application/pdf" : "text/csv; charset=UTF-8";
+    }
+
+    public String fileName() {
+        return "pdf".equals(type) ? "document.pdf" : "report.csv";
+    }
+}
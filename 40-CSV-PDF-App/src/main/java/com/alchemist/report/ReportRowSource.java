@@ -0,0 +1,14 @@
+package com.alchemist.report;
+
+import java.util.List;
+
+/*
+ * Rows of a tabular report, pulled a page at a time so a report never has to be held in memory.
+ */
+public interface ReportRowSource {
+
+    String[] headers();
+
+    // up to limit rows following the first `cursor` rows; an empty page means the report is done
+    List<String[]> nextPage(long cursor, int limit);
+}
@@ -0,0 +1,7 @@
+package com.alchemist.report;
+
+/*
+ * One independently renderable part of a report: a heading followed by a table of rows.
+ */
+public record ReportSection(String title, ReportRowSource rows) {
+}
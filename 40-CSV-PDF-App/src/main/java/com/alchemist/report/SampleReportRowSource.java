@@ -0,0 +1,65 @@
+package com.alchemist.report;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Generated Name/Email/Age rows standing in for a real (paged or cursor based) query.
+ */
+public class SampleReportRowSource implements ReportRowSource {
+
+    private static final String[] HEADERS = {"Name", "Email", "Age"};
+
+    private final long firstRow;
+    private final long rows;
+
+    public SampleReportRowSource(long rows) {
+        this(0, rows);
+    }
+
+    // rows [firstRow, firstRow + rows), e.g. one section of a larger report
+    public SampleReportRowSource(long firstRow, long rows) {
+        this.firstRow = firstRow;
+        this.rows = rows;
+    }
+
+    // report.pdf.section-rows, checked when the beans using it are created
+    public static long checkSectionRows(long sectionRows) {
+        if (sectionRows <= 0) {
+            throw new IllegalArgumentException("report.pdf.section-rows must be positive but was " + sectionRows);
+        }
+        return sectionRows;
+    }
+
+    // the sample report cut into sections of sectionRows rows, at least one
+    public static List<ReportSection> sections(long rows, long sectionRows) {
+        checkSectionRows(sectionRows);
+        if (rows <= 0) {
+            return List.of(new ReportSection("No rows", new SampleReportRowSource(0, 0)));
+        }
+        List<ReportSection> sections = new ArrayList<>();
+        long first = 0;
+        do {
+            long count = Math.min(sectionRows, rows - first);
+            sections.add(new ReportSection("Rows " + (first + 1) + " - " + (first + count),
+                    new SampleReportRowSource(first, count)));
+            first += count;
+        } while (first < rows);
+        return sections;
+    }
+
+    @Override
+    public String[] headers() {
+        return HEADERS.clone();
+    }
+
+    @Override
+    public List<String[]> nextPage(long cursor, int limit) {
+        int size = (int) Math.max(0, Math.min(limit, rows - cursor));
+        List<String[]> page = new ArrayList<>(size);
+        for (long i = firstRow + cursor; i < firstRow + cursor + size; i++) {
+            page.add(new String[] {"User " + i, "user" + i + "@email.com", String.valueOf(20 + i % 50)});
+        }
+        return page;
+    }
+}
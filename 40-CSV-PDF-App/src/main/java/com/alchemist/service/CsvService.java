@@ -1,34 +1,87 @@
 package com.alchemist.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import com.alchemist.report.ReportRowSource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class CsvService {
 
-    public ByteArrayInputStream generateCsv() {
-        String[] headers = {"Name", "Email", "Age"};
-        String[][] data = {{"John", "john@email.com", "30"},
-                           {"Alice", "alice@email.com", "25"}};
-
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-             OutputStreamWriter writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+    private final int bufferSize;
+    private final int pageSize;
 
-            // Write headers
-            writer.append(String.join(",", headers)).append("\n");
+    public CsvService(@Value("${report.csv.buffer-size:65536}") int bufferSize,
+                      @Value("${report.csv.page-size:1000}") int pageSize) {
+        this.bufferSize = bufferSize;
+        this.pageSize = pageSize;
+    }
 
-            // Write data rows
-            for (String[] row : data) {
-                writer.append(String.join(",", row)).append("\n");
+    /*
+     * Writes the report as RFC 4180 CSV straight to out, one page of rows at a time, and flushes
+     * after every page so the client starts receiving data at once. Memory use is one page plus
+     * the buffers, whatever the number of rows.
+     */
+    public void writeCsv(ReportRowSource source, OutputStream out, boolean gzip) throws IOException {
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, bufferSize, true) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipOut : out, StandardCharsets.UTF_8), bufferSize);
+        writeRow(writer, source.headers());
+        long cursor = 0;
+        List<String[]> page;
+        while (!(page = source.nextPage(cursor, pageSize)).isEmpty()) {
+            for (String[] row : page) {
+                writeRow(writer, row);
             }
+            cursor += page.size();
             writer.flush();
-            return new ByteArrayInputStream(out.toByteArray());
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating CSV", e);
         }
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();     // the gzip trailer; the response stream itself is left to the container
+        }
+    }
+
+    private static void writeRow(Writer writer, String[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(writer, row[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // quoted only when needed: a comma, quote, CR or LF in the value; quotes are doubled
+    static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
     }
 }
@@ -1,29 +1,155 @@
 package com.alchemist.service;
 
-import com.itextpdf.kernel.pdf.PdfWriter;
+import com.alchemist.report.ReportRowSource;
+import com.alchemist.report.ReportSection;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/*
+ * Table reports of any size. Rows are pulled page by page into iText large tables that are flushed
+ * as they fill, so finished PDF pages go to the client while later rows are still being read.
+ * The parallel mode renders each section to its own temporary PDF on a fork-join pool and merges
+ * them, in order, into the response, keeping only a few sections more than the pool has workers in flight.
+ */
 @Service
 public class PdfService {
 
-    public ByteArrayInputStream generatePdf() {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(out);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc);
+    private static final int SECTIONS_AHEAD = 2;
+
+    private final int pageSize;
+    private final ForkJoinPool sectionPool;
+
+    public PdfService(@Value("${report.pdf.page-size:500}") int pageSize,
+                      @Value("${report.pdf.parallelism:0}") int parallelism) {
+        this.pageSize = pageSize;
+        this.sectionPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // sections one after another in a single document written straight to out
+    public void writeReport(List<ReportSection> sections, OutputStream out) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);     // the response stream belongs to the container
+        try (Document document = new Document(new PdfDocument(writer))) {
+            for (ReportSection section : sections) {
+                renderSection(document, section);
+            }
+        }
+    }
+
+    // each section rendered concurrently to a temporary file, then merged into out in section order
+    public void writeReportParallel(List<ReportSection> sections, OutputStream out) throws IOException {
+        AtomicBoolean abandoned = new AtomicBoolean();
+        // one section per worker plus a few finished ones in flight, the next is submitted as each is merged
+        int window = sectionPool.getParallelism() + SECTIONS_AHEAD;
+        Iterator<ReportSection> pending = sections.iterator();
+        Deque<ForkJoinTask<Path>> parts = new ArrayDeque<>(window);
+        while (parts.size() < window && pending.hasNext()) {
+            parts.add(submit(pending.next(), abandoned));
+        }
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        PdfDocument merged = new PdfDocument(writer);
+        PdfMerger merger = new PdfMerger(merged, false, false);
+        try {
+            while (!parts.isEmpty()) {
+                Path file = parts.peekFirst().get();     // later sections keep rendering while this one is merged
+                try (PdfDocument source = new PdfDocument(new PdfReader(file.toFile()))) {
+                    merger.merge(source, 1, source.getNumberOfPages());
+                    merged.flushCopiedObjects(source);     // write the copied pages out now
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+                parts.removeFirst();
+                if (pending.hasNext()) {
+                    parts.add(submit(pending.next(), abandoned));
+                }
+            }
+            merged.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while merging report sections", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Report section failed", e.getCause());
+        } finally {
+            // on failure no more sections are submitted, the ones in flight are waited for and deleted
+            abandoned.set(true);
+            for (ForkJoinTask<Path> part : parts) {
+                part.quietlyJoin();
+                Path file = part.isCompletedNormally() ? part.getRawResult() : null;
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
 
-            document.add(new Paragraph("Hello! This is a sample PDF."));
-            document.close();
+    private ForkJoinTask<Path> submit(ReportSection section, AtomicBoolean abandoned) {
+        return sectionPool.submit(() -> abandoned.get() ? null : renderToFile(section));
+    }
 
-            return new ByteArrayInputStream(out.toByteArray());
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating PDF", e);
+    private Path renderToFile(ReportSection section) {
+        try {
+            Path file = Files.createTempFile("report-section-", ".pdf");
+            try (Document document = new Document(new PdfDocument(new PdfWriter(file.toFile())))) {
+                renderSection(document, section);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
+
+    private void renderSection(Document document, ReportSection section) {
+        ReportRowSource rows = section.rows();
+        String[] headers = rows.headers();
+        document.add(new Paragraph(section.title()).setFontSize(14));
+
+        Table table = new Table(UnitValue.createPercentArray(headers.length), true).useAllAvailableWidth();
+        for (String header : headers) {
+            table.addHeaderCell(header);
+        }
+        document.add(table);     // a large table is laid out as rows are added and flushed
+        long cursor = 0;
+        List<String[]> page;
+        while (!(page = rows.nextPage(cursor, pageSize)).isEmpty()) {
+            for (String[] row : page) {
+                for (String value : row) {
+                    table.addCell(value == null ? "" : value);
+                }
+            }
+            cursor += page.size();
+            table.flush();
+        }
+        table.complete();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sectionPool.shutdownNow();
+    }
 }
@@ -0,0 +1,42 @@
+package com.alchemist.benchmark;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/*
+ * Downloads GET /report?rows=N from a running app and prints time to first byte, total time and size,
+ * with and without gzip. Run the app with a small heap (e.g. -Xmx128m) to see the export stay bounded.
+ * Usage: CsvExportLoadDriver [baseUrl] [rows]
+ */
+public class CsvExportLoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:9090";
+        long rows = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000;
+        HttpClient client = HttpClient.newHttpClient();
+
+        for (String encoding : new String[] {"identity", "gzip"}) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/report?rows=" + rows))
+                    .header("Accept-Encoding", encoding)
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            long firstByte = 0;
+            long bytes = 0;
+            byte[] buffer = new byte[1 << 16];
+            try (InputStream in = response.body()) {
+                for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                    if (firstByte == 0) {
+                        firstByte = System.nanoTime();
+                    }
+                    bytes += n;
+                }
+            }
+            System.out.printf("%-8s %,d rows: first byte after %d ms, %,d bytes in %.1f s%n", encoding, rows,
+                    (firstByte - start) / 1_000_000, bytes, (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
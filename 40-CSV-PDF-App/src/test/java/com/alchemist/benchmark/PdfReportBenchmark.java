@@ -0,0 +1,80 @@
+package com.alchemist.benchmark;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alchemist.report.ReportSection;
+import com.alchemist.report.SampleReportRowSource;
+import com.alchemist.service.PdfService;
+
+/*
+ * Generation time, output size and peak heap of the PDF report for 1k, 10k and 100k rows, sequential
+ * and parallel. Each run is preceded by a GC and a reset of the heap pools' peak usage, so the peak is
+ * the run's own (plus whatever was live before it). Run with a fixed heap, e.g. -Xmx512m.
+ * Usage: PdfReportBenchmark [sectionRows] [repeats]
+ */
+public class PdfReportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long sectionRows = args.length > 0 ? Long.parseLong(args[0]) : 10_000;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        PdfService service = new PdfService(500, 0);
+        try {
+            run(service, 1_000, sectionRows, false);     // warm up
+            for (long rows : new long[] {1_000, 10_000, 100_000}) {
+                for (boolean parallel : new boolean[] {false, true}) {
+                    for (int i = 0; i < repeats; i++) {
+                        run(service, rows, sectionRows, parallel);
+                    }
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static void run(PdfService service, long rows, long sectionRows, boolean parallel) throws Exception {
+        List<ReportSection> sections = SampleReportRowSource.sections(rows, sectionRows);
+        CountingStream out = new CountingStream();
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long start = System.nanoTime();
+        if (parallel) {
+            service.writeReportParallel(sections, out);
+        } else {
+            service.writeReport(sections, out);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        System.out.printf("%,8d rows %-10s %,7d ms %,12d bytes  peak heap %,5d MB%n", rows,
+                parallel ? "parallel" : "sequential", millis, out.bytes, peak >> 20);
+    }
+
+    private static final class CountingStream extends OutputStream {
+
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.alchemist.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * A burst of downloads against a running app: `clients` concurrent clients each fetch a report, picking
+ * among `distinct` report sizes, first synchronously through GET /report and then through the job API
+ * (POST /reports, poll, download). Prints the time of each burst and the cache and queue metrics.
+ * Usage: ReportJobLoadDriver [baseUrl] [clients] [distinct] [rows]
+ */
+public class ReportJobLoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:9090";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int distinct = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long rows = args.length > 3 ? Long.parseLong(args[3]) : 200_000;
+        HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+
+        burst("sync GET /report", clients, pool, i -> {
+            get(client, baseUrl + "/report?rows=" + (rows + i % distinct));
+            return null;
+        });
+        burst("async POST /reports", clients, pool, i -> {
+            HttpRequest submit = HttpRequest.newBuilder(URI.create(baseUrl + "/reports?type=csv&rows=" + (rows + i % distinct)))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+            HttpResponse<String> submitted = client.send(submit, HttpResponse.BodyHandlers.ofString());
+            while (submitted.statusCode() == 503) {
+                Thread.sleep(500);
+                submitted = client.send(submit, HttpResponse.BodyHandlers.ofString());
+            }
+            String location = baseUrl + submitted.headers().firstValue("Location").orElseThrow();
+            HttpResponse<String> status = client.send(HttpRequest.newBuilder(URI.create(location)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            while (status.statusCode() == 200) {
+                Thread.sleep(100);
+                status = client.send(HttpRequest.newBuilder(URI.create(location)).build(), HttpResponse.BodyHandlers.ofString());
+            }
+            if (status.statusCode() != 303) {
+                throw new IllegalStateException("HTTP " + status.statusCode() + " for " + location);
+            }
+            get(client, baseUrl + status.headers().firstValue("Location").orElseThrow());
+            return null;
+        });
+        pool.shutdown();
+
+        for (String metric : new String[] {"report.cache.hit.ratio", "report.generation", "report.jobs.queued"}) {
+            System.out.println(metric + ": " + client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + metric)).build(),
+                    HttpResponse.BodyHandlers.ofString()).body());
+        }
+    }
+
+    interface Download {
+        Void run(int client) throws Exception;
+    }
+
+    private static void burst(String mode, int clients, ExecutorService pool, Download download) {
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> all = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            int clientNumber = i;
+            all.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return download.run(clientNumber);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }, pool));
+        }
+        CompletableFuture.allOf(all.toArray(new CompletableFuture[0])).join();
+        System.out.printf("%-22s %d downloads in %.2f s%n", mode, clients, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void get(HttpClient client, String url) throws Exception {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " from " + url);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.alchemist.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.alchemist.report.ReportRowSource;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+class CsvServiceTests {
+
+    private final CsvService service = new CsvService(8192, 1000);
+
+    @Test
+    void fieldsAreQuotedOnlyWhenTheyNeedIt() throws IOException {
+        assertThat(field("plain value")).isEqualTo("plain value");
+        assertThat(field("")).isEqualTo("");
+        assertThat(field("Hyderabad, Telangana")).isEqualTo("\"Hyderabad, Telangana\"");
+        assertThat(field("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(field("\"")).isEqualTo("\"\"\"\"");
+        assertThat(field("first\r\nsecond")).isEqualTo("\"first\r\nsecond\"");
+        assertThat(field("cr\r")).isEqualTo("\"cr\r\"");
+        assertThat(field("\nlf")).isEqualTo("\"\nlf\"");
+        assertThat(field("ünïcödé ✓")).isEqualTo("ünïcödé ✓");
+    }
+
+    @Test
+    void nullValuesAreEmptyFields() throws IOException {
+        assertThat(field(null)).isEqualTo("");
+
+        ListSource source = new ListSource(new String[] {"Name", "Email", "Age"},
+                List.of(new String[] {"User 1", null, "21"}, new String[] {null, null, null}));
+
+        assertThat(csv(source, false)).isEqualTo("Name,Email,Age\r\nUser 1,,21\r\n,,\r\n");
+    }
+
+    @Test
+    void rowsAreStreamedPageByPage() throws IOException {
+        ListSource source = ListSource.generated(2_500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        source.out = out;
+
+        service.writeCsv(source, out, false);
+
+        assertThat(source.cursors).containsExactly(0L, 1_000L, 2_000L, 2_500L);
+        // every earlier page is on the stream by the time the next one is read
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(source.written).containsExactly(0, lengthOfLines(csv, 1_001),
+                lengthOfLines(csv, 2_001), lengthOfLines(csv, 2_501));
+        String[] lines = csv.split("\r\n");
+        assertThat(lines.length).isEqualTo(2_501);
+        assertThat(lines[1]).isEqualTo("User 0,\"Hyderabad, IN\",\"says \"\"hi\"\"\"");
+        assertThat(lines[2_500]).startsWith("User 2499,");
+    }
+
+    @Test
+    void gzipOutputDecompressesToTheSameCsv() throws IOException {
+        String plain = csv(ListSource.generated(2_500), false);
+        ListSource source = ListSource.generated(2_500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        source.out = out;
+
+        service.writeCsv(source, out, true);
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(plain);
+        }
+        // pages are sync flushed through the compressor, not held back until the end
+        assertThat(source.written.get(1)).isGreaterThan(10);
+        assertThat(source.written.get(2)).isGreaterThan(source.written.get(1));
+    }
+
+    @Test
+    void anEmptyReportIsJustTheHeader() throws IOException {
+        assertThat(csv(ListSource.generated(0), false)).isEqualTo("Name,City,Quote\r\n");
+    }
+
+    private String csv(ReportRowSource source, boolean gzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeCsv(source, out, gzip);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String field(String value) throws IOException {
+        StringWriter writer = new StringWriter();
+        CsvService.writeField(writer, value);
+        return writer.toString();
+    }
+
+    // bytes taken by the first n lines of csv
+    private static int lengthOfLines(String csv, int n) {
+        int end = 0;
+        for (int i = 0; i < n; i++) {
+            end = csv.indexOf("\r\n", end) + 2;
+        }
+        return csv.substring(0, end).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    // rows from a list, remembering which pages were asked for and how much had been written by then
+    private static final class ListSource implements ReportRowSource {
+
+        private final String[] headers;
+        private final List<String[]> rows;
+        final List<Long> cursors = new ArrayList<>();
+        final List<Integer> written = new ArrayList<>();
+        ByteArrayOutputStream out;
+
+        ListSource(String[] headers, List<String[]> rows) {
+            this.headers = headers;
+            this.rows = rows;
+        }
+
+        static ListSource generated(int count) {
+            List<String[]> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(new String[] {"User " + i, "Hyderabad, IN", "says \"hi\""});
+            }
+            return new ListSource(new String[] {"Name", "City", "Quote"}, rows);
+        }
+
+        @Override
+        public String[] headers() {
+            return headers;
+        }
+
+        @Override
+        public List<String[]> nextPage(long cursor, int limit) {
+            cursors.add(cursor);
+            if (out != null) {
+                written.add(out.size());
+            }
+            int from = (int) Math.min(cursor, rows.size());
+            return rows.subList(from, Math.min(rows.size(), from + limit));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.alchemist.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/*
+ * Beans created in each service's own load balancer context, so every service gets its own tracker.
+ * Deliberately not a @Configuration: component scanning would put these beans in the application context.
+ * Registered for all services by LatencyAwareLoadBalancing.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+	@Bean
+	public InstanceLoadTracker instanceLoadTracker(
+			@Value("${loadbalancer.latency-aware.decay-millis:10000}") long decayMillis) {
+		return new InstanceLoadTracker(decayMillis);
+	}
+
+	@Bean
+	public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+			 LoadBalancerClientFactory factory,
+			 InstanceLoadTracker tracker) {
+		String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+		return new LatencyAwareLoadBalancer(factory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+				serviceId, tracker);
+	}
+}
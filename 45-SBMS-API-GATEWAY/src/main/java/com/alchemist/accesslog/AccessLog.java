@@ -0,0 +1,231 @@
+package com.alchemist.accesslog;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import com.alchemist.accesslog.AccessLogRingBuffer.Slot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+
+/*
+ * Structured (one JSON object per line) access log for the gateway.
+ * Request threads only copy a few references into a ring buffer slot; a single background thread
+ * formats the events and writes them in batches. Events that find the ring full are dropped and counted.
+ */
+@Component
+public class AccessLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+
+    private final AccessLogRingBuffer ring;
+    private final String[] headerNames;
+    private final double defaultSampleRate;
+    private final List<String> routePatterns = new ArrayList<>();
+    private final List<Double> routeRates = new ArrayList<>();
+    private final boolean alwaysLogErrors;
+    private final int batchSize;
+    private final long idleParkNanos;
+    private final Writer out;
+    private final boolean closeOut;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Counter dropped;
+    private final Counter written;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AccessLog(@Value("${gateway.access-log.buffer-size:8192}") int bufferSize,
+                     @Value("${gateway.access-log.batch-size:512}") int batchSize,
+                     @Value("${gateway.access-log.idle-flush-millis:100}") long idleFlushMillis,
+                     @Value("${gateway.access-log.headers:user-agent,x-forwarded-for,x-request-id}") String[] headers,
+                     @Value("${gateway.access-log.sample-rate:1.0}") double defaultSampleRate,
+                     @Value("${gateway.access-log.route-sample-rates:}") String[] routeSampleRates,
+                     @Value("${gateway.access-log.always-log-errors:true}") boolean alwaysLogErrors,
+                     @Value("${gateway.access-log.file:}") String file,
+                     MeterRegistry registry) throws IOException {
+        this(bufferSize, batchSize, idleFlushMillis, headers, defaultSampleRate, routeSampleRates, alwaysLogErrors,
+                file.isBlank() ? System.out : new FileOutputStream(file, true), registry);
+    }
+
+    public AccessLog(int bufferSize, int batchSize, long idleFlushMillis, String[] headers, double defaultSampleRate,
+                     String[] routeSampleRates, boolean alwaysLogErrors, OutputStream out, MeterRegistry registry) {
+        this.headerNames = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            headerNames[i] = headers[i].trim().toLowerCase(Locale.ROOT);
+        }
+        this.ring = new AccessLogRingBuffer(bufferSize, headerNames.length);
+        this.defaultSampleRate = defaultSampleRate;
+        //entries look like /greet/**=0.1, first matching pattern wins
+        for (String entry : routeSampleRates) {
+            int eq = entry.lastIndexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected <path pattern>=<rate> but got " + entry);
+            }
+            routePatterns.add(entry.substring(0, eq).trim());
+            routeRates.add(Double.valueOf(entry.substring(eq + 1).trim()));
+        }
+        this.alwaysLogErrors = alwaysLogErrors;
+        this.batchSize = batchSize;
+        this.idleParkNanos = TimeUnit.MILLISECONDS.toNanos(idleFlushMillis);
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.closeOut = out != System.out;
+        this.dropped = Counter.builder("gateway.access.log.dropped")
+                .description("Access log events dropped because the ring buffer was full")
+                .register(registry);
+        this.written = Counter.builder("gateway.access.log.written").register(registry);
+        Gauge.builder("gateway.access.log.backlog", ring, AccessLogRingBuffer::size).register(registry);
+        this.writerThread = new Thread(this::drainLoop, "access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    //called on the request thread once the response status is known
+    public void record(HttpServletRequest request, int status, long startNanos) {
+        long duration = System.nanoTime() - startNanos;
+        String uri = request.getRequestURI();
+        if (!sampled(uri, status)) {
+            return;
+        }
+        long seq = ring.claim();
+        if (seq < 0) {
+            dropped.increment();
+            return;
+        }
+        Slot slot = ring.slot(seq);
+        slot.timestamp = System.currentTimeMillis();
+        slot.method = request.getMethod();
+        slot.uri = uri;
+        slot.query = request.getQueryString();
+        slot.status = status;
+        slot.durationNanos = duration;
+        for (int i = 0; i < headerNames.length; i++) {
+            slot.headers[i] = request.getHeader(headerNames[i]);
+        }
+        ring.commit(seq);
+    }
+
+    boolean sampled(String uri, int status) {
+        if (alwaysLogErrors && status >= 500) {
+            return true;
+        }
+        double rate = defaultSampleRate;
+        for (int i = 0; i < routePatterns.size(); i++) {
+            if (pathMatcher.match(routePatterns.get(i), uri)) {
+                rate = routeRates.get(i);
+                break;
+            }
+        }
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(512);
+        while (running) {
+            if (drainBatch(line) == 0) {
+                LockSupport.parkNanos(idleParkNanos);
+            }
+        }
+        //flush whatever was published before shutdown
+        int drained;
+        do {
+            drained = drainBatch(line);
+        } while (drained > 0);
+    }
+
+    private int drainBatch(StringBuilder line) {
+        int count = 0;
+        Slot slot;
+        try {
+            while (count < batchSize && (slot = ring.peek()) != null) {
+                line.setLength(0);
+                format(slot, line);
+                ring.release();
+                out.append(line);
+                count++;
+            }
+            if (count > 0) {
+                out.flush();
+                written.increment(count);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Access log write failed, {} events lost", count, e);
+        }
+        return count;
+    }
+
+    private void format(Slot slot, StringBuilder sb) {
+        sb.append("{\"ts\":\"").append(Instant.ofEpochMilli(slot.timestamp))
+                .append("\",\"method\":");
+        appendString(sb, slot.method);
+        sb.append(",\"uri\":");
+        appendString(sb, slot.uri);
+        if (slot.query != null) {
+            sb.append(",\"query\":");
+            appendString(sb, slot.query);
+        }
+        sb.append(",\"status\":").append(slot.status)
+                .append(",\"durationMicros\":").append(slot.durationNanos / 1000);
+        for (int i = 0; i < headerNames.length; i++) {
+            if (slot.headers[i] != null) {
+                sb.append(",\"").append(headerNames[i]).append("\":");
+                appendString(sb, slot.headers[i]);
+            }
+        }
+        sb.append("}\n");
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        //the log file (or the stream passed in) is ours to close, the console is not
+        if (closeOut) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+}
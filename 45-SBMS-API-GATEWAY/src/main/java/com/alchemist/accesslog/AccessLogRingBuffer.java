@@ -0,0 +1,103 @@
+package com.alchemist.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Bounded multi-producer / single-consumer ring of preallocated access log slots.
+ * Request threads claim a slot with one CAS, fill it and commit it; they never lock and never wait:
+ * when the writer falls behind, claim() fails and the event is dropped.
+ * Each slot carries a sequence number that tells producers and the consumer whose turn it is.
+ */
+public class AccessLogRingBuffer {
+
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    //only written by the consumer thread, volatile so the backlog gauge can read it
+    private volatile long head;
+
+    public AccessLogRingBuffer(int capacity, int headerCount) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(headerCount);
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    //returns the claimed sequence, or -1 when the ring is full
+    public long claim() {
+        long pos = tail.get();
+        while (true) {
+            long diff = sequences.get((int) pos & mask) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return -1;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    public Slot slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    public void commit(long sequence) {
+        sequences.lazySet((int) sequence & mask, sequence + 1);
+    }
+
+    //consumer side: the next committed slot, or null when there is none
+    public Slot peek() {
+        int index = (int) head & mask;
+        return sequences.get(index) == head + 1 ? slots[index] : null;
+    }
+
+    //consumer side: hands the slot returned by peek() back to the producers
+    public void release() {
+        int index = (int) head & mask;
+        slots[index].clear();
+        sequences.lazySet(index, head + slots.length);
+        head++;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public static class Slot {
+
+        long timestamp;
+        String method;
+        String uri;
+        String query;
+        int status;
+        long durationNanos;
+        final String[] headers;
+
+        Slot(int headerCount) {
+            this.headers = new String[headerCount];
+        }
+
+        void clear() {
+            method = null;
+            uri = null;
+            query = null;
+            for (int i = 0; i < headers.length; i++) {
+                headers[i] = null;
+            }
+        }
+    }
+}
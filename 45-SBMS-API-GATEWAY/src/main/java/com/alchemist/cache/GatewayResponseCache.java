@@ -0,0 +1,221 @@
+package com.alchemist.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*
+ * Store behind ResponseCacheFilter, bounded by gateway.response-cache.max-bytes of body and headers.
+ * Only GET requests to the paths listed in gateway.response-cache.routes are cached, each pattern with its
+ * own ttl, shortened by the response's s-maxage / max-age. The cache holds the pending response itself,
+ * so concurrent misses for the same key wait for the first request's upstream call instead of making their own.
+ * Metrics: cache.gets / cache.evictions / cache.size with cache=gateway.responses, plus
+ * gateway.response.cache.coalesced for requests that joined an upstream call already in flight.
+ */
+@Component
+public class GatewayResponseCache {
+
+    public static final String X_CACHE = "X-Cache";
+
+    private static final Set<Integer> CACHEABLE_STATUSES = Set.of(200, 203, 204, 301, 404, 410);
+    private static final Set<String> HOP_BY_HOP = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+    //request headers that are part of the key, a response varying on anything else is not stored
+    private static final Set<String> KEYED_HEADERS = Set.of("accept", "accept-encoding");
+
+    private final AsyncCache<String, CachedResponse> cache;
+    private final List<String> routePatterns = new ArrayList<>();
+    private final List<Duration> routeTtls = new ArrayList<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final int maxEntryBytes;
+    private final long coalesceTimeoutMillis;
+    private final Counter coalesced;
+
+    public GatewayResponseCache(@Value("${gateway.response-cache.routes:}") String[] routes,
+                                @Value("${gateway.response-cache.max-bytes:67108864}") long maxBytes,
+                                @Value("${gateway.response-cache.max-entry-bytes:1048576}") int maxEntryBytes,
+                                @Value("${gateway.response-cache.coalesce-timeout-millis:10000}") long coalesceTimeoutMillis,
+                                MeterRegistry registry) {
+        //entries look like /greet/**=30s, first matching pattern wins
+        for (String entry : routes) {
+            int eq = entry.lastIndexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected <path pattern>=<ttl> but got " + entry);
+            }
+            routePatterns.add(entry.substring(0, eq).trim());
+            routeTtls.add(DurationStyle.detectAndParse(entry.substring(eq + 1).trim()));
+        }
+        this.maxEntryBytes = maxEntryBytes;
+        this.coalesceTimeoutMillis = coalesceTimeoutMillis;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "gateway.responses");
+        this.coalesced = Counter.builder("gateway.response.cache.coalesced")
+                .description("Requests served by joining an upstream call already in flight")
+                .register(registry);
+    }
+
+    //the route ttl for a request path, null when the path is not cached
+    public Duration ttlFor(String path) {
+        for (int i = 0; i < routePatterns.size(); i++) {
+            if (pathMatcher.match(routePatterns.get(i), path)) {
+                return routeTtls.get(i);
+            }
+        }
+        return null;
+    }
+
+    //returns the entry for key; when it is the given leader future, the caller has to fetch and complete it
+    public CompletableFuture<CachedResponse> getOrJoin(String key, CompletableFuture<CachedResponse> leader) {
+        CompletableFuture<CachedResponse> entry = cache.get(key, (k, executor) -> leader);
+        if (entry != leader && !entry.isDone()) {
+            coalesced.increment();
+        }
+        return entry;
+    }
+
+    //for requests that insist on a fresh response: their result replaces whatever is cached
+    public void replace(String key, CompletableFuture<CachedResponse> leader) {
+        cache.put(key, leader);
+    }
+
+    //waits for another request's upstream call, null when it failed or took longer than the coalesce timeout
+    public CachedResponse await(CompletableFuture<CachedResponse> entry) {
+        try {
+            return entry.get(coalesceTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    //the response as it may be stored and handed to coalesced requests, null when it may be neither
+    public CachedResponse capture(int status, HttpHeaders responseHeaders, byte[] body, Duration routeTtl, long nowNanos) {
+        long ttl = body != null && body.length <= maxEntryBytes ? ttlNanos(status, responseHeaders, routeTtl) : 0;
+        if (ttl <= 0) {
+            //Set-Cookie, private or an unkeyed Vary: meant for this client only
+            return null;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        responseHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name.toLowerCase(Locale.ROOT)) && !X_CACHE.equalsIgnoreCase(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body, nowNanos, ttl);
+    }
+
+    static long ttlNanos(int status, HttpHeaders headers, Duration routeTtl) {
+        if (!CACHEABLE_STATUSES.contains(status) || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return 0;
+        }
+        for (String vary : headers.getVary()) {
+            if (!KEYED_HEADERS.contains(vary.trim().toLowerCase(Locale.ROOT))) {
+                return 0;
+            }
+        }
+        long ttl = routeTtl.toNanos();
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (String directive : directives(headers.getCacheControl())) {
+            if (directive.equals("no-store") || directive.equals("no-cache") || directive.equals("private")) {
+                return 0;
+            }
+            if (directive.startsWith("s-maxage=")) {
+                sharedMaxAge = seconds(directive.substring("s-maxage=".length()));
+            } else if (directive.startsWith("max-age=")) {
+                maxAge = seconds(directive.substring("max-age=".length()));
+            }
+        }
+        //s-maxage is meant for shared caches like this one and wins over max-age
+        long upstreamTtl = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+        if (upstreamTtl >= 0) {
+            ttl = Math.min(ttl, Duration.ofSeconds(upstreamTtl).toNanos());
+        }
+        return ttl;
+    }
+
+    //requests that must not be answered from, nor stored in, a shared cache; cookies are not part of the key
+    public static boolean bypass(String authorization, String cookie, String cacheControl) {
+        return authorization != null || cookie != null || directives(cacheControl).contains("no-store");
+    }
+
+    //requests that accept no stored response but whose fresh response may be stored
+    public static boolean revalidate(String cacheControl, String pragma) {
+        Set<String> directives = directives(cacheControl);
+        return directives.contains("no-cache") || directives.contains("max-age=0") || "no-cache".equalsIgnoreCase(pragma);
+    }
+
+    public static String key(String path, String query, String accept, String acceptEncoding) {
+        StringBuilder key = new StringBuilder(path);
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        return key.append('|').append(accept).append('|').append(acceptEncoding).toString();
+    }
+
+    private static Set<String> directives(String cacheControl) {
+        if (cacheControl == null || cacheControl.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> directives = new HashSet<>();
+        for (String directive : cacheControl.split(",")) {
+            directives.add(directive.trim().toLowerCase(Locale.ROOT).replace("\"", ""));
+        }
+        return directives;
+    }
+
+    private static long seconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
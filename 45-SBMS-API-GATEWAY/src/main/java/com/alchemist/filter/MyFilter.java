@@ -7,13 +7,25 @@ import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+
+import com.alchemist.accesslog.AccessLog;
+
 import java.io.IOException;
-import java.util.Enumeration;
 
+// outside the response cache, so cache hits are logged too
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
 @Component
 public class MyFilter implements Filter {
 
+    private final AccessLog accessLog;
+
+    public MyFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
             throws IOException, ServletException {
@@ -21,21 +33,15 @@ public class MyFilter implements Filter {
         HttpServletRequest request = (HttpServletRequest) servletRequest;
         HttpServletResponse response = (HttpServletResponse) servletResponse;
 
-        System.out.println(">>> Request Info <<<");
-        System.out.println("Method: " + request.getMethod());
-        System.out.println("URI: " + request.getRequestURI());
-        System.out.println("-------------------------------------------------");
-        System.out.println("Headers:");
-
-        Enumeration<String> headerNames = request.getHeaderNames();
-        while (headerNames.hasMoreElements()) {
-            String headerName = headerNames.nextElement();
-            System.out.println(headerName + ": " + request.getHeader(headerName));
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            // Continue the chain
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            // an exception escaping the chain ends up as a 500 even if the status was not set yet
+            accessLog.record(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), start);
         }
-
-        // Continue the chain
-        chain.doFilter(request, response);
-
-        System.out.println("<<< Response Status: " + response.getStatus());
     }
 }
@@ -0,0 +1,209 @@
+package com.alchemist.filter;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.alchemist.cache.CachedResponse;
+import com.alchemist.cache.GatewayResponseCache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Answers GET requests on the routes configured in gateway.response-cache.routes from memory.
+ * A miss goes through the gateway as usual, the body streamed to the client while a copy of up to
+ * max-entry-bytes is kept; requests for the same key arriving meanwhile wait for it (X-Cache: COALESCED)
+ * and later ones get the stored copy (X-Cache: HIT, with Age). Responses that may not be stored
+ * (Set-Cookie, private, too large, ...) are not shared either, the waiting requests then go upstream themselves.
+ * Requests with Authorization or Cookie skip the cache.
+ */
+@Component
+public class ResponseCacheFilter implements Filter {
+
+    private final GatewayResponseCache cache;
+
+    public ResponseCacheFilter(GatewayResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+
+        Duration ttl = "GET".equals(request.getMethod()) ? cache.ttlFor(request.getRequestURI()) : null;
+        String cacheControl = request.getHeader(HttpHeaders.CACHE_CONTROL);
+        if (ttl == null || GatewayResponseCache.bypass(request.getHeader(HttpHeaders.AUTHORIZATION),
+                request.getHeader(HttpHeaders.COOKIE), cacheControl)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = GatewayResponseCache.key(request.getRequestURI(), request.getQueryString(),
+                request.getHeader(HttpHeaders.ACCEPT), request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        CompletableFuture<CachedResponse> leader = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> entry;
+        if (GatewayResponseCache.revalidate(cacheControl, request.getHeader(HttpHeaders.PRAGMA))) {
+            cache.replace(key, leader);
+            entry = leader;
+        } else {
+            entry = cache.getOrJoin(key, leader);
+        }
+
+        if (entry != leader) {
+            String outcome = entry.isDone() ? "HIT" : "COALESCED";
+            CachedResponse cached = cache.await(entry);
+            if (cached != null) {
+                write(response, cached, outcome);
+            } else {
+                // the first request failed, was too slow or got a response for its client only
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+
+        // set before anything is written, the headers go out with the first chunk
+        response.setHeader(GatewayResponseCache.X_CACHE, "MISS");
+        CopyingResponse copying = new CopyingResponse(response, cache.getMaxEntryBytes());
+        try {
+            chain.doFilter(request, copying);
+            copying.flushWriter();
+            HttpHeaders headers = new HttpHeaders();
+            for (String name : copying.getHeaderNames()) {
+                headers.addAll(name, new ArrayList<>(copying.getHeaders(name)));
+            }
+            byte[] body = copying.body();
+            if (body != null) {
+                headers.setContentLength(body.length);
+            }
+            leader.complete(cache.capture(copying.getStatus(), headers, body, ttl, System.nanoTime()));
+        } finally {
+            // no-op once captured, otherwise the waiting requests go upstream themselves
+            leader.complete(null);
+        }
+    }
+
+    private static void write(HttpServletResponse response, CachedResponse cached, String outcome) throws IOException {
+        response.setStatus(cached.status());
+        cached.headers().forEach((name, values) -> {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.setHeader(GatewayResponseCache.X_CACHE, outcome);
+        response.setHeader(HttpHeaders.AGE, String.valueOf(cached.ageSeconds(System.nanoTime())));
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    //writes straight through to the client and keeps a copy of the body until it goes past the limit
+    private static final class CopyingResponse extends HttpServletResponseWrapper {
+
+        private final int limit;
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        private boolean overflow;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CopyingResponse(HttpServletResponse response, int limit) {
+            super(response);
+            this.limit = limit;
+        }
+
+        //the body as written, null when it was too large to keep
+        byte[] body() {
+            return overflow ? null : copy.toByteArray();
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        //once the body is too large to keep, the copy is dropped and the rest only streamed
+        private boolean fits(int length) {
+            if (!overflow && copy.size() + length > limit) {
+                overflow = true;
+                copy.reset();
+            }
+            return !overflow;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        if (fits(1)) {
+                            copy.write(b);
+                        }
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        if (fits(len)) {
+                            copy.write(b, off, len);
+                        }
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        delegate.setWriteListener(listener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+    }
+}
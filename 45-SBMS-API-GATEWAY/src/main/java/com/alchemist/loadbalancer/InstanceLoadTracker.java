@@ -0,0 +1,126 @@
+package com.alchemist.loadbalancer;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/*
+ * Load of each instance of one service, fed by the load balancer lifecycle callbacks that the gateways and
+ * Feign invoke around every call: requests in flight plus a peak-sensitive moving average of response time.
+ * A slower response raises the average at once, faster ones pull it down with a weight that grows with the time
+ * since the previous response. An instance that is not called drifts back towards zero cost, so one that was
+ * slow for a while gets probed again. The cost of an instance is average * (in flight + 1).
+ */
+public class InstanceLoadTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    //cost of an instance with calls in flight but no response yet, so a new instance doesn't take a whole burst
+    private static final double UNPROBED_PENALTY_NANOS = Long.MAX_VALUE >> 16;
+
+    private final ConcurrentHashMap<String, InstanceLoad> loads = new ConcurrentHashMap<>();
+    private final double decayNanos;
+
+    public InstanceLoadTracker(long decayMillis) {
+        this.decayNanos = decayMillis * 1_000_000d;
+    }
+
+    public double cost(ServiceInstance instance, long nowNanos) {
+        InstanceLoad load = loads.get(key(instance));
+        return load != null ? load.cost(nowNanos, decayNanos) : 0;
+    }
+
+    public int inFlight(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        return load != null ? load.inFlight.get() : 0;
+    }
+
+    //forgets instances that left the service once their last call has finished
+    public void retain(List<ServiceInstance> instances) {
+        if (loads.size() <= instances.size()) {
+            return;
+        }
+        Set<String> current = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            current.add(key(instance));
+        }
+        loads.entrySet().removeIf(entry -> !current.contains(entry.getKey()) && entry.getValue().inFlight.get() == 0);
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        if (lbResponse.hasServer()) {
+            loads.computeIfAbsent(key(lbResponse.getServer()), key -> new InstanceLoad()).inFlight.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD || lbResponse == null
+                || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceLoad load = loads.get(key(lbResponse.getServer()));
+        if (load == null) {
+            return;
+        }
+        load.inFlight.decrementAndGet();
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        // failures count with the time they took, a timeout makes the instance look as slow as it is
+        if (request != null && request.getContext() instanceof TimedRequestContext timed
+                && timed.getRequestStartTime() != 0) {
+            long now = System.nanoTime();
+            load.observe(now - timed.getRequestStartTime(), now, decayNanos);
+        }
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static final class InstanceLoad {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double averageNanos;
+        private long stamp;
+
+        synchronized void observe(long latencyNanos, long now, double decayNanos) {
+            if (latencyNanos > averageNanos) {
+                averageNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-(now - stamp) / decayNanos);
+                averageNanos = averageNanos * weight + latencyNanos * (1 - weight);
+            }
+            stamp = now;
+        }
+
+        synchronized double cost(long now, double decayNanos) {
+            int pending = inFlight.get();
+            double latency = averageNanos * Math.exp(-Math.max(0, now - stamp) / decayNanos);
+            if (latency == 0 && pending > 0) {
+                return UNPROBED_PENALTY_NANOS + pending;
+            }
+            return latency * (pending + 1);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.alchemist.accesslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.alchemist.accesslog.AccessLogRingBuffer.Slot;
+
+class AccessLogRingBufferTests {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new AccessLogRingBuffer(4, 0).capacity()).isEqualTo(4);
+        assertThat(new AccessLogRingBuffer(5, 0).capacity()).isEqualTo(8);
+    }
+
+    @Test
+    void slotsAreReusedAfterTheRingWrapsAround() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(4, 1);
+        for (int i = 0; i < 10; i++) {
+            long seq = ring.claim();
+            assertThat(seq).isEqualTo(i);
+            ring.slot(seq).uri = "/greet/" + i;
+            ring.slot(seq).headers[0] = "agent-" + i;
+            ring.commit(seq);
+
+            Slot slot = ring.peek();
+            assertThat(slot.uri).isEqualTo("/greet/" + i);
+            assertThat(slot.headers[0]).isEqualTo("agent-" + i);
+            ring.release();
+            assertThat(ring.peek()).isNull();
+            assertThat(ring.size()).isZero();
+        }
+        //released slots hold no references to old requests
+        for (int i = 0; i < 4; i++) {
+            Slot slot = ring.slot(i);
+            assertThat(slot.uri).isNull();
+            assertThat(slot.headers[0]).isNull();
+        }
+    }
+
+    @Test
+    void aFullRingRejectsClaimsUntilTheConsumerCatchesUp() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(4, 0);
+        for (int i = 0; i < 4; i++) {
+            ring.slot(ring.claim()).status = 200 + i;
+        }
+        assertThat(ring.claim()).isEqualTo(-1);
+        assertThat(ring.size()).isEqualTo(4);
+
+        //claimed but not committed yet, so nothing to consume
+        assertThat(ring.peek()).isNull();
+        for (long seq = 0; seq < 4; seq++) {
+            ring.commit(seq);
+        }
+        assertThat(ring.peek().status).isEqualTo(200);
+        ring.release();
+
+        assertThat(ring.claim()).isEqualTo(4);
+        assertThat(ring.claim()).isEqualTo(-1);
+    }
+
+    @Test
+    void eachProducersEventsAreConsumedOnceAndInOrder() throws Exception {
+        int producers = 4;
+        int events = 50_000;
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(256, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CyclicBarrier start = new CyclicBarrier(producers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                String producer = "/producer/" + p;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < events; i++) {
+                        long seq;
+                        while ((seq = ring.claim()) < 0) {
+                            Thread.onSpinWait();     //full, wait for the consumer instead of dropping
+                        }
+                        Slot slot = ring.slot(seq);
+                        slot.uri = producer;
+                        slot.status = i;
+                        ring.commit(seq);
+                    }
+                    return null;
+                }));
+            }
+
+            int[] next = new int[producers];
+            for (int consumed = 0; consumed < producers * events;) {
+                Slot slot = ring.peek();
+                if (slot == null) {
+                    if (futures.stream().allMatch(Future::isDone) && ring.peek() == null) {
+                        break;     //a producer failed, future.get() below says why
+                    }
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int p = Integer.parseInt(slot.uri.substring("/producer/".length()));
+                assertThat(slot.status).as("producer %d", p).isEqualTo(next[p]);
+                next[p]++;
+                ring.release();
+                consumed++;
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertThat(next).containsExactly(events, events, events, events);
+            assertThat(ring.peek()).isNull();
+            assertThat(ring.size()).isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.alchemist.accesslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AccessLogTests {
+
+    @Test
+    void routeRatesOverrideTheDefaultRate() throws Exception {
+        AccessLog log = accessLog(0.0, false, "/greet/**=1.0", "/welcome/**=0.0");
+        try {
+            assertThat(log.sampled("/greet/hello", 200)).isTrue();
+            assertThat(log.sampled("/greet", 404)).isTrue();
+            assertThat(log.sampled("/welcome/hello", 200)).isFalse();
+            assertThat(log.sampled("/other", 200)).isFalse();
+        } finally {
+            log.close();
+        }
+    }
+
+    @Test
+    void theFirstMatchingRouteWins() throws Exception {
+        AccessLog log = accessLog(1.0, false, "/greet/admin/**=0", "/greet/**=1");
+        try {
+            assertThat(log.sampled("/greet/admin/users", 200)).isFalse();
+            assertThat(log.sampled("/greet/users", 200)).isTrue();
+        } finally {
+            log.close();
+        }
+    }
+
+    @Test
+    void aFractionalRateSamplesThatShareOfRequests() throws Exception {
+        AccessLog log = accessLog(1.0, false, "/greet/**=0.25");
+        try {
+            int sampled = 0;
+            for (int i = 0; i < 20_000; i++) {
+                if (log.sampled("/greet/hello", 200)) {
+                    sampled++;
+                }
+            }
+            assertThat(sampled).isBetween(4_000, 6_000);
+        } finally {
+            log.close();
+        }
+    }
+
+    @Test
+    void serverErrorsAreAlwaysLoggedWhenEnabled() throws Exception {
+        AccessLog log = accessLog(0.0, true, "/welcome/**=0.0");
+        try {
+            assertThat(log.sampled("/welcome/hello", 500)).isTrue();
+            assertThat(log.sampled("/other", 503)).isTrue();
+            //client errors follow the sample rate
+            assertThat(log.sampled("/welcome/hello", 404)).isFalse();
+            assertThat(log.sampled("/welcome/hello", 200)).isFalse();
+        } finally {
+            log.close();
+        }
+    }
+
+    @Test
+    void serverErrorsFollowTheSampleRateWhenDisabled() throws Exception {
+        AccessLog log = accessLog(0.0, false);
+        try {
+            assertThat(log.sampled("/greet/hello", 500)).isFalse();
+        } finally {
+            log.close();
+        }
+    }
+
+    private static AccessLog accessLog(double defaultRate, boolean alwaysLogErrors, String... routeRates) {
+        return new AccessLog(16, 8, 10, new String[0], defaultRate, routeRates, alwaysLogErrors,
+                new ByteArrayOutputStream(), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,150 @@
+package com.alchemist.benchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.alchemist.accesslog.AccessLog;
+import com.alchemist.filter.MyFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * Gateway filter throughput with 16 request threads: no filter, the old println filter and the
+ * access-log filter. Both logging variants write to a temp file so the comparison is not skewed by
+ * the terminal; the chain burns a little CPU to stand in for routing and proxying.
+ * This measures the filters in isolation: mock requests go straight into the filter, with no
+ * container, socket or upstream call, so only the relative cost of the filters carries over to a
+ * running gateway, not the absolute throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayFilterBenchmark {
+
+	@Param({ "none", "println", "accessLog" })
+	public String filter;
+
+	@Param({ "1.0", "0.1" })
+	public double sampleRate;
+
+	@Param({ "2000" })
+	public int chainTokens;
+
+	private Filter gatewayFilter;
+	private AccessLog accessLog;
+	private FilterChain chain;
+	private PrintStream originalOut;
+	private Path logFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		logFile = Files.createTempFile("gateway-access", ".log");
+		originalOut = System.out;
+		if ("println".equals(filter)) {
+			//autoflush, like the console the old filter used to write to
+			System.setOut(new PrintStream(new FileOutputStream(logFile.toFile()), true));
+			gatewayFilter = new PrintlnFilter();
+		} else if ("accessLog".equals(filter)) {
+			accessLog = new AccessLog(8192, 512, 100, new String[] { "user-agent", "x-forwarded-for", "x-request-id" },
+					sampleRate, new String[0], true, new FileOutputStream(logFile.toFile()), new SimpleMeterRegistry());
+			gatewayFilter = new MyFilter(accessLog);
+		}
+		chain = (req, res) -> {
+			Blackhole.consumeCPU(chainTokens);
+			((HttpServletResponse) res).setStatus(200);
+		};
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		if (accessLog != null) {
+			accessLog.close();
+		}
+		System.setOut(originalOut);
+		Files.deleteIfExists(logFile);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public int request() throws IOException, ServletException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/greet");
+		request.addHeader("host", "localhost:2222");
+		request.addHeader("user-agent", "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36");
+		request.addHeader("accept", "application/json, text/plain, */*");
+		request.addHeader("accept-encoding", "gzip, deflate, br");
+		request.addHeader("accept-language", "en-US,en;q=0.9");
+		request.addHeader("connection", "keep-alive");
+		request.addHeader("x-forwarded-for", "10.0.0.17");
+		request.addHeader("x-request-id", "5f0c6a4e-8d21-4b5e-9a57-0f1f3c2d7e11");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		if (gatewayFilter == null) {
+			chain.doFilter(request, response);
+		} else {
+			gatewayFilter.doFilter(request, response, chain);
+		}
+		return response.getStatus();
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(GatewayFilterBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	//the filter as it was before the access log
+	static class PrintlnFilter implements Filter {
+
+		@Override
+		public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+				throws IOException, ServletException {
+			HttpServletRequest request = (HttpServletRequest) servletRequest;
+			HttpServletResponse response = (HttpServletResponse) servletResponse;
+			System.out.println(">>> Request Info <<<");
+			System.out.println("Method: " + request.getMethod());
+			System.out.println("URI: " + request.getRequestURI());
+			System.out.println("-------------------------------------------------");
+			System.out.println("Headers:");
+			Enumeration<String> headerNames = request.getHeaderNames();
+			while (headerNames.hasMoreElements()) {
+				String headerName = headerNames.nextElement();
+				System.out.println(headerName + ": " + request.getHeader(headerName));
+			}
+			chain.doFilter(request, response);
+			System.out.println("<<< Response Status: " + response.getStatus());
+		}
+	}
+
+}
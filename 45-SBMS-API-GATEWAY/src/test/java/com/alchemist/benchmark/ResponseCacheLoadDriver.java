@@ -0,0 +1,111 @@
+package com.alchemist.benchmark;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.alchemist.Application;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Backend load with and without the response cache on /greet/**.
+ * A stub GREET-API counts the calls it gets and answers after serviceMillis; a fixed number of clients
+ * call the gateway back to back for the given time, first with caching off, then with a ttl for /greet/**.
+ *
+ * Usage: ResponseCacheLoadDriver [clients=64] [seconds=10] [serviceMillis=20] [ttl=5s]
+ */
+public class ResponseCacheLoadDriver {
+
+	public static void main(String[] args) throws Exception {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int serviceMillis = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		String ttl = args.length > 3 ? args[3] : "5s";
+
+		LongAdder backendCalls = new LongAdder();
+		HttpServer backend = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		backend.setExecutor(Executors.newFixedThreadPool(clients));
+		backend.createContext("/greet", exchange -> {
+			backendCalls.increment();
+			try {
+				Thread.sleep(serviceMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = "Good Morning(stub)".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		backend.start();
+
+		int backendPort = backend.getAddress().getPort();
+		run("no cache", "", backendPort, backendCalls, clients, seconds);
+		run("cache ttl " + ttl, "/greet/**=" + ttl, backendPort, backendCalls, clients, seconds);
+		backend.stop(0);
+		((ExecutorService) backend.getExecutor()).shutdownNow();
+	}
+
+	private static void run(String mode, String cacheRoutes, int backendPort, LongAdder backendCalls, int clients,
+			int seconds) throws InterruptedException {
+		ConfigurableApplicationContext gateway = new SpringApplicationBuilder(Application.class).run(
+				"--server.port=0",
+				"--eureka.client.enabled=false",
+				"--spring.cloud.gateway.discovery.locator.enabled=false",
+				//command line arguments, so the route list replaces the one in application.yml
+				"--spring.cloud.gateway.mvc.routes[0].id=greet-api",
+				"--spring.cloud.gateway.mvc.routes[0].uri=http://localhost:" + backendPort,
+				"--spring.cloud.gateway.mvc.routes[0].predicates[0]=Path=/greet/**",
+				"--gateway.response-cache.routes=" + cacheRoutes,
+				"--gateway.access-log.sample-rate=0",
+				"--logging.level.root=WARN",
+				"--logging.level.org.springframework.cloud.gateway.server.mvc=WARN",
+				"--spring.main.banner-mode=off");
+		String url = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port") + "/greet";
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+
+		backendCalls.reset();
+		Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		long start = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		for (int i = 0; i < clients; i++) {
+			pool.execute(() -> {
+				while (System.nanoTime() < end) {
+					String outcome;
+					try {
+						HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+						outcome = response.statusCode() + " " + response.headers().firstValue("X-Cache").orElse("-");
+					} catch (Exception e) {
+						outcome = e.getClass().getSimpleName();
+					}
+					outcomes.computeIfAbsent(outcome, o -> new LongAdder()).increment();
+				}
+			});
+		}
+		pool.shutdown();
+		pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		long requests = outcomes.values().stream().mapToLong(LongAdder::sum).sum();
+
+		System.out.printf("%-13s %7d requests (%6.0f/s), backend calls %6d (%5.1f%% of requests) | %s%n", mode, requests,
+				requests / elapsed, backendCalls.sum(), 100.0 * backendCalls.sum() / Math.max(1, requests), outcomes);
+		gateway.close();
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.alchemist.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GatewayResponseCacheTests {
+
+    private static final Duration ROUTE_TTL = Duration.ofSeconds(30);
+
+    @Test
+    void theRouteTtlAppliesWhenUpstreamSaysNothing() {
+        assertThat(ttl(200, new HttpHeaders())).isEqualTo(ROUTE_TTL);
+        assertThat(ttl(404, new HttpHeaders())).isEqualTo(ROUTE_TTL);
+    }
+
+    @Test
+    void maxAgeAndSMaxAgeOnlyShortenTheRouteTtl() {
+        assertThat(ttl(200, cacheControl("max-age=10"))).isEqualTo(Duration.ofSeconds(10));
+        assertThat(ttl(200, cacheControl("public, max-age=600"))).isEqualTo(ROUTE_TTL);
+        //s-maxage is for shared caches and wins over max-age, in either direction
+        assertThat(ttl(200, cacheControl("max-age=5, s-maxage=20"))).isEqualTo(Duration.ofSeconds(20));
+        assertThat(ttl(200, cacheControl("s-maxage=3, max-age=20"))).isEqualTo(Duration.ofSeconds(3));
+        assertThat(ttl(200, cacheControl("max-age=0"))).isEqualTo(Duration.ZERO);
+        assertThat(ttl(200, cacheControl("max-age=soon"))).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void responsesForOneClientAreNotStored() {
+        assertThat(ttl(200, cacheControl("no-store"))).isEqualTo(Duration.ZERO);
+        assertThat(ttl(200, cacheControl("No-Cache"))).isEqualTo(Duration.ZERO);
+        assertThat(ttl(200, cacheControl("private, max-age=60"))).isEqualTo(Duration.ZERO);
+
+        HttpHeaders cookie = new HttpHeaders();
+        cookie.add(HttpHeaders.SET_COOKIE, "session=abc");
+        assertThat(ttl(200, cookie)).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void onlyAVaryOnKeyedHeadersIsStored() {
+        assertThat(ttl(200, vary("Accept-Encoding"))).isEqualTo(ROUTE_TTL);
+        assertThat(ttl(200, vary("accept, accept-encoding"))).isEqualTo(ROUTE_TTL);
+        assertThat(ttl(200, vary("User-Agent"))).isEqualTo(Duration.ZERO);
+        assertThat(ttl(200, vary("Accept, Origin"))).isEqualTo(Duration.ZERO);
+        assertThat(ttl(200, vary("*"))).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void errorsAndPartialContentAreNotStored() {
+        assertThat(ttl(500, new HttpHeaders())).isEqualTo(Duration.ZERO);
+        assertThat(ttl(503, cacheControl("max-age=60"))).isEqualTo(Duration.ZERO);
+        assertThat(ttl(206, new HttpHeaders())).isEqualTo(Duration.ZERO);
+        assertThat(ttl(302, new HttpHeaders())).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void requestsWithCredentialsOrNoStoreBypassTheCache() {
+        assertThat(GatewayResponseCache.bypass("Bearer token", null, null)).isTrue();
+        assertThat(GatewayResponseCache.bypass(null, "session=abc", null)).isTrue();
+        assertThat(GatewayResponseCache.bypass(null, null, "no-store")).isTrue();
+        assertThat(GatewayResponseCache.bypass(null, null, "max-age=0, No-Store")).isTrue();
+
+        assertThat(GatewayResponseCache.bypass(null, null, null)).isFalse();
+        assertThat(GatewayResponseCache.bypass(null, null, "no-cache")).isFalse();
+    }
+
+    @Test
+    void noCacheAndMaxAgeZeroRevalidate() {
+        assertThat(GatewayResponseCache.revalidate("no-cache", null)).isTrue();
+        assertThat(GatewayResponseCache.revalidate("max-age=0", null)).isTrue();
+        assertThat(GatewayResponseCache.revalidate(null, "no-cache")).isTrue();
+        assertThat(GatewayResponseCache.revalidate("\"no-cache\"", null)).isTrue();
+
+        assertThat(GatewayResponseCache.revalidate(null, null)).isFalse();
+        assertThat(GatewayResponseCache.revalidate("max-age=10", null)).isFalse();
+        assertThat(GatewayResponseCache.revalidate("", "")).isFalse();
+    }
+
+    @Test
+    void theFirstMatchingRouteGivesTheTtl() {
+        GatewayResponseCache cache = new GatewayResponseCache(new String[] {"/greet/admin/**=0s", "/greet/**=30s"},
+                1 << 20, 1 << 16, 1_000, new SimpleMeterRegistry());
+
+        assertThat(cache.ttlFor("/greet/42")).isEqualTo(ROUTE_TTL);
+        assertThat(cache.ttlFor("/greet/admin/users")).isEqualTo(Duration.ZERO);
+        assertThat(cache.ttlFor("/welcome")).isNull();
+    }
+
+    private static Duration ttl(int status, HttpHeaders headers) {
+        return Duration.ofNanos(GatewayResponseCache.ttlNanos(status, headers, ROUTE_TTL));
+    }
+
+    private static HttpHeaders cacheControl(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(value);
+        return headers;
+    }
+
+    private static HttpHeaders vary(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.VARY, value);
+        return headers;
+    }
+}
@@ -0,0 +1,137 @@
+package com.alchemist.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.alchemist.cache.GatewayResponseCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+
+class ResponseCacheFilterTests {
+
+    private static final int REQUESTS = 8;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ResponseCacheFilter filter = new ResponseCacheFilter(
+            new GatewayResponseCache(new String[] {"/greet/**=30s"}, 1 << 20, 1 << 16, 5_000, registry));
+
+    @Test
+    void concurrentMissesMakeOneUpstreamCall() throws Exception {
+        CountingUpstream upstream = new CountingUpstream(false);
+
+        List<MockHttpServletResponse> responses = sendConcurrently(upstream);
+
+        assertThat(upstream.calls.get()).isEqualTo(1);
+        assertThat(outcomes(responses, "MISS")).isEqualTo(1);
+        assertThat(outcomes(responses, "COALESCED")).isEqualTo(REQUESTS - 1);
+        for (MockHttpServletResponse response : responses) {
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getContentAsString()).isEqualTo("ticket 42");
+        }
+
+        //and the next one is served from the cache
+        MockHttpServletResponse later = send(upstream);
+        assertThat(later.getHeader(GatewayResponseCache.X_CACHE)).isEqualTo("HIT");
+        assertThat(later.getContentAsString()).isEqualTo("ticket 42");
+        assertThat(upstream.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void waitingRequestsGoUpstreamThemselvesWhenTheResponseIsForOneClient() throws Exception {
+        CountingUpstream upstream = new CountingUpstream(true);
+
+        List<MockHttpServletResponse> responses = sendConcurrently(upstream);
+
+        assertThat(upstream.calls.get()).isEqualTo(REQUESTS);
+        for (MockHttpServletResponse response : responses) {
+            assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isEqualTo("session=" + response.getContentAsString());
+        }
+    }
+
+    private List<MockHttpServletResponse> sendConcurrently(CountingUpstream upstream) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(REQUESTS);
+        CyclicBarrier start = new CyclicBarrier(REQUESTS);
+        try {
+            List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return send(upstream);
+                }));
+            }
+            List<MockHttpServletResponse> responses = new ArrayList<>();
+            for (Future<MockHttpServletResponse> future : futures) {
+                responses.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return responses;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private MockHttpServletResponse send(FilterChain upstream) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/greet/42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, upstream);
+        return response;
+    }
+
+    private static long outcomes(List<MockHttpServletResponse> responses, String outcome) {
+        return responses.stream().filter(r -> outcome.equals(r.getHeader(GatewayResponseCache.X_CACHE))).count();
+    }
+
+    //stands in for the routed service; the first call is held until every other request has joined it
+    private final class CountingUpstream implements FilterChain {
+
+        final AtomicInteger calls = new AtomicInteger();
+        private final boolean setsCookie;
+
+        CountingUpstream(boolean setsCookie) {
+            this.setsCookie = setsCookie;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                awaitCoalesced(REQUESTS - 1);
+            }
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(200);
+            http.setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60");
+            String body = setsCookie ? "client-" + call : "ticket 42";
+            if (setsCookie) {
+                http.addHeader(HttpHeaders.SET_COOKIE, "session=" + body);
+            }
+            http.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void awaitCoalesced(int followers) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (registry.get("gateway.response.cache.coalesced").counter().count() < followers
+                    && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
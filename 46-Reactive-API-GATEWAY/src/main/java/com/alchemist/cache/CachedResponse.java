@@ -0,0 +1,23 @@
+package com.alchemist.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+
+/*
+ * A complete upstream response as the gateway keeps it: status, end-to-end headers and body bytes.
+ * Only storable responses become one, so whatever coalesced requests receive could also have come from the cache.
+ */
+public record CachedResponse(int status, HttpHeaders headers, byte[] body, long storedAtNanos, long ttlNanos) {
+
+    //rough per-header overhead on top of the body, good enough for the cache's byte budget
+    private static final int HEADER_WEIGHT = 64;
+
+    public int weight() {
+        return body.length + HEADER_WEIGHT * headers.size();
+    }
+
+    public long ageSeconds(long nowNanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(nowNanos - storedAtNanos);
+    }
+}
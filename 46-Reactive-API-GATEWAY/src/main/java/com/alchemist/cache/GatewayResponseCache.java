@@ -0,0 +1,198 @@
+package com.alchemist.cache;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*
+ * Shared store behind the ResponseCache route filter, bounded by gateway.response-cache.max-bytes of
+ * body and headers. Every entry expires after its own TTL: the route's ttl, shortened by the response's
+ * s-maxage / max-age. The cache holds the pending response itself, so concurrent misses for the same key
+ * wait for the first request's upstream call instead of making their own; a leader that fails completes
+ * with null and Caffeine drops the entry.
+ * Metrics: cache.gets / cache.evictions / cache.size with cache=gateway.responses, plus
+ * gateway.response.cache.coalesced for requests that joined an upstream call already in flight.
+ */
+@Component
+public class GatewayResponseCache {
+
+    public static final String X_CACHE = "X-Cache";
+
+    private static final Set<Integer> CACHEABLE_STATUSES = Set.of(200, 203, 204, 301, 404, 410);
+    private static final Set<String> HOP_BY_HOP = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+    //request headers that are part of the key, a response varying on anything else is not stored
+    private static final Set<String> KEYED_HEADERS = Set.of("accept", "accept-encoding");
+
+    private final AsyncCache<String, CachedResponse> cache;
+    private final int maxEntryBytes;
+    private final Duration coalesceTimeout;
+    private final Counter coalesced;
+
+    public GatewayResponseCache(@Value("${gateway.response-cache.max-bytes:67108864}") long maxBytes,
+                                @Value("${gateway.response-cache.max-entry-bytes:1048576}") int maxEntryBytes,
+                                @Value("${gateway.response-cache.coalesce-timeout-millis:10000}") long coalesceTimeoutMillis,
+                                MeterRegistry registry) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.coalesceTimeout = Duration.ofMillis(coalesceTimeoutMillis);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "gateway.responses");
+        this.coalesced = Counter.builder("gateway.response.cache.coalesced")
+                .description("Requests served by joining an upstream call already in flight")
+                .register(registry);
+    }
+
+    //returns the entry for key; when it is the given leader future, the caller has to fetch and complete it
+    public CompletableFuture<CachedResponse> getOrJoin(String key, CompletableFuture<CachedResponse> leader) {
+        CompletableFuture<CachedResponse> entry = cache.get(key, (k, executor) -> leader);
+        if (entry != leader && !entry.isDone()) {
+            coalesced.increment();
+        }
+        return entry;
+    }
+
+    //for requests that insist on a fresh response: their result replaces whatever is cached
+    public void replace(String key, CompletableFuture<CachedResponse> leader) {
+        cache.put(key, leader);
+    }
+
+    public Duration getCoalesceTimeout() {
+        return coalesceTimeout;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    //whether the body is worth copying at all, checked before any of it is read;
+    //a body of unknown length is copied until it goes past max-entry-bytes
+    public boolean canCapture(HttpHeaders responseHeaders) {
+        long length = responseHeaders.getContentLength();
+        MediaType type = responseHeaders.getContentType();
+        return length <= maxEntryBytes && (type == null || !MediaType.TEXT_EVENT_STREAM.isCompatibleWith(type));
+    }
+
+    //the response as it may be stored and handed to coalesced requests, null when it may be neither
+    public CachedResponse capture(int status, HttpHeaders responseHeaders, byte[] body, Duration routeTtl, long nowNanos) {
+        long ttl = body != null && body.length <= maxEntryBytes ? ttlNanos(status, responseHeaders, routeTtl) : 0;
+        if (ttl <= 0) {
+            //Set-Cookie, private or an unkeyed Vary: meant for this client only
+            return null;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        responseHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name.toLowerCase(Locale.ROOT)) && !X_CACHE.equalsIgnoreCase(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body, nowNanos, ttl);
+    }
+
+    static long ttlNanos(int status, HttpHeaders headers, Duration routeTtl) {
+        if (!CACHEABLE_STATUSES.contains(status) || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return 0;
+        }
+        for (String vary : headers.getVary()) {
+            if (!KEYED_HEADERS.contains(vary.trim().toLowerCase(Locale.ROOT))) {
+                return 0;
+            }
+        }
+        long ttl = routeTtl.toNanos();
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (String directive : directives(headers)) {
+            if (directive.equals("no-store") || directive.equals("no-cache") || directive.equals("private")) {
+                return 0;
+            }
+            if (directive.startsWith("s-maxage=")) {
+                sharedMaxAge = seconds(directive.substring("s-maxage=".length()));
+            } else if (directive.startsWith("max-age=")) {
+                maxAge = seconds(directive.substring("max-age=".length()));
+            }
+        }
+        //s-maxage is meant for shared caches like this one and wins over max-age
+        long upstreamTtl = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+        if (upstreamTtl >= 0) {
+            ttl = Math.min(ttl, Duration.ofSeconds(upstreamTtl).toNanos());
+        }
+        return ttl;
+    }
+
+    //requests that must not be answered from, nor stored in, a shared cache; cookies are not part of the key
+    public static boolean bypass(HttpHeaders requestHeaders) {
+        return requestHeaders.containsKey(HttpHeaders.AUTHORIZATION) || requestHeaders.containsKey(HttpHeaders.COOKIE)
+                || directives(requestHeaders).contains("no-store");
+    }
+
+    //requests that accept no stored response but whose fresh response may be stored
+    public static boolean revalidate(HttpHeaders requestHeaders) {
+        Set<String> directives = directives(requestHeaders);
+        return directives.contains("no-cache") || directives.contains("max-age=0")
+                || "no-cache".equalsIgnoreCase(requestHeaders.getFirst(HttpHeaders.PRAGMA));
+    }
+
+    public static String key(String routeId, URI uri, HttpHeaders requestHeaders) {
+        StringBuilder key = new StringBuilder(routeId).append(' ').append(uri.getRawPath());
+        if (uri.getRawQuery() != null) {
+            key.append('?').append(uri.getRawQuery());
+        }
+        return key.append('|').append(requestHeaders.getFirst(HttpHeaders.ACCEPT))
+                .append('|').append(requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING)).toString();
+    }
+
+    private static Set<String> directives(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null || cacheControl.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> directives = new HashSet<>();
+        for (String directive : cacheControl.split(",")) {
+            directives.add(directive.trim().toLowerCase(Locale.ROOT).replace("\"", ""));
+        }
+        return directives;
+    }
+
+    private static long seconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -1,39 +1,51 @@
 package com.alchemist.filter;
 
-import java.util.Set;
-
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.server.RequestPath;
-import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+
+import com.alchemist.observability.ExchangeRecorder;
+
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 @Component
 public class CustomGlobalFilter implements GlobalFilter, Ordered {
 
+    private static final String UNMATCHED = "unmatched";
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final ExchangeRecorder recorder;
+
+    public CustomGlobalFilter(ExchangeRecorder recorder) {
+        this.recorder = recorder;
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        System.out.println(">> Filter Execution Started::: ");
-        ServerHttpRequest request =exchange.getRequest();
-        RequestPath path = request.getPath();
-        System.out.println(">> Pre Filter: "+path);
-        System.out.println("--------------------------------------------");
-        HttpHeaders headers = request.getHeaders();
-        Set<String> keySet = headers.keySet();
-        for(String key: keySet) {
-        	System.out.print(key+" ");
-        	System.out.println(headers.getValuesAsList(key));
-        	
+        // Pre filter: only take the start time, nothing here may block the event loop
+        long start = System.nanoTime();
+        // Post filter: hand the outcome to the recorder, it is exported to Micrometer off-loop
+        return chain.filter(exchange).doFinally(signal -> record(exchange, signal, start));
+    }
+
+    private void record(ServerWebExchange exchange, SignalType signal, long start) {
+        long duration = System.nanoTime() - start;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        int status = statusCode != null ? statusCode.value() : 200;
+        if (signal == SignalType.CANCEL) {
+            status = CLIENT_CLOSED_REQUEST;
+        } else if (signal == SignalType.ON_ERROR && status < 400) {
+            // the error handler sets the real status after the chain, report it as a server error
+            status = 500;
         }
-        // Call the next filter in the chain
-        return chain.filter(exchange).then(Mono.fromRunnable(() -> {
-            // Post Filter logic
-            System.out.println("<< Post Filter: " + exchange.getResponse().getStatusCode());
-        }));
+        recorder.record(route != null ? route.getId() : UNMATCHED, exchange.getRequest().getPath().value(), status, duration);
     }
 
     @Override
@@ -0,0 +1,302 @@
+package com.alchemist.filter;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.alchemist.ratelimit.AdaptiveConcurrencyLimit;
+import com.alchemist.ratelimit.KeyedTokenBuckets;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/*
+ * In-process admission control for a route, used as "LocalRateLimit" in the route's filters.
+ * Token bucket per key (route, client IP or header) rejects with 429; the optional adaptive concurrency limit
+ * per route rejects with 503 once backend latency rises above its baseline. All state lives in this JVM,
+ * so every gateway instance enforces its own share, with no Redis round trip per request.
+ */
+@Component
+public class LocalRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+    public enum KeyType { ROUTE, IP, HEADER }
+
+    private final MeterRegistry registry;
+    // keyed by route id: routes are rebuilt on every refresh (e.g. Eureka heartbeats), the limiter state must survive that
+    private final ConcurrentMap<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+
+    public LocalRateLimitGatewayFilterFactory(MeterRegistry registry) {
+        super(Config.class);
+        this.registry = registry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        RouteLimiter limiter = limiters.compute(routeId, (id, existing) -> {
+            if (existing != null && existing.signature.equals(config.signature())) {
+                return existing;
+            }
+            if (existing != null) {
+                existing.meters.forEach(registry::remove);
+            }
+            return createLimiter(id, config);
+        });
+        return new LocalRateLimitFilter(config.getKey(), config.getHeaderName(), limiter);
+    }
+
+    private RouteLimiter createLimiter(String routeId, Config config) {
+        List<Meter> meters = new ArrayList<>();
+        KeyedTokenBuckets buckets = null;
+        if (config.getReplenishRate() > 0) {
+            int stripes = config.getStripes() > 0 ? config.getStripes()
+                    : config.getKey() == KeyType.ROUTE ? Runtime.getRuntime().availableProcessors() : 1;
+            buckets = new KeyedTokenBuckets(config.getReplenishRate(), Math.max(config.getBurstCapacity(), 1), stripes);
+        }
+        AdaptiveConcurrencyLimit concurrency = null;
+        if (config.isAdaptive()) {
+            concurrency = new AdaptiveConcurrencyLimit(config.getInitialLimit(), config.getMinLimit(),
+                    config.getMaxLimit(), config.getLatencyTolerance(), config.getBackoffRatio(),
+                    config.getBaselineWindow().toNanos());
+            meters.add(Gauge.builder("gateway.concurrency.limit", concurrency, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("route", routeId).strongReference(true).register(registry));
+            meters.add(Gauge.builder("gateway.concurrency.in.flight", concurrency, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("route", routeId).strongReference(true).register(registry));
+        }
+        Counter rateLimited = Counter.builder("gateway.requests.shed")
+                .tag("route", routeId).tag("reason", "rate-limit").register(registry);
+        Counter concurrencyLimited = Counter.builder("gateway.requests.shed")
+                .tag("route", routeId).tag("reason", "concurrency-limit").register(registry);
+        return new RouteLimiter(config.signature(), buckets, concurrency, rateLimited, concurrencyLimited, meters);
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.idle-sweep-millis:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (RouteLimiter limiter : limiters.values()) {
+            if (limiter.buckets != null) {
+                limiter.buckets.evictIdle(now);
+            }
+        }
+    }
+
+    private record RouteLimiter(String signature, KeyedTokenBuckets buckets, AdaptiveConcurrencyLimit concurrency,
+                                Counter rateLimited, Counter concurrencyLimited, List<Meter> meters) {
+    }
+
+    private static final class LocalRateLimitFilter implements GatewayFilter {
+
+        private final KeyType keyType;
+        private final String headerName;
+        private final KeyedTokenBuckets buckets;
+        private final AdaptiveConcurrencyLimit concurrency;
+        private final RouteLimiter limiter;
+
+        LocalRateLimitFilter(KeyType keyType, String headerName, RouteLimiter limiter) {
+            this.keyType = keyType;
+            this.headerName = headerName;
+            this.buckets = limiter.buckets;
+            this.concurrency = limiter.concurrency;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            if (buckets != null) {
+                String key = key(exchange);
+                long now = System.nanoTime();
+                if (!buckets.tryAcquire(key, now)) {
+                    limiter.rateLimited.increment();
+                    long waitSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(buckets.nanosUntilNextToken(key, now) + 999_999_999));
+                    return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, waitSeconds);
+                }
+            }
+            if (concurrency == null) {
+                return chain.filter(exchange);
+            }
+            if (!concurrency.tryAcquire()) {
+                limiter.concurrencyLimited.increment();
+                return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> concurrency.release(System.nanoTime() - start, signal != SignalType.CANCEL));
+        }
+
+        private String key(ServerWebExchange exchange) {
+            switch (keyType) {
+                case IP:
+                    InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+                    return remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "unknown";
+                case HEADER:
+                    String value = exchange.getRequest().getHeaders().getFirst(headerName);
+                    // requests without the header share one bucket
+                    return value != null ? value : "";
+                default:
+                    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                    return route != null ? route.getId() : "";
+            }
+        }
+
+        private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, long retryAfterSeconds) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return response.setComplete();
+        }
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        // token bucket, replenishRate <= 0 turns it off
+        private KeyType key = KeyType.ROUTE;
+        private String headerName = "X-API-Key";
+        private double replenishRate;
+        private int burstCapacity;
+        private int stripes;
+        // adaptive concurrency limit
+        private boolean adaptive;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 1000;
+        private double latencyTolerance = 2.0;
+        private double backoffRatio = 0.9;
+        private Duration baselineWindow = Duration.ofSeconds(30);
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public KeyType getKey() {
+            return key;
+        }
+
+        public void setKey(KeyType key) {
+            this.key = key;
+        }
+
+        public String getHeaderName() {
+            return headerName;
+        }
+
+        public void setHeaderName(String headerName) {
+            this.headerName = headerName;
+        }
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getLatencyTolerance() {
+            return latencyTolerance;
+        }
+
+        public void setLatencyTolerance(double latencyTolerance) {
+            this.latencyTolerance = latencyTolerance;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public Duration getBaselineWindow() {
+            return baselineWindow;
+        }
+
+        public void setBaselineWindow(Duration baselineWindow) {
+            this.baselineWindow = baselineWindow;
+        }
+
+        // the settings that shape the limiter state, a route keeps its limiter while these stay the same
+        String signature() {
+            return key + "|" + headerName + "|" + replenishRate + "|" + burstCapacity + "|" + stripes + "|" + adaptive
+                    + "|" + initialLimit + "|" + minLimit + "|" + maxLimit + "|" + latencyTolerance + "|"
+                    + backoffRatio + "|" + baselineWindow;
+        }
+    }
+}
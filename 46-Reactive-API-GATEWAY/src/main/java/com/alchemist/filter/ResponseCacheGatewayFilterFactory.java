@@ -0,0 +1,165 @@
+package com.alchemist.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.alchemist.cache.CachedResponse;
+import com.alchemist.cache.GatewayResponseCache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Caches GET responses of a route, used as "ResponseCache" in the route's filters with a per-route ttl.
+ * A miss makes the upstream call and streams the body through while keeping a copy; requests for the same key
+ * arriving meanwhile wait for that call (X-Cache: COALESCED) and later ones are served from memory
+ * (X-Cache: HIT, with Age) until the entry expires. Responses marked no-store / no-cache / private,
+ * with Set-Cookie or larger than max-entry-bytes are passed on without being stored or shared, and the
+ * waiting requests then make their own upstream calls. Requests with Authorization or Cookie skip the cache.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private final GatewayResponseCache cache;
+
+    public ResponseCacheGatewayFilterFactory(GatewayResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Duration ttl = config.getTtl();
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpHeaders requestHeaders = request.getHeaders();
+            if (request.getMethod() != HttpMethod.GET || GatewayResponseCache.bypass(requestHeaders)) {
+                return chain.filter(exchange);
+            }
+            String key = GatewayResponseCache.key(routeId, request.getURI(), requestHeaders);
+            CompletableFuture<CachedResponse> leader = new CompletableFuture<>();
+            CompletableFuture<CachedResponse> entry;
+            if (GatewayResponseCache.revalidate(requestHeaders)) {
+                cache.replace(key, leader);
+                entry = leader;
+            } else {
+                entry = cache.getOrJoin(key, leader);
+            }
+            if (entry != leader) {
+                String outcome = entry.isDone() ? "HIT" : "COALESCED";
+                // empty when the leader failed, timed out or got a response for its client only: call upstream ourselves
+                return Mono.fromFuture(entry, true)
+                        .timeout(cache.getCoalesceTimeout(), Mono.empty())
+                        .flatMap(cached -> write(exchange, cached, outcome).thenReturn(Boolean.TRUE))
+                        .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(Boolean.FALSE)))
+                        .then();
+            }
+            CapturingResponse response = new CapturingResponse(exchange.getResponse(), ttl, leader);
+            // whatever ends the call without a captured body releases the waiting requests with an empty result
+            return chain.filter(exchange.mutate().response(response).build())
+                    .doFinally(signal -> leader.complete(null));
+        };
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String outcome) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.set(GatewayResponseCache.X_CACHE, outcome);
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds(System.nanoTime())));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    //passes the upstream body through while keeping a copy of up to max-entry-bytes, which goes to the cache
+    //and the waiting requests once the body is complete
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final Duration ttl;
+        private final CompletableFuture<CachedResponse> leader;
+
+        CapturingResponse(ServerHttpResponse delegate, Duration ttl, CompletableFuture<CachedResponse> leader) {
+            super(delegate);
+            this.ttl = ttl;
+            this.leader = leader;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            headers.set(GatewayResponseCache.X_CACHE, "MISS");
+            if (!cache.canCapture(headers)) {
+                leader.complete(null);
+                return super.writeWith(body);
+            }
+            int limit = cache.getMaxEntryBytes();
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] overflow = new boolean[1];
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(buffer -> {
+                        int length = buffer.readableByteCount();
+                        if (overflow[0] || copy.size() + length > limit) {
+                            //too big to keep, stop copying and just stream the rest
+                            overflow[0] = true;
+                            copy.reset();
+                            return;
+                        }
+                        byte[] bytes = new byte[length];
+                        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, length);
+                        copy.writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        HttpStatusCode status = getStatusCode();
+                        leader.complete(cache.capture(status != null ? status.value() : 200, headers,
+                                overflow[0] ? null : copy.toByteArray(), ttl, System.nanoTime()));
+                    }));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(part -> part));
+        }
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private Duration ttl = Duration.ofSeconds(30);
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
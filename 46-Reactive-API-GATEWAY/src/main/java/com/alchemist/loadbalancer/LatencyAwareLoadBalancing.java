@@ -0,0 +1,15 @@
+package com.alchemist.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Replaces round robin with LatencyAwareLoadBalancer for every lb:// service.
+ * loadbalancer.latency-aware.enabled=false goes back to the Spring Cloud default.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "loadbalancer.latency-aware.enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LatencyAwareLoadBalancing {
+}
@@ -0,0 +1,75 @@
+package com.alchemist.observability;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Pre-sized single-producer / single-consumer ring of finished exchanges.
+ * The owning event loop appends with plain array stores and one ordered write of the tail;
+ * the exporter drains it from another thread. A full ring drops the record instead of waiting.
+ */
+final class ExchangeBuffer {
+
+    private final Thread owner;
+    private final String[] routes;
+    private final String[] paths;
+    private final int[] statuses;
+    private final long[] durations;
+    private final int mask;
+    //tail and dropped are written by the owner only, head by the exporter only
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    ExchangeBuffer(Thread owner, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.owner = owner;
+        this.routes = new String[size];
+        this.paths = new String[size];
+        this.statuses = new int[size];
+        this.durations = new long[size];
+        this.mask = size - 1;
+    }
+
+    boolean offer(String route, String path, int status, long durationNanos) {
+        long t = tail.getPlain();
+        if (t - head.get() > mask) {
+            dropped.lazySet(dropped.getPlain() + 1);
+            return false;
+        }
+        int i = (int) t & mask;
+        routes[i] = route;
+        paths[i] = path;
+        statuses[i] = status;
+        durations[i] = durationNanos;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    int drain(ExchangeSink sink) {
+        long h = head.getPlain();
+        long t = tail.get();
+        int count = 0;
+        for (; h < t; h++, count++) {
+            int i = (int) h & mask;
+            sink.accept(routes[i], paths[i], statuses[i], durations[i]);
+            routes[i] = null;
+            paths[i] = null;
+        }
+        head.lazySet(h);
+        return count;
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    Thread owner() {
+        return owner;
+    }
+
+    @FunctionalInterface
+    interface ExchangeSink {
+
+        void accept(String route, String path, int status, long durationNanos);
+    }
+}
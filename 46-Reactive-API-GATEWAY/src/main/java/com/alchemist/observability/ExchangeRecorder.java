@@ -0,0 +1,122 @@
+package com.alchemist.observability;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/*
+ * Collects route, path, status and latency of every exchange without touching shared state on the event loop.
+ * Each thread that completes exchanges (in practice the Netty event loops) owns one ExchangeBuffer;
+ * a scheduled task drains all of them and feeds Micrometer, so timer lookups, tag handling and logging
+ * of slow exchanges happen off-loop. The buffer of a thread that has ended is drained one last time and dropped.
+ */
+@Component
+public class ExchangeRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRecorder.class);
+
+    private static final String[] STATUS_TAGS = new String[600];
+
+    static {
+        for (int i = 0; i < STATUS_TAGS.length; i++) {
+            STATUS_TAGS[i] = String.valueOf(i);
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final long slowThresholdNanos;
+    private final Queue<ExchangeBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final FastThreadLocal<ExchangeBuffer> localBuffer;
+    //touched by the exporter only
+    private final Map<String, Timer[]> timers = new HashMap<>();
+    private final ExchangeBuffer.ExchangeSink exportSink = this::export;
+    //drops counted by buffers that are gone, so the counter never goes backwards; guarded by this
+    private long retiredDropped;
+
+    public ExchangeRecorder(@Value("${gateway.observability.buffer-size:4096}") int bufferSize,
+                            @Value("${gateway.observability.slow-threshold-millis:1000}") long slowThresholdMillis,
+                            MeterRegistry registry) {
+        this.registry = registry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.localBuffer = new FastThreadLocal<>() {
+            @Override
+            protected ExchangeBuffer initialValue() {
+                ExchangeBuffer buffer = new ExchangeBuffer(Thread.currentThread(), bufferSize);
+                buffers.add(buffer);
+                return buffer;
+            }
+        };
+        FunctionCounter.builder("gateway.exchanges.dropped", this, ExchangeRecorder::dropped)
+                .description("Exchanges not recorded because the event loop's buffer was full")
+                .register(registry);
+    }
+
+    //hot path, runs on the thread that completed the exchange
+    public void record(String route, String path, int status, long durationNanos) {
+        localBuffer.get().offer(route, path, status, durationNanos);
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.observability.export-interval-millis:1000}")
+    public synchronized int export() {
+        int exported = 0;
+        for (Iterator<ExchangeBuffer> it = buffers.iterator(); it.hasNext();) {
+            ExchangeBuffer buffer = it.next();
+            //checked before draining: a thread seen dead has made all its writes visible
+            boolean ended = !buffer.owner().isAlive();
+            exported += buffer.drain(exportSink);
+            if (ended) {
+                it.remove();
+                retiredDropped += buffer.dropped();
+            }
+        }
+        return exported;
+    }
+
+    private void export(String route, String path, int status, long durationNanos) {
+        timer(route, status).record(durationNanos, TimeUnit.NANOSECONDS);
+        if (durationNanos >= slowThresholdNanos) {
+            log.warn("Slow exchange: route={} path={} status={} took {} ms", route, path, status,
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        }
+    }
+
+    private Timer timer(String route, int status) {
+        Timer[] byStatus = timers.computeIfAbsent(route, r -> new Timer[STATUS_TAGS.length]);
+        int index = status >= 0 && status < STATUS_TAGS.length ? status : 0;
+        Timer timer = byStatus[index];
+        if (timer == null) {
+            timer = Timer.builder("gateway.exchanges")
+                    .description("Exchanges completed by the gateway")
+                    .tag("route", route)
+                    .tag("status", STATUS_TAGS[index])
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .distributionStatisticExpiry(Duration.ofMinutes(1))
+                    .register(registry);
+            byStatus[index] = timer;
+        }
+        return timer;
+    }
+
+    private synchronized double dropped() {
+        long total = retiredDropped;
+        for (ExchangeBuffer buffer : buffers) {
+            total += buffer.dropped();
+        }
+        return total;
+    }
+}
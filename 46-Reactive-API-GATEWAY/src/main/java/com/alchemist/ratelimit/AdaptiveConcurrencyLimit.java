@@ -0,0 +1,114 @@
+package com.alchemist.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * AIMD concurrency limit driven by latency, for shedding load before a backend's queue builds up.
+ * The baseline is the lowest latency seen over the last window, i.e. what the backend does when it is not queueing.
+ * Each response updates a moving average of latency over roughly the last SMOOTHING responses. While that average
+ * is above baseline * tolerance the limit is cut by the backoff ratio (at most once per baseline interval, so one
+ * burst of slow responses counts once); otherwise each response grows it by 1/limit, roughly +1 per limit's worth
+ * of requests. Single slow responses only move the average a little, so ordinary jitter leaves the limit alone.
+ * Requests beyond the limit are rejected straight away.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final int SMOOTHING = 16;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoff;
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    //the limit as double bits, fractional growth needs the precision
+    private final AtomicLong limit;
+    private final AtomicLong windowMin = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong windowEnd;
+    private final AtomicLong lastDecrease = new AtomicLong();
+    private final AtomicLong smoothedNanos = new AtomicLong();
+    private volatile long baselineNanos = Long.MAX_VALUE;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoff,
+                                    long windowNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.windowNanos = windowNanos;
+        this.limit = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+        long now = System.nanoTime();
+        this.windowEnd = new AtomicLong(now + windowNanos);
+        lastDecrease.set(now);
+    }
+
+    public boolean tryAcquire() {
+        int current = getLimit();
+        while (true) {
+            int n = inFlight.get();
+            if (n >= current) {
+                return false;
+            }
+            if (inFlight.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+    }
+
+    //sample=false for cancelled requests, their latency says nothing about the backend
+    public void release(long latencyNanos, boolean sample) {
+        inFlight.decrementAndGet();
+        if (sample) {
+            onSample(latencyNanos, System.nanoTime());
+        }
+    }
+
+    private void onSample(long latencyNanos, long now) {
+        long min = windowMin.accumulateAndGet(latencyNanos, Math::min);
+        long end = windowEnd.get();
+        if (now - end >= 0 && windowEnd.compareAndSet(end, now + windowNanos)) {
+            baselineNanos = min;
+            windowMin.set(Long.MAX_VALUE);
+        }
+        long smoothed = smoothedNanos.accumulateAndGet(latencyNanos,
+                (average, sample) -> average == 0 ? sample : average + (sample - average) / SMOOTHING);
+        long baseline = Math.min(baselineNanos, min);
+        if (smoothed > baseline * tolerance) {
+            long last = lastDecrease.get();
+            if (now - last > baseline && lastDecrease.compareAndSet(last, now)) {
+                update(true);
+            }
+        } else {
+            update(false);
+        }
+    }
+
+    private void update(boolean decrease) {
+        while (true) {
+            long bits = limit.get();
+            double current = Double.longBitsToDouble(bits);
+            double next = decrease ? Math.max(minLimit, current * backoff) : Math.min(maxLimit, current + 1 / current);
+            if (next == current || limit.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getBaselineNanos() {
+        return baselineNanos;
+    }
+
+    public long getSmoothedNanos() {
+        return smoothedNanos.get();
+    }
+}
@@ -0,0 +1,45 @@
+package com.alchemist.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * One StripedTokenBucket per key (route, client IP or header value).
+ * Buckets that have refilled completely hold no state worth keeping and are evicted by evictIdle().
+ */
+public class KeyedTokenBuckets {
+
+    private final ConcurrentMap<String, StripedTokenBucket> buckets = new ConcurrentHashMap<>();
+    private final double tokensPerSecond;
+    private final int burstCapacity;
+    private final int stripes;
+
+    public KeyedTokenBuckets(double tokensPerSecond, int burstCapacity, int stripes) {
+        this.tokensPerSecond = tokensPerSecond;
+        this.burstCapacity = burstCapacity;
+        this.stripes = stripes;
+    }
+
+    public boolean tryAcquire(String key, long nowNanos) {
+        StripedTokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new StripedTokenBucket(tokensPerSecond, burstCapacity, stripes, nowNanos));
+        }
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    public long nanosUntilNextToken(String key, long nowNanos) {
+        StripedTokenBucket bucket = buckets.get(key);
+        return bucket == null ? 0 : bucket.nanosUntilNextToken(nowNanos);
+    }
+
+    public int evictIdle(long nowNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdle(nowNanos));
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,75 @@
+package com.alchemist.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Token bucket split into independent stripes so event loops hitting the same key rarely CAS the same word.
+ * Each stripe is a GCRA cell: one long holding the theoretical arrival time, which is equivalent to a
+ * bucket of burst/stripes tokens refilled at rate/stripes per second. A thread starts at its own stripe
+ * and moves on to the others only when that one is empty, so the bucket as a whole still admits the full rate.
+ */
+public class StripedTokenBucket {
+
+    //longs per stripe, keeps every stripe on its own cache line
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+    private final long emissionNanos;
+    private final long burstNanos;
+
+    public StripedTokenBucket(double tokensPerSecond, int burstCapacity, int stripes, long nowNanos) {
+        int n = Integer.highestOneBit(Math.max(1, Math.min(stripes, burstCapacity)));
+        this.stripes = n;
+        this.emissionNanos = (long) (n * 1_000_000_000d / tokensPerSecond);
+        this.burstNanos = (long) Math.ceil((double) burstCapacity / n) * emissionNanos;
+        this.cells = new AtomicLongArray(n * PAD);
+        //a theoretical arrival time in the past means a full bucket
+        for (int i = 0; i < n; i++) {
+            cells.set(i * PAD, nowNanos);
+        }
+    }
+
+    public boolean tryAcquire(long nowNanos) {
+        int home = (int) Thread.currentThread().getId();
+        for (int i = 0; i < stripes; i++) {
+            if (tryAcquire(((home + i) & (stripes - 1)) * PAD, nowNanos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryAcquire(int cell, long nowNanos) {
+        while (true) {
+            long tat = cells.get(cell);
+            long next = Math.max(tat, nowNanos) + emissionNanos;
+            if (next - nowNanos > burstNanos) {
+                return false;
+            }
+            if (cells.compareAndSet(cell, tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    //how long until some stripe has a token again
+    public long nanosUntilNextToken(long nowNanos) {
+        long wait = Long.MAX_VALUE;
+        for (int i = 0; i < stripes; i++) {
+            long next = Math.max(cells.get(i * PAD), nowNanos) + emissionNanos;
+            wait = Math.min(wait, next - nowNanos - burstNanos);
+        }
+        return Math.max(0, wait);
+    }
+
+    //true when every stripe is full again, so the bucket can be dropped and recreated on demand
+    public boolean isIdle(long nowNanos) {
+        for (int i = 0; i < stripes; i++) {
+            if (cells.get(i * PAD) - nowNanos > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,142 @@
+package com.alchemist.benchmark;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.alchemist.Application;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+/*
+ * Overloads a stub GREET-API behind the gateway and reports the backend's own latency percentiles.
+ * The stub has a fixed number of workers and a fixed service time, so its capacity is workers / service time
+ * and everything above that queues. The same open-loop load (offered regardless of how fast responses come back)
+ * runs three times: no admission control, a route token bucket just under the capacity, and the adaptive
+ * concurrency limit.
+ *
+ * Usage: GatewaySaturationDriver [requestsPerSecond=800] [seconds=15] [workers=8] [serviceMillis=20]
+ */
+public class GatewaySaturationDriver {
+
+	public static void main(String[] args) {
+		int rps = args.length > 0 ? Integer.parseInt(args[0]) : 800;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+		int workers = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+		int serviceMillis = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+		int capacity = workers * 1000 / serviceMillis;
+		System.out.printf("backend capacity %d req/s, offered %d req/s for %d s%n", capacity, rps, seconds);
+
+		Map<String, String[]> modes = new LinkedHashMap<>();
+		modes.put("no limit", new String[0]);
+		modes.put("token bucket", new String[] {
+				"spring.cloud.gateway.routes[0].filters[0].name=LocalRateLimit",
+				"spring.cloud.gateway.routes[0].filters[0].args.key=route",
+				"spring.cloud.gateway.routes[0].filters[0].args.replenish-rate=" + (capacity * 9 / 10),
+				"spring.cloud.gateway.routes[0].filters[0].args.burst-capacity=" + workers * 2 });
+		modes.put("adaptive", new String[] {
+				"spring.cloud.gateway.routes[0].filters[0].name=LocalRateLimit",
+				"spring.cloud.gateway.routes[0].filters[0].args.adaptive=true",
+				"spring.cloud.gateway.routes[0].filters[0].args.initial-limit=" + workers * 2,
+				"spring.cloud.gateway.routes[0].filters[0].args.baseline-window=5s" });
+
+		for (Map.Entry<String, String[]> mode : modes.entrySet()) {
+			run(mode.getKey(), mode.getValue(), rps, seconds, workers, serviceMillis);
+		}
+	}
+
+	private static void run(String mode, String[] filterProperties, int rps, int seconds, int workers, int serviceMillis) {
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		Scheduler backendWorkers = Schedulers.fromExecutorService(pool);
+		ConcurrentLinkedQueue<Long> backendLatencies = new ConcurrentLinkedQueue<>();
+		DisposableServer backend = HttpServer.create().port(0)
+				.route(routes -> routes.get("/greet", (request, response) -> {
+					long arrived = System.nanoTime();
+					return response.sendString(Mono.fromCallable(() -> {
+						Thread.sleep(serviceMillis);
+						backendLatencies.add(System.nanoTime() - arrived);
+						return "Good Morning(stub)";
+					}).subscribeOn(backendWorkers));
+				}))
+				.bindNow();
+
+		String[] properties = new String[filterProperties.length + 9];
+		properties[0] = "server.port=0";
+		properties[1] = "eureka.client.enabled=false";
+		properties[2] = "spring.cloud.gateway.discovery.locator.enabled=false";
+		properties[3] = "spring.cloud.gateway.routes[0].id=greet-api";
+		properties[4] = "spring.cloud.gateway.routes[0].uri=http://localhost:" + backend.port();
+		properties[5] = "spring.cloud.gateway.routes[0].predicates[0]=Path=/greet/**";
+		properties[6] = "logging.level.root=WARN";
+		properties[7] = "spring.main.banner-mode=off";
+		properties[8] = "gateway.observability.slow-threshold-millis=600000";
+		System.arraycopy(filterProperties, 0, properties, 9, filterProperties.length);
+		//command line arguments, so the route list replaces the one in application.yml
+		ConfigurableApplicationContext gateway = new SpringApplicationBuilder(Application.class)
+				.run(Arrays.stream(properties).map(p -> "--" + p).toArray(String[]::new));
+		int gatewayPort = Integer.parseInt(gateway.getEnvironment().getProperty("local.server.port"));
+
+		ConnectionProvider connections = ConnectionProvider.builder("saturation").maxConnections(5000)
+				.pendingAcquireMaxCount(-1).build();
+		HttpClient client = HttpClient.create(connections).baseUrl("http://localhost:" + gatewayPort)
+				.responseTimeout(Duration.ofSeconds(60));
+		Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		ConcurrentLinkedQueue<Long> clientLatencies = new ConcurrentLinkedQueue<>();
+
+		//open loop: a batch every 10 ms, independent of how the gateway keeps up
+		int perTick = Math.max(1, rps / 100);
+		long ticks = seconds * 100L;
+		Flux.interval(Duration.ofMillis(10)).take(ticks)
+				.flatMap(tick -> Flux.range(0, perTick))
+				.flatMap(i -> {
+					long start = System.nanoTime();
+					return client.get().uri("/greet").responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+							.onErrorReturn(-1)
+							.doOnNext(status -> {
+								statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+								if (status == 200) {
+									clientLatencies.add(System.nanoTime() - start);
+								}
+							});
+				}, Integer.MAX_VALUE)
+				.blockLast(Duration.ofSeconds(seconds + 120L));
+
+		System.out.printf("%-13s statuses %s | backend p50 %6.1f ms p99 %7.1f ms max %7.1f ms | client p99 (200s) %7.1f ms%n",
+				mode, statuses, percentile(backendLatencies, 0.50), percentile(backendLatencies, 0.99),
+				percentile(backendLatencies, 1.0), percentile(clientLatencies, 0.99));
+
+		gateway.close();
+		connections.disposeLater().block();
+		backend.disposeNow();
+		backendWorkers.dispose();
+		pool.shutdownNow();
+	}
+
+	private static double percentile(ConcurrentLinkedQueue<Long> samples, double p) {
+		long[] sorted = samples.stream().mapToLong(Long::longValue).toArray();
+		if (sorted.length == 0) {
+			return 0;
+		}
+		Arrays.sort(sorted);
+		int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+		return sorted[Math.max(0, index)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.alchemist.benchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.alchemist.filter.CustomGlobalFilter;
+import com.alchemist.observability.ExchangeRecorder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/*
+ * Exchanges per millisecond through the global filter with 8 threads standing in for event loops:
+ * no filter, the old println filter and the recording filter (exported every 100 ms, as in the app).
+ * Run with the GC profiler so the allocation per exchange shows next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobalFilterBenchmark {
+
+	@Param({ "none", "println", "recorder" })
+	public String filter;
+
+	private GlobalFilter globalFilter;
+	private ScheduledExecutorService exporter;
+	private PrintStream originalOut;
+	private Path logFile;
+
+	private final GatewayFilterChain chain = exchange -> {
+		exchange.getResponse().setStatusCode(HttpStatus.OK);
+		return Mono.empty();
+	};
+
+	@State(Scope.Thread)
+	public static class Exchange {
+
+		ServerWebExchange exchange;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/greet")
+					.header(HttpHeaders.HOST, "localhost:2222")
+					.header(HttpHeaders.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36")
+					.header(HttpHeaders.ACCEPT, "application/json, text/plain, */*")
+					.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br")
+					.header(HttpHeaders.ACCEPT_LANGUAGE, "en-US,en;q=0.9")
+					.header("X-Forwarded-For", "10.0.0.17")
+					.header("X-Request-Id", "5f0c6a4e-8d21-4b5e-9a57-0f1f3c2d7e11"));
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		logFile = Files.createTempFile("gateway-filter", ".log");
+		originalOut = System.out;
+		if ("println".equals(filter)) {
+			System.setOut(new PrintStream(new FileOutputStream(logFile.toFile()), true));
+			globalFilter = new PrintlnGlobalFilter();
+		} else if ("recorder".equals(filter)) {
+			ExchangeRecorder recorder = new ExchangeRecorder(4096, 1000, new SimpleMeterRegistry());
+			exporter = Executors.newSingleThreadScheduledExecutor();
+			exporter.scheduleWithFixedDelay(recorder::export, 100, 100, TimeUnit.MILLISECONDS);
+			globalFilter = new CustomGlobalFilter(recorder);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		if (exporter != null) {
+			exporter.shutdownNow();
+		}
+		System.setOut(originalOut);
+		Files.deleteIfExists(logFile);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Object exchange(Exchange state) {
+		Mono<Void> result = globalFilter == null ? chain.filter(state.exchange) : globalFilter.filter(state.exchange, chain);
+		return result.block();
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(GlobalFilterBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+	//the filter as it was before the recorder
+	static class PrintlnGlobalFilter implements GlobalFilter {
+
+		@Override
+		public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+			System.out.println(">> Filter Execution Started::: ");
+			System.out.println(">> Pre Filter: " + exchange.getRequest().getPath());
+			System.out.println("--------------------------------------------");
+			HttpHeaders headers = exchange.getRequest().getHeaders();
+			Set<String> keySet = headers.keySet();
+			for (String key : keySet) {
+				System.out.print(key + " ");
+				System.out.println(headers.getValuesAsList(key));
+			}
+			return chain.filter(exchange).then(Mono.fromRunnable(() -> {
+				System.out.println("<< Post Filter: " + exchange.getResponse().getStatusCode());
+			}));
+		}
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.alchemist.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.alchemist.Application;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+/*
+ * Tail latency of lb:// routing with round robin and with LatencyAwareLoadBalancer.
+ * Starts a few stub GREET-API instances, the first of them slowMillis per call and the others serviceMillis
+ * (plus up to the same again of jitter), registers them through the simple discovery client and has a fixed
+ * number of clients call the gateway back to back. Prints latency percentiles and each instance's share of calls.
+ *
+ * Usage: LoadBalancerTailLatencySimulation [instances=3] [clients=32] [seconds=15] [serviceMillis=10] [slowMillis=100]
+ */
+public class LoadBalancerTailLatencySimulation {
+
+	private static final String SERVICE_ID = "greet-stub";
+
+	public static void main(String[] args) {
+		int instances = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+		int serviceMillis = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		int slowMillis = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+
+		List<DisposableServer> backends = new ArrayList<>();
+		for (int i = 0; i < instances; i++) {
+			String name = "instance-" + i;
+			int millis = i == 0 ? slowMillis : serviceMillis;
+			backends.add(HttpServer.create().port(0)
+					.route(routes -> routes.get("/greet", (request, response) -> response
+							.header("X-Instance", name)
+							.sendString(Mono.just("Good Morning(" + name + ")")
+									.delayElement(Duration.ofMillis(millis + ThreadLocalRandom.current().nextInt(millis + 1))))))
+					.bindNow());
+		}
+		System.out.printf("%d instances, instance-0 at %d ms, others at %d ms (+ jitter), %d clients, %d s%n", instances,
+				slowMillis, serviceMillis, clients, seconds);
+
+		run("round robin", false, backends, clients, seconds);
+		run("p2c latency", true, backends, clients, seconds);
+		backends.forEach(DisposableServer::disposeNow);
+	}
+
+	private static void run(String mode, boolean latencyAware, List<DisposableServer> backends, int clients, int seconds) {
+		List<String> properties = new ArrayList<>(Arrays.asList(
+				"server.port=0",
+				"eureka.client.enabled=false",
+				"spring.cloud.gateway.discovery.locator.enabled=false",
+				"spring.cloud.gateway.routes[0].id=greet-api",
+				"spring.cloud.gateway.routes[0].uri=lb://" + SERVICE_ID,
+				"spring.cloud.gateway.routes[0].predicates[0]=Path=/greet/**",
+				"loadbalancer.latency-aware.enabled=" + latencyAware,
+				"logging.level.root=WARN",
+				"spring.main.banner-mode=off"));
+		for (int i = 0; i < backends.size(); i++) {
+			properties.add("spring.cloud.discovery.client.simple.instances." + SERVICE_ID + "[" + i + "].uri=http://localhost:"
+					+ backends.get(i).port());
+		}
+		//command line arguments, so the route list replaces the one in application.yml
+		ConfigurableApplicationContext gateway = new SpringApplicationBuilder(Application.class)
+				.run(properties.stream().map(p -> "--" + p).toArray(String[]::new));
+		int gatewayPort = Integer.parseInt(gateway.getEnvironment().getProperty("local.server.port"));
+		HttpClient client = HttpClient.create().baseUrl("http://localhost:" + gatewayPort);
+
+		//a short warm-up, so both modes start with a warm JIT and the latency averages already filled in
+		drive(client, clients, 2, new ConcurrentLinkedQueue<>(), new ConcurrentHashMap<>());
+		ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+		Map<String, LongAdder> shares = new ConcurrentHashMap<>();
+		long start = System.nanoTime();
+		drive(client, clients, seconds, latencies, shares);
+		double elapsed = (System.nanoTime() - start) / 1e9;
+
+		long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+		Map<String, Long> perInstance = new TreeMap<>();
+		shares.forEach((instance, count) -> perInstance.put(instance, count.sum()));
+		System.out.printf("%-12s %7d calls (%5.0f/s)  p50 %6.1f  p90 %6.1f  p99 %6.1f  p99.9 %6.1f  max %6.1f ms | %s%n",
+				mode, sorted.length, sorted.length / elapsed, percentile(sorted, 0.50), percentile(sorted, 0.90),
+				percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 1.0), perInstance);
+		gateway.close();
+	}
+
+	private static void drive(HttpClient client, int clients, int seconds, ConcurrentLinkedQueue<Long> latencies,
+			Map<String, LongAdder> shares) {
+		long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		Flux.range(0, clients)
+				.flatMap(c -> Mono.defer(() -> {
+					long start = System.nanoTime();
+					return client.get().uri("/greet")
+							.responseSingle((response, body) -> body.then(Mono.fromSupplier(() -> {
+								latencies.add(System.nanoTime() - start);
+								return response.status().code() == 200
+										? response.responseHeaders().get("X-Instance", "-")
+										: String.valueOf(response.status().code());
+							})));
+				})
+						.doOnNext(instance -> shares.computeIfAbsent(instance, i -> new LongAdder()).increment())
+						.repeat(() -> System.nanoTime() < end), clients)
+				.blockLast();
+	}
+
+	private static double percentile(long[] sorted, double quantile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(quantile * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.alchemist.benchmark;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.alchemist.Application;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+/*
+ * Backend load with and without the ResponseCache filter on /greet/**.
+ * A stub GREET-API counts the calls it gets and answers after serviceMillis; a fixed number of clients
+ * call the gateway back to back for the given time, first through a plain route, then through a cached one.
+ *
+ * Usage: ResponseCacheLoadDriver [clients=64] [seconds=10] [serviceMillis=20] [ttl=5s]
+ */
+public class ResponseCacheLoadDriver {
+
+	public static void main(String[] args) {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int serviceMillis = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		String ttl = args.length > 3 ? args[3] : "5s";
+
+		LongAdder backendCalls = new LongAdder();
+		DisposableServer backend = HttpServer.create().port(0)
+				.route(routes -> routes.get("/greet", (request, response) -> {
+					backendCalls.increment();
+					return response.sendString(Mono.just("Good Morning(stub)").delayElement(Duration.ofMillis(serviceMillis)));
+				}))
+				.bindNow();
+
+		run("no cache", new String[0], backend.port(), backendCalls, clients, seconds);
+		run("cache ttl " + ttl, new String[] {
+				"spring.cloud.gateway.routes[0].filters[0].name=ResponseCache",
+				"spring.cloud.gateway.routes[0].filters[0].args.ttl=" + ttl }, backend.port(), backendCalls, clients, seconds);
+		backend.disposeNow();
+	}
+
+	private static void run(String mode, String[] filterProperties, int backendPort, LongAdder backendCalls, int clients,
+			int seconds) {
+		String[] properties = new String[filterProperties.length + 8];
+		properties[0] = "server.port=0";
+		properties[1] = "eureka.client.enabled=false";
+		properties[2] = "spring.cloud.gateway.discovery.locator.enabled=false";
+		properties[3] = "spring.cloud.gateway.routes[0].id=greet-api";
+		properties[4] = "spring.cloud.gateway.routes[0].uri=http://localhost:" + backendPort;
+		properties[5] = "spring.cloud.gateway.routes[0].predicates[0]=Path=/greet/**";
+		properties[6] = "logging.level.root=WARN";
+		properties[7] = "spring.main.banner-mode=off";
+		System.arraycopy(filterProperties, 0, properties, 8, filterProperties.length);
+		//command line arguments, so the route list replaces the one in application.yml
+		ConfigurableApplicationContext gateway = new SpringApplicationBuilder(Application.class)
+				.run(Arrays.stream(properties).map(p -> "--" + p).toArray(String[]::new));
+		int gatewayPort = Integer.parseInt(gateway.getEnvironment().getProperty("local.server.port"));
+		HttpClient client = HttpClient.create().baseUrl("http://localhost:" + gatewayPort);
+
+		backendCalls.reset();
+		Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+		long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		long start = System.nanoTime();
+		Flux.range(0, clients)
+				.flatMap(c -> Mono.defer(() -> client.get().uri("/greet")
+						.responseSingle((response, body) -> body.then(Mono.just(
+								response.status().code() + " " + response.responseHeaders().get("X-Cache", "-")))))
+						.doOnNext(outcome -> outcomes.computeIfAbsent(outcome, o -> new LongAdder()).increment())
+						.repeat(() -> System.nanoTime() < end), clients)
+				.blockLast();
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		long requests = outcomes.values().stream().mapToLong(LongAdder::sum).sum();
+
+		System.out.printf("%-13s %7d requests (%6.0f/s), backend calls %6d (%5.1f%% of requests) | %s%n", mode, requests,
+				requests / elapsed, backendCalls.sum(), 100.0 * backendCalls.sum() / Math.max(1, requests), outcomes);
+		gateway.close();
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.alchemist.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GatewayResponseCacheTests {
+
+	private static final Duration ROUTE_TTL = Duration.ofSeconds(30);
+	private static final int REQUESTS = 8;
+
+	@Test
+	void upstreamCacheControlOnlyShortensTheRouteTtl() {
+		assertThat(ttl(200, new HttpHeaders())).isEqualTo(ROUTE_TTL);
+		assertThat(ttl(200, headers(HttpHeaders.CACHE_CONTROL, "max-age=10"))).isEqualTo(Duration.ofSeconds(10));
+		assertThat(ttl(200, headers(HttpHeaders.CACHE_CONTROL, "public, max-age=600"))).isEqualTo(ROUTE_TTL);
+		assertThat(ttl(200, headers(HttpHeaders.CACHE_CONTROL, "max-age=5, s-maxage=20"))).isEqualTo(Duration.ofSeconds(20));
+		assertThat(ttl(404, headers(HttpHeaders.CACHE_CONTROL, "s-maxage=3"))).isEqualTo(Duration.ofSeconds(3));
+	}
+
+	@Test
+	void responsesForOneClientAreNotStored() {
+		assertThat(ttl(200, headers(HttpHeaders.CACHE_CONTROL, "no-store"))).isEqualTo(Duration.ZERO);
+		assertThat(ttl(200, headers(HttpHeaders.CACHE_CONTROL, "no-cache"))).isEqualTo(Duration.ZERO);
+		assertThat(ttl(200, headers(HttpHeaders.CACHE_CONTROL, "private, max-age=60"))).isEqualTo(Duration.ZERO);
+		assertThat(ttl(200, headers(HttpHeaders.SET_COOKIE, "session=abc"))).isEqualTo(Duration.ZERO);
+		assertThat(ttl(500, new HttpHeaders())).isEqualTo(Duration.ZERO);
+	}
+
+	@Test
+	void onlyAVaryOnKeyedHeadersIsStored() {
+		assertThat(ttl(200, headers(HttpHeaders.VARY, "Accept, Accept-Encoding"))).isEqualTo(ROUTE_TTL);
+		assertThat(ttl(200, headers(HttpHeaders.VARY, "User-Agent"))).isEqualTo(Duration.ZERO);
+		assertThat(ttl(200, headers(HttpHeaders.VARY, "*"))).isEqualTo(Duration.ZERO);
+	}
+
+	@Test
+	void requestsWithCredentialsOrNoStoreBypassTheCache() {
+		assertThat(GatewayResponseCache.bypass(headers(HttpHeaders.AUTHORIZATION, "Bearer token"))).isTrue();
+		assertThat(GatewayResponseCache.bypass(headers(HttpHeaders.COOKIE, "session=abc"))).isTrue();
+		assertThat(GatewayResponseCache.bypass(headers(HttpHeaders.CACHE_CONTROL, "No-Store"))).isTrue();
+
+		assertThat(GatewayResponseCache.bypass(new HttpHeaders())).isFalse();
+		assertThat(GatewayResponseCache.bypass(headers(HttpHeaders.CACHE_CONTROL, "no-cache"))).isFalse();
+	}
+
+	@Test
+	void noCacheAndMaxAgeZeroRevalidate() {
+		assertThat(GatewayResponseCache.revalidate(headers(HttpHeaders.CACHE_CONTROL, "no-cache"))).isTrue();
+		assertThat(GatewayResponseCache.revalidate(headers(HttpHeaders.CACHE_CONTROL, "max-age=0"))).isTrue();
+		assertThat(GatewayResponseCache.revalidate(headers(HttpHeaders.PRAGMA, "no-cache"))).isTrue();
+
+		assertThat(GatewayResponseCache.revalidate(new HttpHeaders())).isFalse();
+		assertThat(GatewayResponseCache.revalidate(headers(HttpHeaders.CACHE_CONTROL, "max-age=10"))).isFalse();
+	}
+
+	//the same leader / follower protocol ResponseCacheGatewayFilterFactory follows for each request
+	@Test
+	void concurrentMissesMakeOneUpstreamCall() throws Exception {
+		GatewayResponseCache cache = new GatewayResponseCache(1 << 20, 1 << 16, 5_000, new SimpleMeterRegistry());
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		CountDownLatch followersJoined = new CountDownLatch(REQUESTS - 1);
+		ExecutorService pool = Executors.newFixedThreadPool(REQUESTS);
+		CyclicBarrier start = new CyclicBarrier(REQUESTS);
+		try {
+			List<Future<CachedResponse>> futures = new ArrayList<>();
+			for (int i = 0; i < REQUESTS; i++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					CompletableFuture<CachedResponse> leader = new CompletableFuture<>();
+					CompletableFuture<CachedResponse> entry = cache.getOrJoin("greet /greet/42||", leader);
+					if (entry != leader) {
+						followersJoined.countDown();
+						return entry.get(5, TimeUnit.SECONDS);
+					}
+					//the upstream call, held until every other request is waiting on it
+					upstreamCalls.incrementAndGet();
+					followersJoined.await(5, TimeUnit.SECONDS);
+					HttpHeaders headers = headers(HttpHeaders.CACHE_CONTROL, "max-age=60");
+					CachedResponse response = cache.capture(200, headers, "ticket 42".getBytes(StandardCharsets.UTF_8),
+							ROUTE_TTL, System.nanoTime());
+					leader.complete(response);
+					return response;
+				}));
+			}
+			for (Future<CachedResponse> future : futures) {
+				CachedResponse response = future.get(10, TimeUnit.SECONDS);
+				assertThat(response.status()).isEqualTo(200);
+				assertThat(new String(response.body(), StandardCharsets.UTF_8)).isEqualTo("ticket 42");
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(upstreamCalls.get()).isEqualTo(1);
+		assertThat(followersJoined.getCount()).isZero();
+		//a later request is answered from the finished entry
+		CompletableFuture<CachedResponse> leader = new CompletableFuture<>();
+		CompletableFuture<CachedResponse> entry = cache.getOrJoin("greet /greet/42||", leader);
+		assertThat(entry).isNotSameAs(leader);
+		assertThat(entry.isDone()).isTrue();
+	}
+
+	private static Duration ttl(int status, HttpHeaders headers) {
+		return Duration.ofNanos(GatewayResponseCache.ttlNanos(status, headers, ROUTE_TTL));
+	}
+
+	private static HttpHeaders headers(String name, String value) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(name, value);
+		return headers;
+	}
+}
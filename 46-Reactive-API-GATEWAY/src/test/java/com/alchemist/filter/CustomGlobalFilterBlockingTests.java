@@ -0,0 +1,108 @@
+package com.alchemist.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.alchemist.observability.ExchangeRecorder;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/*
+ * Runs the filter on Netty event loop threads (and Reactor's parallel threads) under BlockHound,
+ * which turns any blocking call on those threads into a BlockingOperationError.
+ */
+class CustomGlobalFilterBlockingTests {
+
+	private static final int REQUESTS = 20_000;
+
+	private static DefaultEventLoopGroup eventLoops;
+	private static Scheduler loopScheduler;
+
+	@BeforeAll
+	static void installBlockHound() {
+		BlockHound.builder()
+				.nonBlockingThreadPredicate(p -> p.or(thread -> thread.getName().startsWith("test-loop")))
+				.install();
+		eventLoops = new DefaultEventLoopGroup(4, new DefaultThreadFactory("test-loop"));
+		loopScheduler = Schedulers.fromExecutorService(eventLoops);
+	}
+
+	@AfterAll
+	static void shutdown() {
+		loopScheduler.dispose();
+		eventLoops.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void blockHoundRejectsBlockingOnTheEventLoop() {
+		Throwable error = Mono.fromCallable(() -> {
+			Thread.sleep(1);
+			return 1;
+		}).subscribeOn(loopScheduler).then(Mono.<Throwable>empty()).onErrorResume(Mono::just).block(Duration.ofSeconds(10));
+
+		assertThat(error).isInstanceOf(BlockingOperationError.class);
+	}
+
+	@Test
+	void filterNeverBlocksTheEventLoop() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		//small buffers, so the overflow path runs on the loops as well
+		ExchangeRecorder recorder = new ExchangeRecorder(256, 1000, registry);
+		CustomGlobalFilter filter = new CustomGlobalFilter(recorder);
+		Route route = Route.async().id("greet-api").uri("http://localhost:9090").predicate(exchange -> true).build();
+		//half of the exchanges complete on the loop, the other half on Reactor's parallel timer threads
+		GatewayFilterChain chain = exchange -> {
+			exchange.getResponse().setStatusCode(HttpStatus.OK);
+			return exchange.getRequest().getPath().value().hashCode() % 2 == 0 ? Mono.empty()
+					: Mono.delay(Duration.ofMillis(1)).then();
+		};
+		List<ServerWebExchange> exchanges = new ArrayList<>(REQUESTS);
+		for (int i = 0; i < REQUESTS; i++) {
+			MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/greet/" + i)
+					.header("User-Agent", "blockhound").header("X-Request-Id", String.valueOf(i)));
+			if (i % 4 != 0) {
+				exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+			}
+			exchanges.add(exchange);
+		}
+
+		Throwable error = Flux.fromIterable(exchanges)
+				.flatMap(exchange -> Mono.defer(() -> filter.filter(exchange, chain)).subscribeOn(loopScheduler), 512)
+				.then(Mono.<Throwable>empty())
+				.onErrorResume(Mono::just)
+				.block(Duration.ofSeconds(60));
+		assertThat(error).isNull();
+
+		recorder.export();
+		long recorded = registry.find("gateway.exchanges").timers().stream().mapToLong(Timer::count).sum();
+		double dropped = registry.get("gateway.exchanges.dropped").functionCounter().count();
+		assertThat(recorded).isPositive();
+		assertThat(recorded + (long) dropped).isEqualTo(REQUESTS);
+		assertThat(registry.find("gateway.exchanges").tag("route", "unmatched").tag("status", "200").timer()).isNotNull();
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.alchemist.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Feeds latency samples straight into the limit. Latencies are a few microseconds so that the
+ * once-per-baseline-interval rule on decreases doesn't hide how often a decrease would have happened.
+ */
+class AdaptiveConcurrencyLimitTests {
+
+	private static final long BASELINE_NANOS = 1_000;
+
+	@Test
+	void steadyJitteryLatencyKeepsTheLimit() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 50, 2.0, 0.9, TimeUnit.SECONDS.toNanos(30));
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; i++) {
+			//up to 60% above the baseline, and one in fifty 3-5x slower
+			long latency = BASELINE_NANOS + random.nextInt(600);
+			if (random.nextInt(50) == 0) {
+				latency = BASELINE_NANOS * 3 + random.nextInt(2_000);
+			}
+			sample(limit, latency);
+		}
+
+		assertThat(limit.getLimit()).isEqualTo(50);
+		assertThat(limit.getSmoothedNanos()).isLessThan(BASELINE_NANOS * 2);
+		assertThat(limit.getInFlight()).isZero();
+	}
+
+	@Test
+	void sustainedSlowdownLowersTheLimit() throws InterruptedException {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 50, 2.0, 0.9, TimeUnit.SECONDS.toNanos(30));
+		for (int i = 0; i < 1_000; i++) {
+			sample(limit, BASELINE_NANOS);
+		}
+		for (int i = 0; i < 100; i++) {
+			sample(limit, BASELINE_NANOS * 5);
+			Thread.sleep(1);
+		}
+
+		assertThat(limit.getLimit()).isLessThan(50);
+	}
+
+	private static void sample(AdaptiveConcurrencyLimit limit, long latency) {
+		assertThat(limit.tryAcquire()).isTrue();
+		limit.release(latency, true);
+	}
+
+}